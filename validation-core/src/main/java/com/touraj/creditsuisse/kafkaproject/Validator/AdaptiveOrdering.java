@@ -0,0 +1,169 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Validator order of the fail-fast chain, learned per {@link TradeType} while trades flow.
+ * One trade in {@link #SAMPLE_RATE} runs every validator of its plan and each one's cost and
+ * whether it rejected are recorded. Every {@link #WINDOW} sampled trades the plan is re-ranked
+ * by mean cost divided by rejection rate, so cheap checks that reject often run first and
+ * checks that never reject run last, cheapest first.
+ */
+final class AdaptiveOrdering {
+
+    static final int SAMPLE_RATE = 64;
+
+    static final int WINDOW = 256;
+
+    //[Touraj] :: Stands in for a rejection rate of 0, so those validators rank by cost alone
+    private static final double MIN_REJECTION_RATE = 1e-9;
+
+    private static final ValidationSink DISCARD = (tradeNumber, errorType) -> { };
+
+    private final Plan[] plans;
+
+    private final ThreadLocal<FirstRejectionSink> firstRejectionSinks = ThreadLocal.withInitial(FirstRejectionSink::new);
+
+    AdaptiveOrdering(IValidator[][] plans) {
+        this.plans = new Plan[plans.length];
+        for (int i = 0; i < plans.length; i++) {
+            this.plans[i] = new Plan(plans[i]);
+        }
+    }
+
+    List<IValidator> getOrder(TradeType tradeType) {
+        Plan plan = plans[tradeType.ordinal()];
+        List<IValidator> order = new ArrayList<>();
+        for (int index : plan.order) {
+            order.add(plan.validators[index]);
+        }
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * Runs the plan of the trade's type until a validator rejects. Only the first rejection
+     * reaches the sink.
+     *
+     * @return true when the trade was rejected
+     */
+    boolean validate(Trade trade, TradeType tradeType, int tradeNumber, ValidationSink sink) {
+
+        Plan plan = plans[tradeType.ordinal()];
+        int[] order = plan.order;
+
+        FirstRejectionSink first = firstRejectionSinks.get();
+        first.start(sink);
+        try {
+            if ((ThreadLocalRandom.current().nextInt() & (SAMPLE_RATE - 1)) == 0) {
+                sample(plan, order, trade, tradeNumber, first);
+            } else {
+                for (int index : order) {
+                    plan.validators[index].processValidation(trade, tradeNumber, first);
+                    if (first.rejected) {
+                        break;
+                    }
+                }
+            }
+            return first.rejected;
+        } finally {
+            first.release();
+        }
+    }
+
+    private void sample(Plan plan, int[] order, Trade trade, int tradeNumber, FirstRejectionSink first) {
+
+        //[Touraj] :: Every validator runs on a sample, so the rates are not skewed by the current order
+        long start = System.nanoTime();
+        for (int index : order) {
+            boolean rejectedBefore = first.rejected;
+            boolean valid = plan.validators[index].processValidation(trade, tradeNumber, rejectedBefore ? DISCARD : first);
+            long end = System.nanoTime();
+
+            plan.nanos[index].add(end - start);
+            if (!valid || first.rejected != rejectedBefore) {
+                plan.rejections[index].increment();
+            }
+            start = end;
+        }
+
+        if (plan.samples.incrementAndGet() % WINDOW == 0) {
+            plan.reorder();
+        }
+    }
+
+    private static final class Plan {
+
+        final IValidator[] validators;
+        final LongAdder[] rejections;
+        final LongAdder[] nanos;
+        final AtomicLong samples = new AtomicLong();
+
+        //[Touraj] :: Indexes into validators; replaced as a whole, never changed in place
+        volatile int[] order;
+
+        Plan(IValidator[] validators) {
+            this.validators = validators;
+            this.rejections = new LongAdder[validators.length];
+            this.nanos = new LongAdder[validators.length];
+            this.order = new int[validators.length];
+            for (int i = 0; i < validators.length; i++) {
+                rejections[i] = new LongAdder();
+                nanos[i] = new LongAdder();
+                order[i] = i;
+            }
+        }
+
+        void reorder() {
+
+            //[Touraj] :: Each window starts from zero, so the order follows changes in the traffic
+            double[] scores = new double[validators.length];
+            for (int i = 0; i < validators.length; i++) {
+                double cost = nanos[i].sumThenReset();
+                double rejectionRate = Math.max(rejections[i].sumThenReset() / (double) WINDOW, MIN_REJECTION_RATE);
+                scores[i] = cost / WINDOW / rejectionRate;
+            }
+
+            Integer[] ranked = new Integer[validators.length];
+            for (int i = 0; i < ranked.length; i++) {
+                ranked[i] = order[i];
+            }
+            //[Touraj] :: Stable sort, validators with equal scores keep their current order
+            Arrays.sort(ranked, (a, b) -> Double.compare(scores[a], scores[b]));
+
+            int[] newOrder = new int[ranked.length];
+            for (int i = 0; i < ranked.length; i++) {
+                newOrder[i] = ranked[i];
+            }
+            order = newOrder;
+        }
+    }
+
+    private static final class FirstRejectionSink implements ValidationSink {
+
+        private ValidationSink sink;
+        private boolean rejected;
+
+        void start(ValidationSink sink) {
+            this.sink = sink;
+            this.rejected = false;
+        }
+
+        @Override
+        public void reject(int tradeNumber, ErrorType errorType) {
+            if (!rejected) {
+                rejected = true;
+                sink.reject(tradeNumber, errorType);
+            }
+        }
+
+        void release() {
+            sink = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.util.Utility;
+
+/**
+ * Created by toraj on 06/08/2017.
+ *
+ * A valueDate or tradeDate that is not a yyyy-MM-dd date is rejected too, it can not be shown to be in order.
+ */
+public class BeforeDateValidator implements IValidator {
+
+    @Override
+    public boolean appliesTo(TradeType tradeType) {
+//                [Touraj] :: Only Spot and Forward types have valueDate
+        return tradeType == TradeType.Spot || tradeType == TradeType.Forward;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        boolean isValidationSuccessfull = true;
+
+        int valueDate = trade.getValueDate();
+        int tradeDate = trade.getTradeDate();
+
+        boolean res = !Utility.isValidDate(valueDate) || !Utility.isValidDate(tradeDate)
+                || Utility.checkBeforeDate(valueDate, tradeDate);
+
+        if (res) {
+            isValidationSuccessfull = false;
+
+            //[Touraj] :: Adding Validation Message to Validation Store
+            sink.reject(tradeNumber, ErrorType.valueDateNotbeforeTradeDate);
+        }
+
+        return isValidationSuccessfull;
+    }
+}
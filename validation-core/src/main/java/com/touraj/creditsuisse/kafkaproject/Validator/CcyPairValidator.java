@@ -0,0 +1,34 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyRegistry;
+
+/**
+ * ccyPair must be two different ISO 4217 codes, e.g. EURUSD. Both halves are read as packed
+ * codes straight from the pair, without substrings.
+ */
+public class CcyPairValidator implements IValidator {
+
+    @Override
+    public boolean appliesTo(TradeType tradeType) {
+//                [Touraj] :: Only Spot and Forward are checked on ccyPair
+        return tradeType == TradeType.Spot || tradeType == TradeType.Forward;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        boolean isValidationSuccessfull = true;
+
+        int base = trade.getCcyPairBaseCode();
+        int quote = trade.getCcyPairQuoteCode();
+
+        if (!CurrencyRegistry.isValid(base) || !CurrencyRegistry.isValid(quote) || base == quote) {
+            isValidationSuccessfull = false;
+
+            //[Touraj] :: Adding Validation Message to Validation Store
+            sink.reject(tradeNumber, ErrorType.ccyPairNotValidISO4217);
+        }
+
+        return isValidationSuccessfull;
+    }
+}
@@ -0,0 +1,465 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.cache.TradeKey;
+import com.touraj.creditsuisse.kafkaproject.cache.ValidationResultCache;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by toraj on 06/09/2017.
+ *
+ * Immutable once built, so one chain is shared by every request. Validators run in list order.
+ * When the chain is built it compiles one plan per {@link TradeType} holding only the validators
+ * that apply to that type, and each trade is dispatched once on its type.
+ * When built with {@link ValidationMetrics}, each validator call and each trade is timed and every
+ * rejection is counted. When built with a {@link ValidationResultCache}, a trade whose content was
+ * validated before gets the cached rejections and the validators do not run.
+ * {@link #failFast()} gives a view of the same chain that stops each trade at its first rejection
+ * and learns the cheapest validator order at runtime; see {@link AdaptiveOrdering}.
+ * Cross-trade validators ({@link IValidator#isCrossTrade()}) form a separate tail of each plan, run
+ * in list order after the rest and only for a trade the rest accepted, so a trade rejected there
+ * never counts as a duplicate or towards an exposure. When a tail validator rejects the trade, the
+ * ones before it withdraw what they booked for it, and a batch that throws withdraws the bookings
+ * of its accepted trades (see {@link CrossTradeBookings}), so a retry is validated as the first
+ * attempt was. The tail is not cached, not reordered and not part of the per-trade latency; each
+ * of its validators is still timed.
+ */
+public class ChainofValidators {
+
+    private final List<IValidator> validatorList;
+
+    private final IValidator[][] plans;
+
+    private final IValidator[][] crossTradePlans;
+
+    private final ValidationMetrics metrics;
+
+    //[Touraj] :: Same shape as plans, the metrics index of each validator
+    private final int[][] planMetricIndexes;
+
+    private final int[][] crossTradeMetricIndexes;
+
+    private final ValidationResultCache resultCache;
+
+    //[Touraj] :: null in full mode
+    private final AdaptiveOrdering adaptiveOrdering;
+
+    private final ChainofValidators failFastChain;
+
+    public ChainofValidators(List<IValidator> validators) {
+        this(validators, null);
+    }
+
+    /**
+     * @param metrics null to run without instrumentation
+     */
+    public ChainofValidators(List<IValidator> validators, ValidationMetrics metrics) {
+        this(validators, metrics, null);
+    }
+
+    /**
+     * @param metrics     null to run without instrumentation
+     * @param resultCache null to validate every trade, resubmitted or not
+     */
+    public ChainofValidators(List<IValidator> validators, ValidationMetrics metrics, ValidationResultCache resultCache) {
+        this.validatorList = Collections.unmodifiableList(new ArrayList<>(validators));
+        this.plans = compilePlans(validatorList, false);
+        this.crossTradePlans = compilePlans(validatorList, true);
+        this.metrics = metrics;
+        this.planMetricIndexes = metrics == null ? null : metricIndexes(plans, metrics);
+        this.crossTradeMetricIndexes = metrics == null ? null : metricIndexes(crossTradePlans, metrics);
+        this.resultCache = resultCache;
+        this.adaptiveOrdering = null;
+        this.failFastChain = new ChainofValidators(this);
+    }
+
+    private ChainofValidators(ChainofValidators fullChain) {
+        this.validatorList = fullChain.validatorList;
+        this.plans = fullChain.plans;
+        this.crossTradePlans = fullChain.crossTradePlans;
+        this.metrics = fullChain.metrics;
+        this.planMetricIndexes = fullChain.planMetricIndexes;
+        this.crossTradeMetricIndexes = fullChain.crossTradeMetricIndexes;
+        this.resultCache = fullChain.resultCache;
+        this.adaptiveOrdering = new AdaptiveOrdering(plans);
+        this.failFastChain = this;
+    }
+
+    public ChainofValidators() {
+        this(initValidators());
+    }
+
+    public static List<IValidator> initValidators()
+    {
+        BeforeDateValidator bdv = new BeforeDateValidator();
+        WeekendValidator wv = new WeekendValidator();
+        ISO4217Validator iso = new ISO4217Validator();
+        CcyPairValidator cpv = new CcyPairValidator();
+        CustomerValidator cuv = new CustomerValidator();
+        StyleValidator sv = new StyleValidator();
+        ExcerciseStartDateValidator esdv = new ExcerciseStartDateValidator();
+        ExpiryAndPrimiumDateValidator eapdv = new ExpiryAndPrimiumDateValidator();
+
+        return Arrays.asList(bdv, wv, iso, cpv, cuv, sv, esdv, eapdv);
+    }
+
+    private static IValidator[][] compilePlans(List<IValidator> validators, boolean crossTrade) {
+
+        IValidator[][] plans = new IValidator[TradeType.values().length][];
+
+        for (TradeType tradeType : TradeType.values()) {
+            List<IValidator> plan = new ArrayList<>();
+            for (IValidator iValidator : validators) {
+                if (iValidator.isCrossTrade() == crossTrade && iValidator.appliesTo(tradeType)) {
+                    plan.add(iValidator);
+                }
+            }
+            plans[tradeType.ordinal()] = plan.toArray(new IValidator[plan.size()]);
+        }
+
+        return plans;
+    }
+
+    private static int[][] metricIndexes(IValidator[][] plans, ValidationMetrics metrics) {
+
+        int[][] indexes = new int[plans.length][];
+        for (int i = 0; i < plans.length; i++) {
+            indexes[i] = new int[plans[i].length];
+            for (int j = 0; j < plans[i].length; j++) {
+                indexes[i][j] = metrics.indexOf(plans[i][j]);
+            }
+        }
+        return indexes;
+    }
+
+    public List<IValidator> getValidatorList() {
+        return validatorList;
+    }
+
+    /**
+     * @return null when the chain runs without instrumentation
+     */
+    public ValidationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the validators run for tradeType, the cross-trade ones last
+     */
+    public List<IValidator> getPlan(TradeType tradeType) {
+        List<IValidator> plan = new ArrayList<>(Arrays.asList(plans[tradeType.ordinal()]));
+        plan.addAll(Arrays.asList(crossTradePlans[tradeType.ordinal()]));
+        return Collections.unmodifiableList(plan);
+    }
+
+    /**
+     * @return true when some plan has cross-trade validators, whose results depend on trade order
+     */
+    public boolean hasCrossTrade() {
+        for (IValidator[] plan : crossTradePlans) {
+            if (plan.length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fail-fast mode of this chain, sharing its validators, metrics and result cache. Each bad
+     * trade gets exactly one rejection, from whichever validator finds it first in the learned
+     * order, so which error is reported can differ from the first one of the full mode.
+     */
+    public ChainofValidators failFast() {
+        return failFastChain;
+    }
+
+    public boolean isFailFast() {
+        return adaptiveOrdering != null;
+    }
+
+    /**
+     * @return the order the fail-fast mode currently runs the plan of tradeType in, without the
+     * cross-trade validators that always run last
+     */
+    public List<IValidator> getFailFastOrder(TradeType tradeType) {
+        return failFastChain.adaptiveOrdering.getOrder(tradeType);
+    }
+
+    /**
+     * When a trade throws, the cross-trade bookings of the trades before it are withdrawn
+     */
+    public void executeChain(JSONArray jsonArr, ValidationSink sink)
+    {
+        CrossTradeBookings bookings = newBookings();
+        try {
+            for (int i = 0; i <jsonArr.length() ; i++) {
+                validateTrade(jsonArr.getJSONObject(i), i+1, sink, bookings);
+            }
+        } catch (RuntimeException | Error e) {
+            if (bookings != null) {
+                bookings.withdraw();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return bookings for one request, null when the chain has no cross-trade validator
+     */
+    public CrossTradeBookings newBookings() {
+        return hasCrossTrade() ? new CrossTradeBookings() : null;
+    }
+
+    /**
+     * @return bookings of at most window trades, see {@link CrossTradeBookings#CrossTradeBookings(int)};
+     * null when the chain has no cross-trade validator
+     */
+    public CrossTradeBookings newBookings(int window) {
+        return hasCrossTrade() ? new CrossTradeBookings(window) : null;
+    }
+
+    public void validateTrade(JSONObject jsonObj, int tradeNumber, ValidationSink sink)
+    {
+        validateTrade(jsonObj, tradeNumber, sink, null);
+    }
+
+    /**
+     * @param bookings collects the cross-trade bookings of the trade if it is accepted, null when
+     *                 they can not be withdrawn later
+     */
+    public void validateTrade(JSONObject jsonObj, int tradeNumber, ValidationSink sink, CrossTradeBookings bookings)
+    {
+        //[Touraj] :: One Trade per trade so every date field is parsed once for the whole chain
+        validateTrade(new JsonTrade(jsonObj), tradeNumber, sink, bookings);
+    }
+
+    public void validateTrade(Trade trade, int tradeNumber, ValidationSink sink)
+    {
+        validateTrade(trade, tradeNumber, sink, null);
+    }
+
+    /**
+     * @param bookings collects the cross-trade bookings of the trade if it is accepted, null when
+     *                 they can not be withdrawn later
+     */
+    public void validateTrade(Trade trade, int tradeNumber, ValidationSink sink, CrossTradeBookings bookings)
+    {
+        if (adaptiveOrdering != null) {
+            validateTradeFailFast(trade, tradeNumber, sink, bookings);
+        } else if (resultCache != null) {
+            validateTradeCached(trade, tradeNumber, sink, bookings);
+        } else if (runChain(trade, tradeNumber, sink)) {
+            runCrossTrade(trade, tradeNumber, sink, bookings);
+        }
+    }
+
+    private void validateTradeCached(Trade trade, int tradeNumber, ValidationSink sink, CrossTradeBookings bookings)
+    {
+        long start = metrics == null ? 0 : System.nanoTime();
+
+        TradeKey key = TradeKey.of(trade);
+        ErrorType[] cached = resultCache.get(key);
+
+        if (cached != null) {
+            for (ErrorType errorType : cached) {
+                sink.reject(tradeNumber, errorType);
+                if (metrics != null) {
+                    metrics.recordRejection(errorType);
+                }
+            }
+            if (metrics != null) {
+                metrics.recordTrade(trade.getType(), System.nanoTime() - start);
+            }
+            if (cached.length == 0 && trade.getType() != TradeType.UNKNOWN) {
+                runCrossTrade(trade, tradeNumber, sink, bookings);
+            }
+            return;
+        }
+
+        long generation = resultCache.getGeneration();
+        ValidationResultCache.ResultRecorder recorder = resultCache.recorder(sink);
+        boolean valid;
+        try {
+            valid = runChain(trade, tradeNumber, recorder);
+            //[Touraj] :: Only reached when the whole chain ran, a trade that throws is never cached
+            resultCache.put(key, recorder.result(), generation);
+        } finally {
+            recorder.release();
+        }
+
+        //[Touraj] :: After the release: the tail must not end up in the cached result
+        if (valid) {
+            runCrossTrade(trade, tradeNumber, sink, bookings);
+        }
+    }
+
+    private void validateTradeFailFast(Trade trade, int tradeNumber, ValidationSink sink, CrossTradeBookings bookings)
+    {
+        long start = metrics == null ? 0 : System.nanoTime();
+
+        TradeKey key = null;
+        if (resultCache != null) {
+            key = TradeKey.of(trade);
+            ErrorType[] cached = resultCache.get(key);
+            if (cached != null) {
+                if (cached.length > 0) {
+                    sink.reject(tradeNumber, cached[0]);
+                    if (metrics != null) {
+                        metrics.recordRejection(cached[0]);
+                    }
+                }
+                if (metrics != null) {
+                    metrics.recordTrade(trade.getType(), System.nanoTime() - start);
+                }
+                if (cached.length == 0 && trade.getType() != TradeType.UNKNOWN) {
+                    runCrossTrade(trade, tradeNumber, sink, bookings);
+                }
+                return;
+            }
+        }
+
+        long generation = resultCache == null ? 0 : resultCache.getGeneration();
+        ValidationMetrics.CountingSink countingSink = metrics == null ? null : metrics.countingSink(sink);
+        TradeType tradeType = trade.getType();
+
+        boolean rejected;
+        try {
+            ValidationSink target = countingSink == null ? sink : countingSink;
+            if (tradeType == TradeType.UNKNOWN) {
+                target.reject(tradeNumber, ErrorType.TradeTypeNotValid);
+                rejected = true;
+            } else {
+                rejected = adaptiveOrdering.validate(trade, tradeType, tradeNumber, target);
+            }
+        } finally {
+            if (countingSink != null) {
+                countingSink.release();
+            }
+        }
+
+        //[Touraj] :: Only an accepted trade went through every validator, a rejected one's result is partial
+        if (!rejected && resultCache != null) {
+            resultCache.put(key, new ErrorType[0], generation);
+        }
+        if (metrics != null) {
+            metrics.recordTrade(tradeType, System.nanoTime() - start);
+        }
+        if (!rejected) {
+            runCrossTrade(trade, tradeNumber, sink, bookings);
+        }
+    }
+
+    /**
+     * @return true when the trade was accepted
+     */
+    private boolean runChain(Trade trade, int tradeNumber, ValidationSink sink)
+    {
+        if (metrics != null) {
+            return validateTradeMetered(trade, tradeNumber, sink);
+        }
+
+        TradeType tradeType = trade.getType();
+
+        boolean valid = true;
+        if (tradeType == TradeType.UNKNOWN) {
+            //[Touraj] :: Only the type independent checks (e.g. customer) still run for such trades
+            sink.reject(tradeNumber, ErrorType.TradeTypeNotValid);
+            valid = false;
+        }
+
+        for (IValidator iValidator : plans[tradeType.ordinal()]) {
+            valid &= iValidator.processValidation(trade, tradeNumber, sink);
+        }
+        return valid;
+    }
+
+    private void runCrossTrade(Trade trade, int tradeNumber, ValidationSink sink, CrossTradeBookings bookings)
+    {
+        TradeType tradeType = trade.getType();
+        IValidator[] plan = crossTradePlans[tradeType.ordinal()];
+        if (plan.length == 0) {
+            return;
+        }
+
+        ValidationMetrics.CountingSink countingSink = metrics == null ? null : metrics.countingSink(sink);
+        int[] metricIndexes = metrics == null ? null : crossTradeMetricIndexes[tradeType.ordinal()];
+
+        //[Touraj] :: Validators before index booked the trade, they take it back if a later one rejects it
+        int index = 0;
+        long start = metrics == null ? 0 : System.nanoTime();
+        try {
+            for (; index < plan.length; index++) {
+                boolean valid = plan[index].processValidation(trade, tradeNumber, countingSink == null ? sink : countingSink);
+                if (metrics != null) {
+                    long end = System.nanoTime();
+                    metrics.recordValidator(metricIndexes[index], tradeType, end - start);
+                    start = end;
+                }
+                if (!valid) {
+                    withdraw(plan, index, trade);
+                    return;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            withdraw(plan, index, trade);
+            throw e;
+        } finally {
+            if (countingSink != null) {
+                countingSink.release();
+            }
+        }
+
+        if (bookings != null) {
+            bookings.add(plan, trade);
+        }
+    }
+
+    /**
+     * Withdraws the trade from the first booked validators of plan, the last one first
+     */
+    static void withdraw(IValidator[] plan, int booked, Trade trade)
+    {
+        for (int i = booked - 1; i >= 0; i--) {
+            plan[i].withdraw(trade);
+        }
+    }
+
+    private boolean validateTradeMetered(Trade trade, int tradeNumber, ValidationSink sink)
+    {
+        long tradeStart = System.nanoTime();
+
+        ValidationMetrics.CountingSink countingSink = metrics.countingSink(sink);
+        TradeType tradeType = trade.getType();
+
+        boolean valid = true;
+        if (tradeType == TradeType.UNKNOWN) {
+            countingSink.reject(tradeNumber, ErrorType.TradeTypeNotValid);
+            valid = false;
+        }
+
+        IValidator[] plan = plans[tradeType.ordinal()];
+        int[] metricIndexes = planMetricIndexes[tradeType.ordinal()];
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < plan.length; i++) {
+                valid &= plan[i].processValidation(trade, tradeNumber, countingSink);
+                //[Touraj] :: One clock read per validator, its end is the next one's start
+                long end = System.nanoTime();
+                metrics.recordValidator(metricIndexes[i], tradeType, end - start);
+                start = end;
+            }
+        } finally {
+            countingSink.release();
+        }
+
+        metrics.recordTrade(tradeType, start - tradeStart);
+        return valid;
+    }
+}
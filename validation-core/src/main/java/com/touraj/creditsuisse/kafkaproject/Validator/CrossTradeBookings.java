@@ -0,0 +1,69 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What the cross-trade validators remembered of the accepted trades of one request, so it can be
+ * withdrawn when the request is abandoned half way, e.g. a batch that throws on a later trade or
+ * a Kafka batch whose results could not be published. Without it the retry of such a request
+ * would be rejected as a duplicate of itself and counted twice towards the exposure.
+ * Bookings with a window keep only the trades since the window last filled up, so a streamed
+ * request does not keep a copy of every trade: when it fails, only the current window is withdrawn
+ * and the trades before it stay booked.
+ * Used by one thread at a time.
+ */
+public final class CrossTradeBookings {
+
+    private final int window;
+
+    private final List<IValidator[]> plans = new ArrayList<>();
+    private final List<Trade> trades = new ArrayList<>();
+
+    /**
+     * Bookings of every accepted trade of the request
+     */
+    public CrossTradeBookings() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param window accepted trades kept before the bookings are forgotten and a new window starts
+     */
+    public CrossTradeBookings(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        this.window = window;
+    }
+
+    void add(IValidator[] plan, Trade trade) {
+        if (trades.size() == window) {
+            clear();
+        }
+        plans.add(plan);
+        trades.add(trade.detach());
+    }
+
+    /**
+     * Withdraws every booking, the newest first, and forgets them
+     */
+    public void withdraw() {
+        for (int i = trades.size() - 1; i >= 0; i--) {
+            ChainofValidators.withdraw(plans.get(i), plans.get(i).length, trades.get(i));
+        }
+        clear();
+    }
+
+    /**
+     * Forgets the bookings without withdrawing them, once the request they came with is done
+     */
+    public void clear() {
+        plans.clear();
+        trades.clear();
+    }
+
+    public int size() {
+        return trades.size();
+    }
+}
@@ -0,0 +1,66 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.counterparty.Counterparties;
+import com.touraj.creditsuisse.kafkaproject.counterparty.CounterpartyRegistry;
+
+/**
+ * Created by toraj on 06/09/2017.
+ *
+ * The customer must be a known counterparty and, when the trade has a legalEntity, one the
+ * customer may trade with. Without a {@link CounterpartyRegistry} only PLUTO1 and PLUTO2 are known.
+ */
+public class CustomerValidator implements IValidator {
+
+    private final CounterpartyRegistry counterpartyRegistry;
+
+    public CustomerValidator() {
+        this(null);
+    }
+
+    /**
+     * @param counterpartyRegistry null for the built-in PLUTO1 and PLUTO2
+     */
+    public CustomerValidator(CounterpartyRegistry counterpartyRegistry) {
+        this.counterpartyRegistry = counterpartyRegistry;
+    }
+
+    /**
+     * @return null for the built-in PLUTO1 and PLUTO2
+     */
+    public CounterpartyRegistry getCounterpartyRegistry() {
+        return counterpartyRegistry;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        Counterparties counterparties = counterpartyRegistry == null
+                ? Counterparties.DEFAULT : counterpartyRegistry.getCounterparties();
+
+        boolean isValidationSuccessfull = true;
+
+        String customer = trade.getCustomer();
+
+        boolean res = counterparties.isCustomer(customer);
+
+        if (!res) {
+            isValidationSuccessfull = false;
+
+            //[Touraj] :: Adding Validation Message to Validation Store
+            sink.reject(tradeNumber, ErrorType.CustomerNotValid);
+        } else {
+
+            //[Touraj] :: legalEntity is optional in the API, only checked when present
+            String legalEntity = trade.getLegalEntity();
+
+            if (legalEntity != null && !legalEntity.isEmpty() && !counterparties.isLegalEntityOf(customer, legalEntity)) {
+                isValidationSuccessfull = false;
+
+                sink.reject(tradeNumber, ErrorType.LegalEntityNotValid);
+            }
+        }
+
+        return isValidationSuccessfull;
+
+    }
+}
@@ -0,0 +1,43 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+/**
+ * Typed validation error codes. The constant names are exactly what clients get back
+ * in the "ErrorType" field, so do not rename them.
+ */
+public enum ErrorType {
+
+    valueDateNotbeforeTradeDate,
+    valueDateFallinWeekend,
+    payCcyNotValidISO4217,
+    premiumCcyNotValidISO4217,
+    CustomerNotValid,
+    StyleNotValid,
+    InvalidExcerciseStartDate,
+    InvalidExpiryAndPrimiumDate,
+    TradeTypeNotValid,
+    /**
+     * Kafka and bulk modes only: the record is not a trade object the chain can read
+     */
+    TradeNotParsable,
+    /**
+     * Bank holiday in either currency of ccyPair. Added last: the journal stores ordinals
+     */
+    valueDateFallinHoliday,
+    /**
+     * ccyPair is not two different ISO 4217 codes (Spot and Forward)
+     */
+    ccyPairNotValidISO4217,
+    /**
+     * The customer is known but may not trade with the trade's legalEntity
+     */
+    LegalEntityNotValid,
+    /**
+     * Same customer, ccyPair, tradeDate, amounts and direction as a trade accepted shortly before
+     */
+    DuplicateTrade,
+    /**
+     * Accepting the trade would take the customer's notional over its limit for the exposure window
+     */
+    ExposureLimitExceeded
+
+}
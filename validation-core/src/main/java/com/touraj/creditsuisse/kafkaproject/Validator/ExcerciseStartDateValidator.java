@@ -0,0 +1,43 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.util.Utility;
+
+/**
+ * Created by toraj on 06/08/2017.
+ */
+public class ExcerciseStartDateValidator implements IValidator {
+
+    @Override
+    public boolean appliesTo(TradeType tradeType) {
+//                [Touraj] :: Only VanillaOption has excerciseStartDate
+        return tradeType == TradeType.VanillaOption;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        boolean isValidationSuccessfull = true;
+
+        if (!trade.getStyle().equalsIgnoreCase("AMERICAN")) {
+//                [Touraj] :: Discard , Because only AMERICAN Style has excerciseStartDate
+            return true;
+        }
+
+        int tradeDate = trade.getTradeDate();
+        int expiryDate = trade.getExpiryDate();
+        int excerciseStartDate = trade.getExcerciseStartDate();
+
+        //[Touraj] tradeDate < excerciseStartDate < expiryDate, an invalid excerciseStartDate or expiryDate fails res2
+        boolean res1 = !Utility.isValidDate(tradeDate) || Utility.checkBeforeDate(excerciseStartDate, tradeDate);
+        boolean res2 = Utility.checkBeforeDate(excerciseStartDate, expiryDate);
+
+        if (res1 || !res2) {
+            isValidationSuccessfull = false;
+
+            //[Touraj] :: Adding Validation Message to Validation Store
+            sink.reject(tradeNumber, ErrorType.InvalidExcerciseStartDate);
+        }
+
+        return isValidationSuccessfull;
+    }
+}
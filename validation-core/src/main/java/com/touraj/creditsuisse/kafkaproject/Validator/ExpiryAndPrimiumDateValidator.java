@@ -0,0 +1,38 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.util.Utility;
+
+/**
+ * Created by toraj on 06/08/2017.
+ */
+public class ExpiryAndPrimiumDateValidator implements IValidator {
+
+    @Override
+    public boolean appliesTo(TradeType tradeType) {
+//                [Touraj] :: Only VanillaOption has expiryDate, premiumDate and deliveryDate
+        return tradeType == TradeType.VanillaOption;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        boolean isValidationSuccessfull = true;
+
+        int expiryDate = trade.getExpiryDate();
+        int premiumDate = trade.getPremiumDate();
+        int deliveryDate = trade.getDeliveryDate();
+
+        //[Touraj] expiryDate < deliveryDate AND premiumDate < deliveryDate
+        boolean res1 = Utility.checkBeforeDate(expiryDate, deliveryDate);
+        boolean res2 = Utility.checkBeforeDate(premiumDate, deliveryDate);
+
+        if (!res1 || !res2) {
+            isValidationSuccessfull = false;
+
+            //[Touraj] :: Adding Validation Message to Validation Store
+            sink.reject(tradeNumber, ErrorType.InvalidExpiryAndPrimiumDate);
+        }
+
+        return isValidationSuccessfull;
+    }
+}
@@ -0,0 +1,40 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyRegistry;
+
+/**
+ * Created by toraj on 06/09/2017.
+ */
+public class ISO4217Validator implements IValidator {
+
+    @Override
+    public boolean appliesTo(TradeType tradeType) {
+//                [Touraj] :: Only VanillaOption has Currency
+        return tradeType == TradeType.VanillaOption;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        boolean isValidationSuccessfull = true;
+
+        boolean res1 = CurrencyRegistry.isValid(trade.getPayCcyCode());
+        boolean res2 = CurrencyRegistry.isValid(trade.getPremiumCcyCode());
+
+        //[Touraj] :: Adding Validation Messages to Validation Store
+        if (!res1) {
+            isValidationSuccessfull = false;
+
+            sink.reject(tradeNumber, ErrorType.payCcyNotValidISO4217);
+        }
+
+        if (!res2) {
+
+            isValidationSuccessfull = false;
+
+            sink.reject(tradeNumber, ErrorType.premiumCcyNotValidISO4217);
+        }
+
+        return isValidationSuccessfull;
+    }
+}
@@ -0,0 +1,39 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+/**
+ * Created by toraj on 06/08/2017.
+ *
+ * Implementations must be stateless: one instance is shared by all requests and threads,
+ * and every rejection goes to the caller's {@link ValidationSink}. Cross-trade validators, see
+ * {@link #isCrossTrade()}, are the exception: they keep thread-safe state across trades.
+ */
+public interface IValidator {
+
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink);
+
+    /**
+     * Asked once when the chain is built, to decide which per-type plans include this validator.
+     * processValidation is only ever called with trades of a type accepted here.
+     */
+    public default boolean appliesTo(TradeType tradeType) {
+        return true;
+    }
+
+    /**
+     * A cross-trade validator remembers the trades it accepted, so its result depends on earlier
+     * trades. The chain runs such validators after all the others, only for a trade none of them
+     * rejected, stops at the first cross-trade rejection and never caches their result.
+     */
+    public default boolean isCrossTrade() {
+        return false;
+    }
+
+    /**
+     * Cross-trade validators only: forgets what processValidation remembered when it accepted the
+     * trade, because a later cross-trade validator rejected it or its request was abandoned.
+     * The trade reads as it did then.
+     */
+    public default void withdraw(Trade trade) {
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Collects rejections into a JSONArray in the {"ErrorType":..., "TradeNumber":...} format
+ * returned by /validatetrades.
+ */
+public class JSONArraySink implements ValidationSink {
+
+    private final JSONArray validationMessages;
+
+    public JSONArraySink(JSONArray validationMessages) {
+        this.validationMessages = validationMessages;
+    }
+
+    @Override
+    public void reject(int tradeNumber, ErrorType errorType) {
+
+        JSONObject jsonObjValidationMSG = new JSONObject();
+        jsonObjValidationMSG.put("ErrorType", errorType.name());
+        jsonObjValidationMSG.put("TradeNumber", tradeNumber);
+
+        validationMessages.put(jsonObjValidationMSG);
+    }
+
+    public JSONArray getValidationMessages() {
+        return validationMessages;
+    }
+}
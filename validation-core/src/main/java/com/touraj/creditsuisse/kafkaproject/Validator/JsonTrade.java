@@ -0,0 +1,196 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyCode;
+import com.touraj.creditsuisse.kafkaproject.util.EpochDay;
+import com.touraj.creditsuisse.kafkaproject.util.Hashing;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * {@link Trade} backed by a parsed JSONObject. Each date field is parsed the first time a
+ * validator asks for it and then reused by the rest of the chain.
+ */
+public class JsonTrade implements Trade {
+
+    private static final int NOT_PARSED = Integer.MAX_VALUE;
+
+    private final JSONObject jsonObj;
+
+    private TradeType type;
+
+    private int tradeDate = NOT_PARSED;
+    private int valueDate = NOT_PARSED;
+    private int expiryDate = NOT_PARSED;
+    private int premiumDate = NOT_PARSED;
+    private int deliveryDate = NOT_PARSED;
+    private int excerciseStartDate = NOT_PARSED;
+
+    public JsonTrade(JSONObject jsonObj) {
+        this.jsonObj = jsonObj;
+    }
+
+    public JSONObject getJsonObject() {
+        return jsonObj;
+    }
+
+    @Override
+    public TradeType getType() {
+        if (type == null) {
+            Object value = jsonObj.opt("type");
+            type = value == null ? TradeType.UNKNOWN : TradeType.of(value.toString());
+        }
+        return type;
+    }
+
+    @Override
+    public String getCustomer() {
+        return getString("customer");
+    }
+
+    @Override
+    public String getLegalEntity() {
+        Object legalEntity = jsonObj.opt("legalEntity");
+        return legalEntity instanceof String ? (String) legalEntity : null;
+    }
+
+    @Override
+    public String getStyle() {
+        return jsonObj.get("style").toString();
+    }
+
+    @Override
+    public String getDirection() {
+        Object direction = jsonObj.opt("direction");
+        return direction instanceof String ? (String) direction : null;
+    }
+
+    @Override
+    public String getPayCcy() {
+        return getString("payCcy");
+    }
+
+    @Override
+    public String getPremiumCcy() {
+        return getString("premiumCcy");
+    }
+
+    @Override
+    public int getPayCcyCode() {
+        return currencyCode("payCcy");
+    }
+
+    @Override
+    public int getPremiumCcyCode() {
+        return currencyCode("premiumCcy");
+    }
+
+    private int currencyCode(String key) {
+        Object ccy = jsonObj.opt(key);
+        return ccy instanceof String ? CurrencyCode.pack((String) ccy) : CurrencyCode.NONE;
+    }
+
+    @Override
+    public int getCcyPairBaseCode() {
+        return ccyPairCode(0);
+    }
+
+    @Override
+    public int getCcyPairQuoteCode() {
+        return ccyPairCode(3);
+    }
+
+    private int ccyPairCode(int offset) {
+        Object ccyPair = jsonObj.opt("ccyPair");
+        if (!(ccyPair instanceof String) || ((String) ccyPair).length() != 6) {
+            return CurrencyCode.NONE;
+        }
+        return CurrencyCode.pack((String) ccyPair, offset);
+    }
+
+    @Override
+    public int getTradeDate() {
+        if (tradeDate == NOT_PARSED) {
+            tradeDate = parseDate("tradeDate");
+        }
+        return tradeDate;
+    }
+
+    @Override
+    public int getValueDate() {
+        if (valueDate == NOT_PARSED) {
+            valueDate = parseDate("valueDate");
+        }
+        return valueDate;
+    }
+
+    @Override
+    public int getExpiryDate() {
+        if (expiryDate == NOT_PARSED) {
+            expiryDate = parseDate("expiryDate");
+        }
+        return expiryDate;
+    }
+
+    @Override
+    public int getPremiumDate() {
+        if (premiumDate == NOT_PARSED) {
+            premiumDate = parseDate("premiumDate");
+        }
+        return premiumDate;
+    }
+
+    @Override
+    public int getDeliveryDate() {
+        if (deliveryDate == NOT_PARSED) {
+            deliveryDate = parseDate("deliveryDate");
+        }
+        return deliveryDate;
+    }
+
+    @Override
+    public int getExcerciseStartDate() {
+        if (excerciseStartDate == NOT_PARSED) {
+            excerciseStartDate = parseDate("excerciseStartDate");
+        }
+        return excerciseStartDate;
+    }
+
+    @Override
+    public long getAmount1() {
+        return BinaryTradeFormat.fixedPoint(jsonObj.opt("amount1"));
+    }
+
+    @Override
+    public long getAmount2() {
+        return BinaryTradeFormat.fixedPoint(jsonObj.opt("amount2"));
+    }
+
+    private int parseDate(String field) {
+        return EpochDay.parse(getString(field));
+    }
+
+    //[Touraj] :: A field of the wrong type makes the trade as unreadable as a missing one, both are JSONExceptions
+    private String getString(String field) {
+        Object value = jsonObj.get(field);
+        if (!(value instanceof String)) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(field) + "] is not a string.");
+        }
+        return (String) value;
+    }
+
+    @Override
+    public long contentHash(long seed) {
+
+        //[Touraj] :: A sum of per-field hashes does not depend on the key order of the JSONObject
+        long hash = 0;
+        for (String key : jsonObj.keySet()) {
+            Object value = jsonObj.opt(key);
+            //[Touraj] :: Numbers as their JSON text, 1000000.0 put by code and 1000000 parsed from the wire are the same trade
+            String text = value instanceof Number ? JSONObject.numberToString((Number) value) : String.valueOf(value);
+            long field = Hashing.hash(key, seed) * 31 + Hashing.hash(text, seed);
+            hash += Hashing.mix(value instanceof String ? field : ~field);
+        }
+        return Hashing.mix(hash ^ jsonObj.length());
+    }
+}
@@ -0,0 +1,97 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import org.json.JSONArray;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a {@link ChainofValidators} over a JSONArray on a fork/join pool. The array is cut into
+ * fixed-size chunks; each chunk validates into its own {@link RejectionBuffer}, and the buffers
+ * are replayed into the caller's sink in chunk order, so the output keeps the TradeNumber order
+ * of a sequential run. A chain with cross-trade validators runs on the calling thread instead:
+ * which copy of a duplicate is flagged, or which trade hits an exposure limit, must not depend on
+ * thread timing.
+ */
+public class ParallelChainExecutor {
+
+    private final ChainofValidators chainofValidators;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelChainExecutor(ChainofValidators chainofValidators, ForkJoinPool pool, int chunkSize) {
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+
+        this.chainofValidators = chainofValidators;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Same pool and chunk size, running another chain
+     */
+    public ParallelChainExecutor withChain(ChainofValidators chainofValidators) {
+        return new ParallelChainExecutor(chainofValidators, pool, chunkSize);
+    }
+
+    public void executeChain(JSONArray jsonArr, ValidationSink sink) {
+
+        if (chainofValidators.hasCrossTrade()) {
+            chainofValidators.executeChain(jsonArr, sink);
+            return;
+        }
+
+        int chunks = (jsonArr.length() + chunkSize - 1) / chunkSize;
+        if (chunks == 0) {
+            return;
+        }
+
+        RejectionBuffer[] buffers = new RejectionBuffer[chunks];
+
+        pool.invoke(new ChunkTask(jsonArr, buffers, 0, chunks));
+
+        for (RejectionBuffer buffer : buffers) {
+            buffer.replayTo(sink);
+        }
+    }
+
+    private class ChunkTask extends RecursiveAction {
+
+        private final JSONArray jsonArr;
+        private final RejectionBuffer[] buffers;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ChunkTask(JSONArray jsonArr, RejectionBuffer[] buffers, int fromChunk, int toChunk) {
+            this.jsonArr = jsonArr;
+            this.buffers = buffers;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (toChunk - fromChunk > 1) {
+                //[Touraj] :: Split in halves so idle workers can steal the bigger pieces first
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(new ChunkTask(jsonArr, buffers, fromChunk, middle),
+                        new ChunkTask(jsonArr, buffers, middle, toChunk));
+                return;
+            }
+
+            RejectionBuffer buffer = new RejectionBuffer();
+            int from = fromChunk * chunkSize;
+            int to = Math.min(from + chunkSize, jsonArr.length());
+
+            for (int i = from; i < to; i++) {
+                chainofValidators.validateTrade(jsonArr.getJSONObject(i), i + 1, buffer);
+            }
+
+            buffers[fromChunk] = buffer;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import java.util.Arrays;
+
+/**
+ * Sink that keeps rejections as primitives, in arrival order, so they can be replayed later
+ * into another sink. Not thread-safe: meant to be owned by one thread, e.g. one parallel chunk.
+ */
+public class RejectionBuffer implements ValidationSink {
+
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+    private int[] tradeNumbers;
+    private int[] errorTypes;
+    private int size = 0;
+
+    public RejectionBuffer() {
+        this(16);
+    }
+
+    public RejectionBuffer(int initialCapacity) {
+        this.tradeNumbers = new int[initialCapacity];
+        this.errorTypes = new int[initialCapacity];
+    }
+
+    @Override
+    public void reject(int tradeNumber, ErrorType errorType) {
+
+        if (size == tradeNumbers.length) {
+            int capacity = Math.max(16, size << 1);
+            tradeNumbers = Arrays.copyOf(tradeNumbers, capacity);
+            errorTypes = Arrays.copyOf(errorTypes, capacity);
+        }
+
+        tradeNumbers[size] = tradeNumber;
+        errorTypes[size] = errorType.ordinal();
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTradeNumber(int index) {
+        return tradeNumbers[index];
+    }
+
+    public ErrorType getErrorType(int index) {
+        return ERROR_TYPES[errorTypes[index]];
+    }
+
+    public void replayTo(ValidationSink sink) {
+        for (int i = 0; i < size; i++) {
+            sink.reject(tradeNumbers[i], ERROR_TYPES[errorTypes[i]]);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every rejection after the first newSize ones
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("newSize: " + newSize + ", size: " + size);
+        }
+        size = newSize;
+    }
+}
@@ -0,0 +1,110 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte-level writer of the {"ErrorType":"...","TradeNumber":n} object used in every response,
+ * for the paths that serialize rejections without going through JSONObject.
+ */
+public final class RejectionJson {
+
+    private static final byte[][] PREFIXES = new byte[ErrorType.values().length][];
+
+    static {
+        for (ErrorType errorType : ErrorType.values()) {
+            PREFIXES[errorType.ordinal()] = ("{\"ErrorType\":\"" + errorType.name() + "\",\"TradeNumber\":")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Upper bound of the bytes of one object, whatever its error type and trade number
+     */
+    public static final int MAX_LENGTH;
+
+    static {
+        int max = 0;
+        for (byte[] prefix : PREFIXES) {
+            max = Math.max(max, prefix.length);
+        }
+        MAX_LENGTH = max + 20 + 1;
+    }
+
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    //[Touraj] :: One per request thread, reused from response to response
+    private static final ThreadLocal<ByteBuffer> WRITE_BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(WRITE_BUFFER_SIZE));
+
+    private RejectionJson() {
+    }
+
+    /**
+     * Writes the rejections as [{"ErrorType":"...","TradeNumber":n},...], byte for byte what
+     * JSONArray.toString() gives for the same rejections collected by {@link JSONArraySink},
+     * without a JSONObject or a String per rejection.
+     */
+    public static void writeArray(RejectionBuffer rejections, OutputStream out) throws IOException {
+
+        ByteBuffer buffer = WRITE_BUFFERS.get();
+        buffer.clear();
+        buffer.put((byte) '[');
+
+        for (int i = 0; i < rejections.size(); i++) {
+            if (buffer.remaining() < MAX_LENGTH + 2) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            if (i > 0) {
+                buffer.put((byte) ',');
+            }
+            put(buffer, rejections.getTradeNumber(i), rejections.getErrorType(i));
+        }
+
+        buffer.put((byte) ']');
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    /**
+     * @return {"ErrorType":"...","TradeNumber":  for the given error type, not to be modified
+     */
+    public static byte[] prefix(ErrorType errorType) {
+        return PREFIXES[errorType.ordinal()];
+    }
+
+    public static void put(ByteBuffer out, int tradeNumber, ErrorType errorType) {
+        out.put(PREFIXES[errorType.ordinal()]);
+        putInt(out, tradeNumber);
+        out.put((byte) '}');
+    }
+
+    public static void putInt(ByteBuffer out, int value) {
+        putLong(out, value);
+    }
+
+    /**
+     * Decimal digits of value, without going through a String
+     */
+    public static void putLong(ByteBuffer out, long value) {
+
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.put(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            out.put((byte) '-');
+            value = -value;
+        }
+
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.put((byte) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by toraj on 06/08/2017.
+ */
+public class StyleValidator implements IValidator {
+
+    @Override
+    public boolean appliesTo(TradeType tradeType) {
+//                [Touraj] :: Only VanillaOption has style
+        return tradeType == TradeType.VanillaOption;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        List<String> validStylesList = Arrays.asList("AMERICAN", "EUROPEAN");
+
+        boolean isValidationSuccessfull = true;
+
+        String style = trade.getStyle().toUpperCase();
+
+        boolean res = validStylesList.contains(style);
+
+        if (!res) {
+            isValidationSuccessfull = false;
+
+            //[Touraj] :: Adding Validation Message to Validation Store
+            sink.reject(tradeNumber, ErrorType.StyleNotValid);
+        }
+
+        return isValidationSuccessfull;
+    }
+}
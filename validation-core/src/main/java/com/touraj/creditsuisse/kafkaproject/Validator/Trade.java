@@ -0,0 +1,86 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+/**
+ * Read-only view of one trade as the validators see it. Dates are epoch-days
+ * (see {@link com.touraj.creditsuisse.kafkaproject.util.EpochDay}), parsed at most once per trade.
+ */
+public interface Trade {
+
+    TradeType getType();
+
+    String getCustomer();
+
+    /**
+     * @return null or empty when the trade has none
+     */
+    String getLegalEntity();
+
+    String getStyle();
+
+    /**
+     * @return null or empty when the trade has none
+     */
+    String getDirection();
+
+    String getPayCcy();
+
+    String getPremiumCcy();
+
+    /**
+     * @return payCcy packed as a {@link com.touraj.creditsuisse.kafkaproject.util.CurrencyCode},
+     * CurrencyCode.NONE when missing or not three upper-case letters
+     */
+    int getPayCcyCode();
+
+    /**
+     * @return premiumCcy, like {@link #getPayCcyCode()}
+     */
+    int getPremiumCcyCode();
+
+    /**
+     * @return first currency of ccyPair packed as a {@link com.touraj.creditsuisse.kafkaproject.util.CurrencyCode},
+     * CurrencyCode.NONE when missing
+     */
+    int getCcyPairBaseCode();
+
+    /**
+     * @return second currency of ccyPair, like {@link #getCcyPairBaseCode()}
+     */
+    int getCcyPairQuoteCode();
+
+    int getTradeDate();
+
+    int getValueDate();
+
+    int getExpiryDate();
+
+    int getPremiumDate();
+
+    int getDeliveryDate();
+
+    int getExcerciseStartDate();
+
+    /**
+     * @return amount1 in millionths, 0 when missing
+     */
+    long getAmount1();
+
+    /**
+     * @return amount2 in millionths, 0 when missing
+     */
+    long getAmount2();
+
+    /**
+     * Hash of every field of the trade, the same for two trades with the same content whatever
+     * the order of their fields. Different seeds give independent hashes.
+     */
+    long contentHash(long seed);
+
+    /**
+     * @return a trade with the same content that stays readable once this one is moved on, this one
+     * unless it is a view over a reused buffer
+     */
+    default Trade detach() {
+        return this;
+    }
+}
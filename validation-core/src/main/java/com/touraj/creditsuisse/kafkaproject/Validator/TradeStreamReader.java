@@ -0,0 +1,68 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls trades one by one out of a JSON array text without building the whole JSONArray,
+ * so only the trade currently being validated is kept in memory.
+ */
+public class TradeStreamReader {
+
+    private final JSONTokener tokener;
+    private boolean started = false;
+    private boolean finished = false;
+    private int tradesRead = 0;
+
+    public TradeStreamReader(InputStream tradeStream) {
+        this.tokener = new JSONTokener(new InputStreamReader(tradeStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the next trade of the array, or null once the closing ']' has been read
+     */
+    public JSONObject nextTrade() {
+
+        if (finished) {
+            return null;
+        }
+
+        if (!started) {
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("A JSONArray text must start with '['");
+            }
+            started = true;
+        }
+
+        char c = tokener.nextClean();
+        if (c == ']') {
+            //[Touraj] :: Covers both the empty array and a trailing comma, like JSONArray does
+            finished = true;
+            return null;
+        }
+        tokener.back();
+
+        Object value = tokener.nextValue();
+        if (!(value instanceof JSONObject)) {
+            throw tokener.syntaxError("Trade must be a JSON object");
+        }
+
+        c = tokener.nextClean();
+        if (c == ']') {
+            finished = true;
+        } else if (c != ',') {
+            throw tokener.syntaxError("Expected a ',' or ']'");
+        }
+
+        tradesRead++;
+        return (JSONObject) value;
+    }
+
+    public int getTradesRead() {
+        return tradesRead;
+    }
+}
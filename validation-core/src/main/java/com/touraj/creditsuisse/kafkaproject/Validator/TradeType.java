@@ -0,0 +1,33 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+/**
+ * Trade types the chain builds a validation plan for. Constant names match the "type" field.
+ */
+public enum TradeType {
+
+    Spot,
+    Forward,
+    VanillaOption,
+    /**
+     * Missing or unrecognised "type"
+     */
+    UNKNOWN;
+
+    public static TradeType of(String type) {
+
+        if (type == null) {
+            return UNKNOWN;
+        }
+
+        switch (type) {
+            case "Spot":
+                return Spot;
+            case "Forward":
+                return Forward;
+            case "VanillaOption":
+                return VanillaOption;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.cache.ValidationResultCache;
+import com.touraj.creditsuisse.kafkaproject.calendar.HolidayCalendarRegistry;
+import com.touraj.creditsuisse.kafkaproject.columnar.ColumnarValidator;
+import com.touraj.creditsuisse.kafkaproject.counterparty.CounterpartyRegistry;
+import com.touraj.creditsuisse.kafkaproject.crosstrade.DuplicateIndex;
+import com.touraj.creditsuisse.kafkaproject.crosstrade.DuplicateTradeValidator;
+import com.touraj.creditsuisse.kafkaproject.crosstrade.ExposureIndex;
+import com.touraj.creditsuisse.kafkaproject.crosstrade.ExposureLimitValidator;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import com.touraj.creditsuisse.kafkaproject.rules.DeclarativeRuleValidator;
+import com.touraj.creditsuisse.kafkaproject.rules.RuleSetRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The validation of the service as a plain library: validators, chain, result cache and parallel
+ * executor, built from the validation.* settings and defaults of application.properties. The
+ * service builds its own through this class too, so a batch job pointed at the service's file
+ * validates exactly as the service does. Nothing is scanned or proxied: once the classes are
+ * loaded an engine builds in milliseconds, most of it reading the calendars and counterparties.
+ * <pre>
+ * try (ValidationEngine engine = ValidationEngine.load(Paths.get("application.properties"))) {
+ *     RejectionBuffer rejections = new RejectionBuffer();
+ *     engine.getValidator().startValidation(trades, rejections);
+ * }
+ * </pre>
+ * Thread-safe; one engine is meant to be shared. {@link #close()} stops the background reloads
+ * of the reference data and the parallel pool.
+ */
+public class ValidationEngine implements Closeable {
+
+    private static final String EXPOSURE_LIMITS = "validation.exposure.limits.";
+
+    private final HolidayCalendarRegistry holidayCalendarRegistry;
+    private final CounterpartyRegistry counterpartyRegistry;
+    //[Touraj] :: null unless validation.rules.enabled
+    private final RuleSetRegistry ruleSetRegistry;
+
+    private final ValidationMetrics metrics;
+    private final ValidationResultCache resultCache;
+    private final ChainofValidators chain;
+    private final ForkJoinPool pool;
+    private final Validator validator;
+
+    /**
+     * Engine with every default: calendars from ./calendars, counterparties from ./counterparties.csv
+     */
+    public ValidationEngine() {
+        this(new Properties());
+    }
+
+    /**
+     * @param settings validation.* keys as in application.properties, the rest is ignored
+     */
+    public ValidationEngine(Properties settings) {
+
+        int stripes = Runtime.getRuntime().availableProcessors() * 4;
+
+        holidayCalendarRegistry = new HolidayCalendarRegistry(
+                Paths.get(settings.getProperty("validation.calendar.dir", "calendars").trim()),
+                getLong(settings, "validation.calendar.reload-interval-seconds", 60));
+        counterpartyRegistry = new CounterpartyRegistry(
+                Paths.get(settings.getProperty("validation.counterparty.file", "counterparties.csv").trim()),
+                getLong(settings, "validation.counterparty.reload-interval-seconds", 60));
+        ruleSetRegistry = getBoolean(settings, "validation.rules.enabled", false)
+                ? new RuleSetRegistry(Paths.get(settings.getProperty("validation.rules.file", "rules.json").trim()),
+                getLong(settings, "validation.rules.reload-interval-seconds", 60))
+                : null;
+
+        List<IValidator> validators = new ArrayList<>(Arrays.asList(
+                new BeforeDateValidator(),
+                new WeekendValidator(holidayCalendarRegistry),
+                new ISO4217Validator(),
+                new CcyPairValidator(),
+                new CustomerValidator(counterpartyRegistry),
+                new StyleValidator(),
+                new ExcerciseStartDateValidator(),
+                new ExpiryAndPrimiumDateValidator()));
+        if (ruleSetRegistry != null) {
+            validators.add(new DeclarativeRuleValidator(ruleSetRegistry));
+        }
+        //[Touraj] :: Duplicates first: a duplicate must not count towards the exposure
+        if (getBoolean(settings, "validation.duplicates.enabled", false)) {
+            validators.add(new DuplicateTradeValidator(new DuplicateIndex(
+                    (int) getLong(settings, "validation.duplicates.max-size", 1000000),
+                    getLong(settings, "validation.duplicates.window-seconds", 600), stripes)));
+        }
+        if (getBoolean(settings, "validation.exposure.enabled", false)) {
+            validators.add(new ExposureLimitValidator(newExposureIndex(settings, stripes)));
+        }
+
+        metrics = new ValidationMetrics(validators);
+
+        if (getBoolean(settings, "validation.cache.enabled", false)) {
+            resultCache = new ValidationResultCache((int) getLong(settings, "validation.cache.max-size", 1000000),
+                    getLong(settings, "validation.cache.ttl-seconds", 3600), stripes);
+            holidayCalendarRegistry.addReloadListener(resultCache::clear);
+            counterpartyRegistry.addReloadListener(resultCache::clear);
+            if (ruleSetRegistry != null) {
+                ruleSetRegistry.addReloadListener(resultCache::clear);
+            }
+        } else {
+            resultCache = null;
+        }
+
+        chain = new ChainofValidators(validators, metrics, resultCache);
+
+        int threads = (int) getLong(settings, "validation.parallel.threads", 0);
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        validator = new Validator(chain,
+                new ParallelChainExecutor(chain, pool, (int) getLong(settings, "validation.parallel.chunk-size", 1024)),
+                (int) getLong(settings, "validation.parallel.threshold", 5000),
+                getBoolean(settings, "validation.columnar.enabled", false) ? newColumnarValidator(chain) : null);
+    }
+
+    /**
+     * The columnar engine bypasses the result cache and the per-validator metrics
+     *
+     * @return null when the chain has validators the columnar engine has no rule for, the row chain validates then
+     */
+    private static ColumnarValidator newColumnarValidator(ChainofValidators chain) {
+        if (!ColumnarValidator.supports(chain)) {
+            System.out.printf("Columnar engine not used: declarative rules and cross-trade checks need the row-by-row chain\n");
+            return null;
+        }
+        return new ColumnarValidator(chain);
+    }
+
+    /**
+     * Engine with the settings of a properties file, e.g. the service's application.properties
+     */
+    public static ValidationEngine load(Path propertiesFile) throws IOException {
+        Properties settings = new Properties();
+        try (Reader reader = Files.newBufferedReader(propertiesFile, StandardCharsets.UTF_8)) {
+            settings.load(reader);
+        }
+        return new ValidationEngine(settings);
+    }
+
+    private static ExposureIndex newExposureIndex(Properties settings, int stripes) {
+
+        Map<String, Long> limits = new HashMap<>();
+        for (String key : settings.stringPropertyNames()) {
+            if (key.startsWith(EXPOSURE_LIMITS)) {
+                limits.put(key.substring(EXPOSURE_LIMITS.length()),
+                        BinaryTradeFormat.fixedPoint(new BigDecimal(settings.getProperty(key).trim())));
+            }
+        }
+        String defaultLimit = settings.getProperty("validation.exposure.default-limit");
+
+        return new ExposureIndex(getLong(settings, "validation.exposure.window-seconds", 300),
+                (int) getLong(settings, "validation.exposure.buckets", 60),
+                defaultLimit == null ? Long.MAX_VALUE : BinaryTradeFormat.fixedPoint(new BigDecimal(defaultLimit.trim())),
+                limits, stripes);
+    }
+
+    private static long getLong(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    private static boolean getBoolean(Properties settings, String key, boolean defaultValue) {
+        String value = settings.getProperty(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Batches of any size, JSON, streamed or binary; {@link Validator#failFast()} for the first rejection only
+     */
+    public Validator getValidator() {
+        return validator;
+    }
+
+    /**
+     * Trade by trade, e.g. for the TCP, Kafka or bulk modes
+     */
+    public ChainofValidators getChain() {
+        return chain;
+    }
+
+    public ValidationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return null unless validation.cache.enabled=true
+     */
+    public ValidationResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public HolidayCalendarRegistry getHolidayCalendarRegistry() {
+        return holidayCalendarRegistry;
+    }
+
+    public CounterpartyRegistry getCounterpartyRegistry() {
+        return counterpartyRegistry;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        holidayCalendarRegistry.close();
+        counterpartyRegistry.close();
+        if (ruleSetRegistry != null) {
+            ruleSetRegistry.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+/**
+ * Caller-supplied destination for rejections, so validators themselves hold no per-request state.
+ */
+public interface ValidationSink {
+
+    void reject(int tradeNumber, ErrorType errorType);
+
+}
@@ -0,0 +1,182 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTrade;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeReader;
+import com.touraj.creditsuisse.kafkaproject.columnar.ColumnarValidator;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Created by toraj on 06/09/2017.
+ *
+ * Entry point of the validation, shared by all requests; results go to the caller's sink.
+ */
+public class Validator {
+
+    /**
+     * Accepted trades of a streamed or binary request whose cross-trade bookings can still be withdrawn
+     */
+    public static final int STREAM_BOOKINGS_WINDOW = 1024;
+
+    private final ChainofValidators chainofValidators;
+
+    private final ParallelChainExecutor parallelChainExecutor;
+    private final int parallelThreshold;
+
+    private final ColumnarValidator columnarValidator;
+
+    private final Validator failFastValidator;
+
+    public Validator(ChainofValidators chainofValidators) {
+        this(chainofValidators, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param parallelThreshold batches with fewer trades than this stay on the calling thread
+     */
+    public Validator(ChainofValidators chainofValidators, ParallelChainExecutor parallelChainExecutor, int parallelThreshold) {
+        this(chainofValidators, parallelChainExecutor, parallelThreshold, null);
+    }
+
+    /**
+     * @param columnarValidator when not null, validates the batches that stay on the calling thread and the binary streams
+     */
+    public Validator(ChainofValidators chainofValidators, ParallelChainExecutor parallelChainExecutor, int parallelThreshold,
+                     ColumnarValidator columnarValidator) {
+        this.chainofValidators = chainofValidators;
+        this.parallelChainExecutor = parallelChainExecutor;
+        this.parallelThreshold = parallelThreshold;
+        this.columnarValidator = columnarValidator;
+        this.failFastValidator = chainofValidators.isFailFast() ? this : new Validator(this);
+    }
+
+    private Validator(Validator fullValidator) {
+        this.chainofValidators = fullValidator.chainofValidators.failFast();
+        this.parallelChainExecutor = fullValidator.parallelChainExecutor == null
+                ? null : fullValidator.parallelChainExecutor.withChain(chainofValidators);
+        this.parallelThreshold = fullValidator.parallelThreshold;
+        //[Touraj] :: The columnar engine reports every rejection, fail-fast stays row by row
+        this.columnarValidator = null;
+        this.failFastValidator = this;
+    }
+
+    /**
+     * Validator that reports only the first rejection of each trade, see {@link ChainofValidators#failFast()}
+     */
+    public Validator failFast() {
+        return failFastValidator;
+    }
+
+    public void startValidation(String jsonArray, ValidationSink sink) {
+        startValidation(new JSONArray(jsonArray), sink);
+    }
+
+    public void startValidation(JSONArray jsonArr, ValidationSink sink) {
+
+        long start = System.nanoTime();
+
+        if (parallelChainExecutor != null && jsonArr.length() >= parallelThreshold) {
+            parallelChainExecutor.executeChain(jsonArr, sink);
+        } else if (columnarValidator != null) {
+            columnarValidator.executeChain(jsonArr, sink);
+        } else {
+            chainofValidators.executeChain(jsonArr, sink);
+        }
+
+        recordBatch(jsonArr.length(), start);
+    }
+
+    /**
+     * Streaming mode: trades are read from the stream one at a time and each one goes through
+     * the chain as soon as it is parsed, so memory does not grow with the size of the batch.
+     * When the stream fails, only the cross-trade bookings of the last {@link #STREAM_BOOKINGS_WINDOW}
+     * accepted trades are withdrawn.
+     */
+    public int startValidation(InputStream tradeStream, ValidationSink sink) {
+        return startValidation(new TradeStreamReader(tradeStream), sink);
+    }
+
+    /**
+     * Binary mode: {@link BinaryTradeFormat} records are read and validated one at a time,
+     * straight from the record buffer. A record whose fields run past its end gets TradeNotParsable. Cross-trade bookings are withdrawn as for {@link #startValidation(InputStream, ValidationSink)}.
+     *
+     * @return the number of trades validated
+     */
+    public int startBinaryValidation(InputStream tradeStream, ValidationSink sink) throws IOException {
+
+        long start = System.nanoTime();
+
+        BinaryTradeReader reader = new BinaryTradeReader(tradeStream);
+
+        int tradeNumber = 0;
+        if (columnarValidator != null) {
+            tradeNumber = columnarValidator.executeChain(reader, sink);
+        } else {
+            CrossTradeBookings bookings = chainofValidators.newBookings(STREAM_BOOKINGS_WINDOW);
+            try {
+                BinaryTrade trade;
+                while ((trade = reader.nextTrade()) != null) {
+                    if (trade.isWellFormed()) {
+                        chainofValidators.validateTrade(trade, ++tradeNumber, sink, bookings);
+                    } else {
+                        notParsable(++tradeNumber, sink);
+                    }
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                withdraw(bookings);
+                throw e;
+            }
+        }
+
+        recordBatch(tradeNumber, start);
+        return tradeNumber;
+    }
+
+    /**
+     * @return the number of trades validated
+     */
+    public int startValidation(TradeStreamReader reader, ValidationSink sink) {
+
+        long start = System.nanoTime();
+
+        CrossTradeBookings bookings = chainofValidators.newBookings(STREAM_BOOKINGS_WINDOW);
+        int tradeNumber = 0;
+        try {
+            JSONObject trade;
+            while ((trade = reader.nextTrade()) != null) {
+                chainofValidators.validateTrade(trade, ++tradeNumber, sink, bookings);
+            }
+        } catch (RuntimeException | Error e) {
+            withdraw(bookings);
+            throw e;
+        }
+
+        recordBatch(tradeNumber, start);
+        return tradeNumber;
+    }
+
+    private void notParsable(int tradeNumber, ValidationSink sink) {
+        sink.reject(tradeNumber, ErrorType.TradeNotParsable);
+        if (chainofValidators.getMetrics() != null) {
+            chainofValidators.getMetrics().recordRejection(ErrorType.TradeNotParsable);
+        }
+    }
+
+    private static void withdraw(CrossTradeBookings bookings) {
+        if (bookings != null) {
+            bookings.withdraw();
+        }
+    }
+
+    private void recordBatch(int trades, long start) {
+        ValidationMetrics metrics = chainofValidators.getMetrics();
+        if (metrics != null) {
+            metrics.recordBatch(trades, System.nanoTime() - start);
+        }
+    }
+}
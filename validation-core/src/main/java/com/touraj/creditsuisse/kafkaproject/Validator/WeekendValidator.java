@@ -0,0 +1,70 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.calendar.HolidayCalendarRegistry;
+import com.touraj.creditsuisse.kafkaproject.calendar.HolidayCalendars;
+import com.touraj.creditsuisse.kafkaproject.util.Utility;
+
+/**
+ * Created by toraj on 06/09/2017.
+ *
+ * Rejects value dates on a weekend and, when built with a {@link HolidayCalendarRegistry}, on a
+ * bank holiday of either currency of ccyPair.
+ */
+public class WeekendValidator implements IValidator {
+
+    private final HolidayCalendarRegistry holidayCalendars;
+
+    public WeekendValidator() {
+        this(null);
+    }
+
+    /**
+     * @param holidayCalendars null to check weekends only
+     */
+    public WeekendValidator(HolidayCalendarRegistry holidayCalendars) {
+        this.holidayCalendars = holidayCalendars;
+    }
+
+    /**
+     * @return null when only weekends are checked
+     */
+    public HolidayCalendarRegistry getHolidayCalendars() {
+        return holidayCalendars;
+    }
+
+    @Override
+    public boolean appliesTo(TradeType tradeType) {
+//                [Touraj] :: Only Spot and Forward types have valueDate
+        return tradeType == TradeType.Spot || tradeType == TradeType.Forward;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        boolean isValidationSuccessfull = true;
+
+        int valueDate = trade.getValueDate();
+
+        boolean result = Utility.isDateFallinWeekend(valueDate);
+
+        if (result) {
+            isValidationSuccessfull = false;
+
+            //[Touraj] :: Adding Validation Message to Validation Store
+            sink.reject(tradeNumber, ErrorType.valueDateFallinWeekend);
+        } else if (holidayCalendars != null) {
+
+            //[Touraj] :: One snapshot for both lookups, a reload can not split them
+            HolidayCalendars calendars = holidayCalendars.getCalendars();
+
+            if (calendars.isHoliday(trade.getCcyPairBaseCode(), valueDate)
+                    || calendars.isHoliday(trade.getCcyPairQuoteCode(), valueDate)) {
+                isValidationSuccessfull = false;
+
+                sink.reject(tradeNumber, ErrorType.valueDateFallinHoliday);
+            }
+        }
+
+        return isValidationSuccessfull;
+    }
+}
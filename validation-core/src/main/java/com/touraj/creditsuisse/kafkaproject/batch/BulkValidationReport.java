@@ -0,0 +1,70 @@
+package com.touraj.creditsuisse.kafkaproject.batch;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Outcome of one {@link BulkValidator} run.
+ */
+public class BulkValidationReport {
+
+    private final long trades;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final long[] errorCounts;
+
+    BulkValidationReport(long trades, long bytes, long elapsedNanos, long[] errorCounts) {
+        this.trades = trades;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.errorCounts = errorCounts;
+    }
+
+    public long getTrades() {
+        return trades;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getRejections() {
+        long rejections = 0;
+        for (long count : errorCounts) {
+            rejections += count;
+        }
+        return rejections;
+    }
+
+    public Map<ErrorType, Long> getErrorCounts() {
+        Map<ErrorType, Long> counts = new EnumMap<>(ErrorType.class);
+        for (ErrorType errorType : ErrorType.values()) {
+            if (errorCounts[errorType.ordinal()] > 0) {
+                counts.put(errorType, errorCounts[errorType.ordinal()]);
+            }
+        }
+        return counts;
+    }
+
+    public double getTradesPerSecond() {
+        return trades / seconds();
+    }
+
+    public double getMegabytesPerSecond() {
+        return bytes / (1024.0 * 1024.0) / seconds();
+    }
+
+    private double seconds() {
+        return Math.max(elapsedNanos, 1) / 1e9;
+    }
+
+    public void print() {
+        System.out.printf("Bulk validation: %d trades, %d rejections in %.3f s%n", trades, getRejections(), seconds());
+        System.out.printf("Throughput: %.0f trades/s, %.1f MB/s%n", getTradesPerSecond(), getMegabytesPerSecond());
+        for (Map.Entry<ErrorType, Long> entry : getErrorCounts().entrySet()) {
+            System.out.printf("  %-30s %d%n", entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.touraj.creditsuisse.kafkaproject.batch;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionJson;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Offline validation of a newline-delimited JSON trade file (one trade object per line).
+ * The file is memory-mapped in regions cut on line boundaries, the regions are validated in
+ * parallel, and the rejections are written in TradeNumber order, one JSON line each, to the
+ * output file through a buffered channel. TradeNumber is the 1-based position of the trade
+ * in the file; blank lines are not counted. A chain with cross-trade validators gives results
+ * that depend on trade order, so its regions are validated one after the other, in file order.
+ */
+public class BulkValidator {
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final ChainofValidators chainofValidators;
+    private final ForkJoinPool pool;
+    private final long regionSize;
+
+    /**
+     * @param regionSize approximate size of a mapped region; must stay below 2GB
+     */
+    public BulkValidator(ChainofValidators chainofValidators, ForkJoinPool pool, long regionSize) {
+
+        if (regionSize < 1 || regionSize >= Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("regionSize must be between 1 byte and 1GB: " + regionSize);
+        }
+
+        this.chainofValidators = chainofValidators;
+        this.pool = pool;
+        this.regionSize = regionSize;
+    }
+
+    public BulkValidationReport validate(Path input, Path output) throws IOException {
+
+        long start = System.nanoTime();
+        long[] errorCounts = new long[ErrorType.values().length];
+        long trades = 0;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            boolean sequential = chainofValidators.hasCrossTrade();
+            List<Future<RegionResult>> regions = new ArrayList<>();
+            for (long[] region : splitOnLines(in)) {
+                MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, region[0], region[1] - region[0]);
+                regions.add(sequential ? CompletableFuture.completedFuture(validateRegion(mapped))
+                        : pool.submit(() -> validateRegion(mapped)));
+            }
+
+            ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+            //[Touraj] :: Regions are written in file order while later ones are still being validated
+            for (Future<RegionResult> future : regions) {
+                RegionResult region = get(future);
+
+                for (int i = 0; i < region.rejections.size(); i++) {
+                    if (writeBuffer.remaining() < RejectionJson.MAX_LENGTH + 1) {
+                        flush(writeBuffer, out);
+                    }
+                    ErrorType errorType = region.rejections.getErrorType(i);
+                    long tradeNumber = trades + region.rejections.getTradeNumber(i);
+                    putRejection(writeBuffer, tradeNumber, errorType);
+                    errorCounts[errorType.ordinal()]++;
+                }
+
+                trades += region.trades;
+            }
+
+            flush(writeBuffer, out);
+
+            return new BulkValidationReport(trades, in.size(), System.nanoTime() - start, errorCounts);
+        }
+    }
+
+    List<long[]> splitOnLines(FileChannel in) throws IOException {
+
+        List<long[]> regions = new ArrayList<>();
+        long size = in.size();
+        long from = 0;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+
+        while (from < size) {
+            long to = Math.min(from + regionSize, size);
+
+            //[Touraj] :: Move the cut forward to just after the next '\n', so no line is split
+            boolean found = to == size;
+            while (!found) {
+                probe.clear();
+                int read = in.read(probe, to);
+                if (read <= 0) {
+                    to = size;
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        to += i + 1;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    to += read;
+                }
+            }
+
+            regions.add(new long[]{from, to});
+            from = to;
+        }
+
+        return regions;
+    }
+
+    private RegionResult validateRegion(ByteBuffer region) {
+
+        RejectionBuffer rejections = new RejectionBuffer();
+        byte[] line = new byte[1024];
+        int trades = 0;
+
+        int limit = region.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+
+            int lineEnd = lineStart;
+            while (lineEnd < limit && region.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+
+            int length = lineEnd - lineStart;
+            if (length > 0 && region.get(lineEnd - 1) == '\r') {
+                length--;
+            }
+
+            if (!isBlank(region, lineStart, length)) {
+                if (length > line.length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                for (int i = 0; i < length; i++) {
+                    line[i] = region.get(lineStart + i);
+                }
+
+                trades++;
+                validateLine(new String(line, 0, length, StandardCharsets.UTF_8), trades, rejections);
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        return new RegionResult(trades, rejections);
+    }
+
+    private void validateLine(String line, int tradeNumber, RejectionBuffer rejections) {
+
+        int mark = rejections.size();
+        try {
+            chainofValidators.validateTrade(new JSONObject(line), tradeNumber, rejections);
+        } catch (JSONException | ClassCastException e) {
+            //[Touraj] :: Drop whatever the chain reported before failing and reject the line as a whole
+            rejections.truncate(mark);
+            rejections.reject(tradeNumber, ErrorType.TradeNotParsable);
+            if (chainofValidators.getMetrics() != null) {
+                chainofValidators.getMetrics().recordRejection(ErrorType.TradeNotParsable);
+            }
+        }
+    }
+
+    private static boolean isBlank(ByteBuffer region, int from, int length) {
+        for (int i = from; i < from + length; i++) {
+            byte b = region.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putRejection(ByteBuffer out, long tradeNumber, ErrorType errorType) {
+        out.put(RejectionJson.prefix(errorType));
+        RejectionJson.putLong(out, tradeNumber);
+        out.put((byte) '}');
+        out.put((byte) '\n');
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static RegionResult get(Future<RegionResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Validation of a region failed", e.getCause());
+        }
+    }
+
+    private static class RegionResult {
+
+        final int trades;
+        final RejectionBuffer rejections;
+
+        RegionResult(int trades, RejectionBuffer rejections) {
+            this.trades = trades;
+            this.rejections = rejections;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.touraj.creditsuisse.kafkaproject.binary;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyCode;
+import com.touraj.creditsuisse.kafkaproject.util.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat.*;
+
+/**
+ * Flyweight {@link Trade} over one record of {@link BinaryTradeFormat}. Fields are read straight
+ * from the buffer on each call; {@link #wrap} moves it to the next record without allocating.
+ * Only the free-text fields (customer, ...) build a String when asked for.
+ */
+public class BinaryTrade implements Trade {
+
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * @param offset first byte of the record body, i.e. just after its length prefix
+     */
+    public BinaryTrade wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    @Override
+    public TradeType getType() {
+        int type = buffer.get(offset + TYPE);
+        return type >= 0 && type < TRADE_TYPES.length ? TRADE_TYPES[type] : TradeType.UNKNOWN;
+    }
+
+    @Override
+    public String getCustomer() {
+        return getString(CUSTOMER);
+    }
+
+    @Override
+    public String getLegalEntity() {
+        return getString(LEGAL_ENTITY);
+    }
+
+    public String getTrader() {
+        return getString(TRADER);
+    }
+
+    @Override
+    public String getStyle() {
+        switch (buffer.get(offset + STYLE)) {
+            case AMERICAN:
+                return "AMERICAN";
+            case EUROPEAN:
+                return "EUROPEAN";
+            case OTHER:
+                return "OTHER";
+            default:
+                return "";
+        }
+    }
+
+    @Override
+    public String getDirection() {
+        switch (buffer.get(offset + DIRECTION)) {
+            case BUY:
+                return "BUY";
+            case SELL:
+                return "SELL";
+            case OTHER:
+                return "OTHER";
+            default:
+                return "";
+        }
+    }
+
+    @Override
+    public int getCcyPairBaseCode() {
+        return buffer.getShort(offset + CCY_PAIR_BASE);
+    }
+
+    @Override
+    public int getCcyPairQuoteCode() {
+        return buffer.getShort(offset + CCY_PAIR_QUOTE);
+    }
+
+    @Override
+    public int getPayCcyCode() {
+        return buffer.getShort(offset + PAY_CCY);
+    }
+
+    @Override
+    public int getPremiumCcyCode() {
+        return buffer.getShort(offset + PREMIUM_CCY);
+    }
+
+    @Override
+    public String getPayCcy() {
+        return CurrencyCode.toString(getPayCcyCode());
+    }
+
+    @Override
+    public String getPremiumCcy() {
+        return CurrencyCode.toString(getPremiumCcyCode());
+    }
+
+    @Override
+    public int getTradeDate() {
+        return buffer.getInt(offset + TRADE_DATE);
+    }
+
+    @Override
+    public int getValueDate() {
+        return buffer.getInt(offset + VALUE_DATE);
+    }
+
+    @Override
+    public int getExpiryDate() {
+        return buffer.getInt(offset + EXPIRY_DATE);
+    }
+
+    @Override
+    public int getPremiumDate() {
+        return buffer.getInt(offset + PREMIUM_DATE);
+    }
+
+    @Override
+    public int getDeliveryDate() {
+        return buffer.getInt(offset + DELIVERY_DATE);
+    }
+
+    @Override
+    public int getExcerciseStartDate() {
+        return buffer.getInt(offset + EXCERCISE_START_DATE);
+    }
+
+    @Override
+    public long getAmount1() {
+        return buffer.getLong(offset + AMOUNT1);
+    }
+
+    @Override
+    public long getAmount2() {
+        return buffer.getLong(offset + AMOUNT2);
+    }
+
+    public long getRate() {
+        return buffer.getLong(offset + RATE);
+    }
+
+    /**
+     * @return bytes of the record body, strings included
+     */
+    public int getRecordLength() {
+
+        int position = offset + STRINGS;
+        for (int i = 0; i < STRING_FIELD_COUNT; i++) {
+            position += 1 + (buffer.get(position) & 0xFF);
+        }
+        return position - offset;
+    }
+
+    /**
+     * @return false when the string fields run past the limit of the buffer, which callers set to
+     * the end of the record; such a record is not readable
+     */
+    public boolean isWellFormed() {
+
+        int position = offset + STRINGS;
+        for (int i = 0; i < STRING_FIELD_COUNT; i++) {
+            if (position >= buffer.limit()) {
+                return false;
+            }
+            position += 1 + (buffer.get(position) & 0xFF);
+        }
+        return position <= buffer.limit();
+    }
+
+    @Override
+    public long contentHash(long seed) {
+        return Hashing.hash(buffer, offset, offset + getRecordLength(), seed);
+    }
+
+    /**
+     * @return a copy of the record, not moved by {@link #wrap}
+     */
+    @Override
+    public Trade detach() {
+
+        int length = getRecordLength();
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        for (int i = 0; i < length; i++) {
+            copy.put(i, buffer.get(offset + i));
+        }
+        return new BinaryTrade().wrap(copy, 0);
+    }
+
+    private String getString(int index) {
+
+        int position = offset + STRINGS;
+        for (int i = 0; i < index; i++) {
+            position += 1 + (buffer.get(position) & 0xFF);
+        }
+
+        int length = buffer.get(position) & 0xFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,169 @@
+package com.touraj.creditsuisse.kafkaproject.binary;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyCode;
+import com.touraj.creditsuisse.kafkaproject.util.EpochDay;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of a trade, accepted by /validatetrades as {@link #CONTENT_TYPE}.
+ * A batch is a plain sequence of records; every record is big-endian:
+ *
+ * <pre>
+ *  int    length of the rest of the record
+ *   0 byte   type       TradeType ordinal
+ *   1 byte   direction  0 absent, 1 BUY, 2 SELL, 3 other
+ *   2 byte   style      0 absent, 1 AMERICAN, 2 EUROPEAN, 3 other
+ *   3 byte   reserved
+ *   4 short  ccyPair base, 6 short ccyPair quote, 8 short payCcy, 10 short premiumCcy  (CurrencyCode)
+ *  12 int    tradeDate, valueDate, expiryDate, premiumDate, deliveryDate, excerciseStartDate  (EpochDay)
+ *  36 long   amount1, amount2, rate, premium  (fixed point, 6 decimals)
+ *  68 string customer, legalEntity, trader, strategy, premiumType  (byte length + UTF-8)
+ * </pre>
+ *
+ * There is no notion of a missing field: absent dates are EpochDay.INVALID, absent codes 0.
+ */
+public final class BinaryTradeFormat {
+
+    public static final String CONTENT_TYPE = "application/x-trade-binary";
+
+    /**
+     * Bounds of a record body, i.e. of its length prefix
+     */
+    public static final int MIN_RECORD_LENGTH = 68;
+    public static final int MAX_RECORD_LENGTH = 1 << 16;
+
+    static final int TYPE = 0;
+    static final int DIRECTION = 1;
+    static final int STYLE = 2;
+    static final int CCY_PAIR_BASE = 4;
+    static final int CCY_PAIR_QUOTE = 6;
+    static final int PAY_CCY = 8;
+    static final int PREMIUM_CCY = 10;
+    static final int TRADE_DATE = 12;
+    static final int VALUE_DATE = 16;
+    static final int EXPIRY_DATE = 20;
+    static final int PREMIUM_DATE = 24;
+    static final int DELIVERY_DATE = 28;
+    static final int EXCERCISE_START_DATE = 32;
+    static final int AMOUNT1 = 36;
+    static final int AMOUNT2 = 44;
+    static final int RATE = 52;
+    static final int PREMIUM = 60;
+    static final int STRINGS = MIN_RECORD_LENGTH;
+
+    static final int CUSTOMER = 0;
+    static final int LEGAL_ENTITY = 1;
+    static final int TRADER = 2;
+    static final int STRATEGY = 3;
+    static final int PREMIUM_TYPE = 4;
+
+    static final byte ABSENT = 0;
+    static final byte OTHER = 3;
+    static final byte BUY = 1;
+    static final byte SELL = 2;
+    static final byte AMERICAN = 1;
+    static final byte EUROPEAN = 2;
+
+    static final BigDecimal FIXED_POINT_SCALE = BigDecimal.valueOf(1000000L);
+
+    private static final String[] STRING_FIELDS = {"customer", "legalEntity", "trader", "strategy", "premiumType"};
+    static final int STRING_FIELD_COUNT = STRING_FIELDS.length;
+
+    private BinaryTradeFormat() {
+    }
+
+    public static byte[] encode(JSONArray trades) {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(trades.length() * 128);
+        ByteBuffer record = ByteBuffer.allocate(STRINGS + STRING_FIELDS.length * 256);
+
+        for (int i = 0; i < trades.length(); i++) {
+            record.clear();
+            encode(trades.getJSONObject(i), record);
+            int length = record.position();
+
+            out.write(length >>> 24);
+            out.write(length >>> 16);
+            out.write(length >>> 8);
+            out.write(length);
+            out.write(record.array(), 0, length);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the body of one record (without its length prefix) at the buffer's position
+     */
+    public static void encode(JSONObject trade, ByteBuffer record) {
+
+        int start = record.position();
+        Object type = trade.opt("type");
+
+        record.put((byte) (type == null ? TradeType.UNKNOWN : TradeType.of(type.toString())).ordinal());
+        record.put(enumCode(trade.optString("direction", null), "BUY", "SELL"));
+        record.put(enumCode(trade.optString("style", null), "AMERICAN", "EUROPEAN"));
+        record.put((byte) 0);
+
+        String ccyPair = trade.optString("ccyPair", null);
+        record.putShort((short) (ccyPair != null && ccyPair.length() == 6 ? CurrencyCode.pack(ccyPair, 0) : CurrencyCode.NONE));
+        record.putShort((short) (ccyPair != null && ccyPair.length() == 6 ? CurrencyCode.pack(ccyPair, 3) : CurrencyCode.NONE));
+        record.putShort((short) CurrencyCode.pack(trade.optString("payCcy", null)));
+        record.putShort((short) CurrencyCode.pack(trade.optString("premiumCcy", null)));
+
+        record.putInt(EpochDay.parse(trade.optString("tradeDate", null)));
+        record.putInt(EpochDay.parse(trade.optString("valueDate", null)));
+        record.putInt(EpochDay.parse(trade.optString("expiryDate", null)));
+        record.putInt(EpochDay.parse(trade.optString("premiumDate", null)));
+        record.putInt(EpochDay.parse(trade.optString("deliveryDate", null)));
+        record.putInt(EpochDay.parse(trade.optString("excerciseStartDate", null)));
+
+        record.putLong(fixedPoint(trade.opt("amount1")));
+        record.putLong(fixedPoint(trade.opt("amount2")));
+        record.putLong(fixedPoint(trade.opt("rate")));
+        record.putLong(fixedPoint(trade.opt("premium")));
+
+        if (record.position() - start != STRINGS) {
+            throw new IllegalStateException("Binary trade layout out of sync");
+        }
+
+        for (String field : STRING_FIELDS) {
+            byte[] bytes = trade.optString(field, "").getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 255) {
+                throw new IllegalArgumentException(field + " is longer than 255 bytes");
+            }
+            record.put((byte) bytes.length);
+            record.put(bytes);
+        }
+    }
+
+    private static byte enumCode(String value, String first, String second) {
+        if (value == null) {
+            return ABSENT;
+        }
+        if (value.equalsIgnoreCase(first)) {
+            return 1;
+        }
+        if (value.equalsIgnoreCase(second)) {
+            return 2;
+        }
+        return OTHER;
+    }
+
+    /**
+     * @return a JSON amount in millionths, 0 when it is not a number
+     */
+    public static long fixedPoint(Object amount) {
+        if (!(amount instanceof Number)) {
+            return 0L;
+        }
+        return new BigDecimal(amount.toString()).multiply(FIXED_POINT_SCALE).longValue();
+    }
+}
@@ -0,0 +1,52 @@
+package com.touraj.creditsuisse.kafkaproject.binary;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads {@link BinaryTradeFormat} records one at a time from a stream into a reused buffer.
+ * The returned {@link BinaryTrade} is the same instance every time and is only valid until the
+ * next call. The buffer is limited to the record, so a record whose fields run past its end can
+ * not read the bytes of an earlier one; see {@link BinaryTrade#isWellFormed()}.
+ */
+public class BinaryTradeReader {
+
+    private final DataInputStream in;
+    private final BinaryTrade trade = new BinaryTrade();
+    private byte[] record = new byte[256];
+    private ByteBuffer buffer = ByteBuffer.wrap(record);
+
+    public BinaryTradeReader(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+    }
+
+    /**
+     * @return the next trade, or null at the end of the stream
+     */
+    public BinaryTrade nextTrade() throws IOException {
+
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+
+        if (length < BinaryTradeFormat.MIN_RECORD_LENGTH || length > BinaryTradeFormat.MAX_RECORD_LENGTH) {
+            throw new IOException("Invalid binary trade record length: " + length);
+        }
+
+        if (length > record.length) {
+            record = new byte[Math.max(length, record.length * 2)];
+            buffer = ByteBuffer.wrap(record);
+        }
+
+        in.readFully(record, 0, length);
+        buffer.limit(length);
+        return trade.wrap(buffer, 0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.touraj.creditsuisse.kafkaproject.cache;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+
+/**
+ * 128-bit content address of a trade: two independently seeded {@link Trade#contentHash} values.
+ */
+public final class TradeKey {
+
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+
+    private final long high;
+    private final long low;
+
+    TradeKey(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static TradeKey of(Trade trade) {
+        return new TradeKey(trade.contentHash(SEED_HIGH), trade.contentHash(SEED_LOW));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TradeKey)) {
+            return false;
+        }
+        TradeKey other = (TradeKey) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    int stripe() {
+        return (int) (high >>> 32);
+    }
+}
@@ -0,0 +1,241 @@
+package com.touraj.creditsuisse.kafkaproject.cache;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejections per trade content, so a resubmitted trade is answered without running the chain.
+ * Entries are kept in striped LRU maps, each with its own lock, bounded in size and expired
+ * after a TTL. {@link #clear()} drops everything and must be called whenever reference data
+ * used by the validators changes; results computed across a clear are never stored.
+ */
+public class ValidationResultCache {
+
+    private static final ErrorType[] NO_ERRORS = new ErrorType[0];
+    private static final ErrorType[][] SINGLE_ERRORS = new ErrorType[ErrorType.values().length][];
+
+    static {
+        for (ErrorType errorType : ErrorType.values()) {
+            SINGLE_ERRORS[errorType.ordinal()] = new ErrorType[]{errorType};
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long ttlNanos;
+
+    private volatile long generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    private final ThreadLocal<ResultRecorder> recorders = ThreadLocal.withInitial(ResultRecorder::new);
+
+    /**
+     * @param maxSize    upper bound of cached trades, spread over the stripes
+     * @param ttlSeconds how long a result stays valid, 0 for no expiry
+     * @param stripes    rounded up to a power of two
+     */
+    public ValidationResultCache(int maxSize, long ttlSeconds, int stripes) {
+
+        if (maxSize < 1 || stripes < 1) {
+            throw new IllegalArgumentException("maxSize and stripes must be positive: " + maxSize + ", " + stripes);
+        }
+
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        this.ttlNanos = ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : Long.MAX_VALUE;
+
+        int perStripe = Math.max(1, maxSize / count);
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * @return the rejections of the trade in reporting order, empty for a valid trade,
+     * null when not cached
+     */
+    public ErrorType[] get(TradeKey key) {
+
+        Stripe stripe = stripes[key.stripe() & stripeMask];
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+            if (entry != null && (entry.generation != generation || System.nanoTime() - entry.expiresAt > 0)) {
+                stripe.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.errors;
+    }
+
+    /**
+     * Read before validating the trade, and passed to {@link #put}
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public void put(TradeKey key, ErrorType[] errors, long generation) {
+
+        if (generation != this.generation) {
+            //[Touraj] :: Reference data changed while this result was computed
+            return;
+        }
+
+        Entry entry = new Entry(errors, generation, System.nanoTime() + ttlNanos);
+        Stripe stripe = stripes[key.stripe() & stripeMask];
+        synchronized (stripe) {
+            stripe.put(key, entry);
+        }
+    }
+
+    public synchronized void clear() {
+
+        generation++;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        flushes.increment();
+    }
+
+    /**
+     * Sink that records what the chain reports for one trade while passing it on. Reused per
+     * thread, so release it once the trade is done.
+     */
+    public ResultRecorder recorder(ValidationSink sink) {
+        ResultRecorder recorder = recorders.get();
+        recorder.start(sink);
+        return recorder;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public Map<String, Object> stats() {
+
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("flushes", flushes.sum());
+        return stats;
+    }
+
+    public static final class ResultRecorder implements ValidationSink {
+
+        private ValidationSink sink;
+        private ErrorType[] errors = new ErrorType[4];
+        private int size;
+
+        private void start(ValidationSink sink) {
+            this.sink = sink;
+            this.size = 0;
+        }
+
+        @Override
+        public void reject(int tradeNumber, ErrorType errorType) {
+            if (size == errors.length) {
+                errors = Arrays.copyOf(errors, size * 2);
+            }
+            errors[size++] = errorType;
+            sink.reject(tradeNumber, errorType);
+        }
+
+        /**
+         * @return what was reported so far; shared arrays for the common no-error and one-error cases
+         */
+        public ErrorType[] result() {
+            switch (size) {
+                case 0:
+                    return NO_ERRORS;
+                case 1:
+                    return SINGLE_ERRORS[errors[0].ordinal()];
+                default:
+                    return Arrays.copyOf(errors, size);
+            }
+        }
+
+        public void release() {
+            sink = null;
+        }
+    }
+
+    private static final class Entry {
+
+        final ErrorType[] errors;
+        final long generation;
+        final long expiresAt;
+
+        Entry(ErrorType[] errors, long generation, long expiresAt) {
+            this.errors = errors;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class Stripe extends LinkedHashMap<TradeKey, Entry> {
+
+        private final int maxSize;
+
+        Stripe(int maxSize) {
+            //[Touraj] :: Access order, so the eldest entry is the least recently used one
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TradeKey, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
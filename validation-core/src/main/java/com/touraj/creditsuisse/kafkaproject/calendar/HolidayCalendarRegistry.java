@@ -0,0 +1,114 @@
+package com.touraj.creditsuisse.kafkaproject.calendar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link HolidayCalendars}. Validators read the snapshot through one volatile
+ * read; a reload builds a whole new snapshot and swaps it in, so a trade never sees half a
+ * reload. With a reload interval the calendar directory is checked for changed files and
+ * reloaded in the background. A reload that fails keeps the previous calendars.
+ */
+public class HolidayCalendarRegistry implements Closeable {
+
+    private final Path directory;
+
+    private volatile HolidayCalendars calendars = HolidayCalendars.EMPTY;
+    private long loadedSignature = 0;
+
+    private final ScheduledExecutorService reloader;
+
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param reloadIntervalSeconds 0 to only reload on {@link #reload()}
+     * @throws UncheckedIOException when the calendars in the directory can not be read
+     */
+    public HolidayCalendarRegistry(Path directory, long reloadIntervalSeconds) {
+
+        this.directory = directory;
+
+        if (Files.isDirectory(directory)) {
+            try {
+                reload();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            System.out.printf("No holiday calendar directory %s, only weekends are checked\n", directory);
+        }
+
+        if (reloadIntervalSeconds > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "holiday-calendar-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            reloader = null;
+        }
+    }
+
+    public HolidayCalendars getCalendars() {
+        return calendars;
+    }
+
+    public synchronized void reload() throws IOException {
+        long signature = signature();
+        calendars = HolidayCalendars.load(directory);
+        loadedSignature = signature;
+        System.out.printf("Holiday calendars loaded from %s: %s\n", directory, calendars.getCurrencies());
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    private synchronized void reloadIfChanged() {
+        try {
+            if (Files.isDirectory(directory) && signature() != loadedSignature) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            //[Touraj] :: Keep validating with the calendars we have, retry on the next check
+            System.out.printf("Holiday calendars not reloaded from %s: %s\n", directory, e);
+        }
+    }
+
+    /**
+     * Changes when a calendar file is added, removed or modified
+     */
+    private long signature() throws IOException {
+        long signature = 1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.txt")) {
+            for (Path file : files) {
+                //[Touraj] :: Sum, so the order the directory lists files in does not matter
+                signature += 31L * file.getFileName().hashCode() + Files.getLastModifiedTime(file).toMillis() + Files.size(file);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Called after every successful reload, on the reloading thread
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.touraj.creditsuisse.kafkaproject.calendar;
+
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyCode;
+import com.touraj.creditsuisse.kafkaproject.util.EpochDay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable set of holiday calendars, one bitset per currency indexed directly by epoch-day
+ * (bit n set = day n is a holiday), and the bitsets themselves indexed by packed
+ * {@link CurrencyCode}. A holiday check is an array load and a bit test, with no allocation.
+ */
+public final class HolidayCalendars {
+
+    public static final HolidayCalendars EMPTY = new HolidayCalendars(new long[CurrencyCode.TABLE_SIZE][]);
+
+    private final long[][] holidays;
+
+    private HolidayCalendars(long[][] holidays) {
+        this.holidays = holidays;
+    }
+
+    /**
+     * @param ccy packed currency code
+     * @return false for currencies without a calendar and for days outside it
+     */
+    public boolean isHoliday(int ccy, int epochDay) {
+
+        if (ccy <= CurrencyCode.NONE || ccy >= CurrencyCode.TABLE_SIZE || epochDay < 0) {
+            return false;
+        }
+
+        long[] bits = holidays[ccy];
+        int word = epochDay >>> 6;
+        return bits != null && word < bits.length && (bits[word] & (1L << epochDay)) != 0;
+    }
+
+    public Set<String> getCurrencies() {
+        Set<String> currencies = new TreeSet<>();
+        for (int ccy = 0; ccy < holidays.length; ccy++) {
+            if (holidays[ccy] != null) {
+                currencies.add(CurrencyCode.toString(ccy));
+            }
+        }
+        return Collections.unmodifiableSet(currencies);
+    }
+
+    /**
+     * Reads one file per currency named like USD.txt: one yyyy-MM-dd holiday per line, blank
+     * lines and lines starting with # ignored. Files not named after a currency code are skipped.
+     *
+     * @throws IllegalArgumentException for a line that is not a date on or after 1970-01-01
+     */
+    public static HolidayCalendars load(Path directory) throws IOException {
+
+        long[][] holidays = new long[CurrencyCode.TABLE_SIZE][];
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.txt")) {
+            for (Path file : files) {
+
+                String name = file.getFileName().toString();
+                int ccy = CurrencyCode.pack(name.substring(0, name.length() - ".txt".length()));
+                if (ccy == CurrencyCode.NONE) {
+                    continue;
+                }
+
+                holidays[ccy] = read(file);
+            }
+        }
+
+        return new HolidayCalendars(holidays);
+    }
+
+    private static long[] read(Path file) throws IOException {
+
+        long[] bits = new long[0];
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                int epochDay = EpochDay.parse(line);
+                if (epochDay == EpochDay.INVALID || epochDay < 0) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": not a yyyy-MM-dd date: " + line);
+                }
+
+                int word = epochDay >>> 6;
+                if (word >= bits.length) {
+                    bits = Arrays.copyOf(bits, word + 1);
+                }
+                bits[word] |= 1L << epochDay;
+            }
+        }
+        return bits;
+    }
+}
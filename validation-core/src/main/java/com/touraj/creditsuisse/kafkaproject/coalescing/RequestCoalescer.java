@@ -0,0 +1,273 @@
+package com.touraj.creditsuisse.kafkaproject.coalescing;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.json.JSONArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Merges small concurrent validation requests into one batch. Callers block in {@link #validate}
+ * while a single dispatcher thread collects requests for up to the window (or until the batch
+ * holds maxBatchTrades trades), validates them as one array through the {@link Validator}, and
+ * hands every caller back only its own rejections, numbered as in its own request.
+ * Added latency is bounded by the window plus the time to validate one batch. Whatever a batch
+ * throws, Errors included, fails its callers rather than the dispatcher, and callers whose
+ * dispatcher is gone anyway validate on their own thread.
+ */
+public class RequestCoalescer implements AutoCloseable {
+
+    private static final long DISPATCHER_CHECK_MILLIS = 100;
+
+    private final Validator validator;
+    private final ValidationMetrics metrics;
+    private final long windowNanos;
+    private final int maxRequestTrades;
+    private final int maxBatchTrades;
+
+    private final BlockingQueue<PendingRequest> queue;
+    private final Thread dispatcher;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param metrics          null to run without instrumentation
+     * @param windowMicros     how long the first request of a batch waits for others
+     * @param maxRequestTrades bigger requests are validated on the caller's thread
+     * @param maxBatchTrades   a batch is dispatched as soon as it holds this many trades
+     * @param queueCapacity    when full, requests are validated on the caller's thread
+     */
+    public RequestCoalescer(Validator validator, ValidationMetrics metrics, long windowMicros, int maxRequestTrades,
+                            int maxBatchTrades, int queueCapacity) {
+
+        if (windowMicros < 0 || maxRequestTrades < 1 || maxBatchTrades < maxRequestTrades || queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid coalescing settings: window " + windowMicros + "us, request "
+                    + maxRequestTrades + ", batch " + maxBatchTrades + ", queue " + queueCapacity);
+        }
+
+        this.validator = validator;
+        this.metrics = metrics;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxRequestTrades = maxRequestTrades;
+        this.maxBatchTrades = maxBatchTrades;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.dispatcher = new Thread(this::dispatch, "validation-coalescer");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Validates trades, merged with whatever other requests arrive within the window, and
+     * reports their rejections to sink on the calling thread.
+     */
+    public void validate(JSONArray trades, ValidationSink sink) {
+
+        if (trades.length() == 0 || trades.length() > maxRequestTrades || !running) {
+            validator.startValidation(trades, sink);
+            return;
+        }
+
+        PendingRequest request = new PendingRequest(trades);
+        //[Touraj] :: Dispatcher is behind, coalescing would only add queueing time; or it stopped meanwhile
+        if (!queue.offer(request) || (!running && queue.remove(request))) {
+            validator.startValidation(trades, sink);
+            return;
+        }
+
+        RejectionBuffer rejections = await(request);
+        if (rejections == null) {
+            validator.startValidation(trades, sink);
+            return;
+        }
+        rejections.replayTo(sink);
+    }
+
+    /**
+     * @return null when the dispatcher died without answering the request
+     */
+    private RejectionBuffer await(PendingRequest request) {
+
+        try {
+            while (true) {
+                try {
+                    return request.result.get(DISPATCHER_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (!dispatcher.isAlive() && !request.result.isDone()) {
+                        queue.remove(request);
+                        return null;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the coalesced batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Validation of the coalesced batch failed", e.getCause());
+        }
+    }
+
+    public int getMaxRequestTrades() {
+        return maxRequestTrades;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+
+        try {
+            dispatchBatches();
+        } finally {
+            //[Touraj] :: New requests go straight to the validator from now on
+            running = false;
+            //[Touraj] :: Requests queued while closing are not left waiting
+            PendingRequest request;
+            while ((request = queue.poll()) != null) {
+                validateAlone(request);
+            }
+        }
+    }
+
+    private void dispatchBatches() {
+
+        List<PendingRequest> batch = new ArrayList<>();
+
+        while (running) {
+            try {
+                PendingRequest first = queue.take();
+                batch.add(first);
+                int trades = first.trades.length();
+
+                long deadline = first.enqueuedAt + windowNanos;
+                while (trades < maxBatchTrades) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRequest next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    trades += next.trades.length();
+                }
+
+                validateBatch(batch);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Throwable e) {
+                //[Touraj] :: e.g. a StackOverflowError: the callers of the batch get it, the dispatcher goes on
+                for (PendingRequest request : batch) {
+                    request.result.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void validateBatch(List<PendingRequest> batch) {
+
+        long now = System.nanoTime();
+
+        JSONArray merged = new JSONArray();
+        int[] offsets = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingRequest request = batch.get(i);
+            offsets[i] = merged.length();
+            for (int j = 0; j < request.trades.length(); j++) {
+                merged.put(request.trades.get(j));
+            }
+            if (metrics != null) {
+                metrics.recordCoalescedRequest(now - request.enqueuedAt);
+            }
+        }
+
+        try {
+            validator.startValidation(merged, new DemultiplexingSink(batch, offsets));
+        } catch (RuntimeException e) {
+            //[Touraj] :: One bad request must not fail the others, so each is validated again on its own
+            for (PendingRequest request : batch) {
+                request.rejections.clear();
+                validateAlone(request);
+            }
+            return;
+        }
+
+        if (metrics != null) {
+            metrics.recordCoalescedBatch(batch.size());
+        }
+        for (PendingRequest request : batch) {
+            request.result.complete(request.rejections);
+        }
+    }
+
+    private void validateAlone(PendingRequest request) {
+        try {
+            validator.startValidation(request.trades, request.rejections);
+            request.result.complete(request.rejections);
+        } catch (Throwable e) {
+            request.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingRequest {
+
+        final JSONArray trades;
+        final long enqueuedAt = System.nanoTime();
+        final RejectionBuffer rejections = new RejectionBuffer();
+        final CompletableFuture<RejectionBuffer> result = new CompletableFuture<>();
+
+        PendingRequest(JSONArray trades) {
+            this.trades = trades;
+        }
+    }
+
+    /**
+     * Routes each rejection of the merged batch to the request its trade came from.
+     */
+    private static final class DemultiplexingSink implements ValidationSink {
+
+        private final List<PendingRequest> batch;
+        private final int[] offsets;
+
+        DemultiplexingSink(List<PendingRequest> batch, int[] offsets) {
+            this.batch = batch;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public void reject(int tradeNumber, ErrorType errorType) {
+
+            //[Touraj] :: Offsets are distinct, empty requests never get queued
+            int position = Arrays.binarySearch(offsets, tradeNumber - 1);
+            //[Touraj] :: Not an exact hit means the trade is inside the request starting before it
+            int request = position >= 0 ? position : -position - 2;
+
+            batch.get(request).rejections.reject(tradeNumber - offsets[request], errorType);
+        }
+    }
+}
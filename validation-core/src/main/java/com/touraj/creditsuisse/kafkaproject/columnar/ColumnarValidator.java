@@ -0,0 +1,510 @@
+package com.touraj.creditsuisse.kafkaproject.columnar;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.BeforeDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.CcyPairValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.CustomerValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ExcerciseStartDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ExpiryAndPrimiumDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ISO4217Validator;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.StyleValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import com.touraj.creditsuisse.kafkaproject.Validator.WeekendValidator;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTrade;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeReader;
+import com.touraj.creditsuisse.kafkaproject.calendar.HolidayCalendarRegistry;
+import com.touraj.creditsuisse.kafkaproject.calendar.HolidayCalendars;
+import com.touraj.creditsuisse.kafkaproject.counterparty.Counterparties;
+import com.touraj.creditsuisse.kafkaproject.counterparty.CounterpartyRegistry;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyRegistry;
+import com.touraj.creditsuisse.kafkaproject.util.EpochDay;
+import com.touraj.creditsuisse.kafkaproject.util.Utility;
+import org.json.JSONArray;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Batch engine giving the same rejections, in the same order, as {@link ChainofValidators}, but
+ * column by column: the batch is first decoded into {@link TradeColumns}, then each rule of the
+ * chain runs as one loop over the rows of the trade types it applies to and sets bits in its
+ * failure bitmaps, and finally the rejected rows are walked in order and reported following each
+ * type's plan. Valid rows cost nothing in that last step.
+ * Reference data (calendars, counterparties) is read once per batch. A batch that can not be
+ * decoded, e.g. a trade missing a field the chain needs, is handed to the chain as it is, so
+ * even its failure is the chain's.
+ */
+public class ColumnarValidator {
+
+    private static final int BEFORE_DATE = 0;
+    private static final int WEEKEND = 1;
+    private static final int ISO4217 = 2;
+    private static final int CCY_PAIR = 3;
+    private static final int CUSTOMER = 4;
+    private static final int STYLE = 5;
+    private static final int EXCERCISE_START_DATE = 6;
+    private static final int EXPIRY_AND_PREMIUM_DATE = 7;
+
+    //[Touraj] :: Per rule, the errors it can report, in the order its validator reports them
+    private static final ErrorType[][] RULE_ERRORS = {
+            {ErrorType.valueDateNotbeforeTradeDate},
+            {ErrorType.valueDateFallinWeekend, ErrorType.valueDateFallinHoliday},
+            {ErrorType.payCcyNotValidISO4217, ErrorType.premiumCcyNotValidISO4217},
+            {ErrorType.ccyPairNotValidISO4217},
+            {ErrorType.CustomerNotValid, ErrorType.LegalEntityNotValid},
+            {ErrorType.StyleNotValid},
+            {ErrorType.InvalidExcerciseStartDate},
+            {ErrorType.InvalidExpiryAndPrimiumDate}};
+
+    private static final int[] RULE_FIELDS = {
+            TradeColumns.VALUE_DATE | TradeColumns.TRADE_DATE,
+            TradeColumns.VALUE_DATE | TradeColumns.CCY_PAIR,
+            TradeColumns.PAY_CCY | TradeColumns.PREMIUM_CCY,
+            TradeColumns.CCY_PAIR,
+            TradeColumns.CUSTOMER,
+            TradeColumns.STYLE,
+            TradeColumns.STYLE | TradeColumns.AMERICAN_DATES,
+            TradeColumns.EXPIRY_DATE | TradeColumns.PREMIUM_DATE | TradeColumns.DELIVERY_DATE};
+
+    /**
+     * Trades per block in binary mode
+     */
+    public static final int BLOCK_SIZE = 1024;
+
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+    private static final int UNKNOWN = TradeType.UNKNOWN.ordinal();
+
+    private final ChainofValidators chainofValidators;
+    private final ValidationMetrics metrics;
+
+    //[Touraj] :: Per trade type, the rules of its plan in chain order, and the fields they read
+    private final int[][] plans = new int[TRADE_TYPES.length][];
+    private final int[] planFields = new int[TRADE_TYPES.length];
+
+    private final HolidayCalendarRegistry holidayCalendars;
+    private final CounterpartyRegistry counterparties;
+
+    private final ThreadLocal<TradeColumns> columns = ThreadLocal.withInitial(TradeColumns::new);
+
+    /**
+     * @throws IllegalArgumentException when the chain has a validator this engine has no rule for
+     */
+    public ColumnarValidator(ChainofValidators chainofValidators) {
+
+        this.chainofValidators = chainofValidators;
+        this.metrics = chainofValidators.getMetrics();
+
+        HolidayCalendarRegistry holidayCalendars = null;
+        CounterpartyRegistry counterparties = null;
+
+        for (TradeType tradeType : TRADE_TYPES) {
+            List<IValidator> plan = chainofValidators.getPlan(tradeType);
+            int[] rules = new int[plan.size()];
+            for (int i = 0; i < rules.length; i++) {
+                IValidator validator = plan.get(i);
+                rules[i] = ruleOf(validator);
+                planFields[tradeType.ordinal()] |= RULE_FIELDS[rules[i]];
+
+                if (validator instanceof WeekendValidator) {
+                    holidayCalendars = ((WeekendValidator) validator).getHolidayCalendars();
+                } else if (validator instanceof CustomerValidator) {
+                    counterparties = ((CustomerValidator) validator).getCounterpartyRegistry();
+                }
+            }
+            plans[tradeType.ordinal()] = rules;
+        }
+
+        this.holidayCalendars = holidayCalendars;
+        this.counterparties = counterparties;
+    }
+
+    /**
+     * @return false when the chain has a validator this engine has no rule for, e.g. declarative
+     * rules or the cross-trade checks
+     */
+    public static boolean supports(ChainofValidators chainofValidators) {
+        for (TradeType tradeType : TRADE_TYPES) {
+            for (IValidator validator : chainofValidators.getPlan(tradeType)) {
+                if (ruleOrNone(validator) < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void executeChain(JSONArray jsonArr, ValidationSink sink) {
+        executeChain(jsonArr, 0, jsonArr.length(), sink);
+    }
+
+    /**
+     * Validates trades from (inclusive) to to (exclusive) of the array; TradeNumber is the
+     * 1-based position in the whole array, as in the chain.
+     */
+    public void executeChain(JSONArray jsonArr, int from, int to, ValidationSink sink) {
+
+        long start = metrics == null ? 0 : System.nanoTime();
+
+        TradeColumns batch = columns.get();
+        batch.reset(to - from);
+        try {
+            try {
+                for (int i = from; i < to; i++) {
+                    JsonTrade trade = new JsonTrade(jsonArr.getJSONObject(i));
+                    TradeType tradeType = trade.getType();
+                    batch.add(trade, tradeType, planFields[tradeType.ordinal()]);
+                }
+            } catch (RuntimeException e) {
+                //[Touraj] :: Nothing was reported yet, the chain gives the exact partial output and exception
+                for (int i = from; i < to; i++) {
+                    chainofValidators.validateTrade(jsonArr.getJSONObject(i), i + 1, sink);
+                }
+                return;
+            }
+
+            validateAndReport(batch, from + 1, sink, start);
+        } finally {
+            batch.release();
+        }
+    }
+
+    /**
+     * Binary mode: records are decoded into columns straight from the reader's buffer and
+     * validated every {@link #BLOCK_SIZE} trades.
+     *
+     * @return the number of trades validated
+     */
+    public int executeChain(BinaryTradeReader reader, ValidationSink sink) throws IOException {
+
+        TradeColumns batch = columns.get();
+        int tradeNumber = 0;
+        try {
+            while (true) {
+                long start = metrics == null ? 0 : System.nanoTime();
+                batch.reset(BLOCK_SIZE);
+
+                BinaryTrade trade = null;
+                boolean adding = false;
+                boolean malformed = false;
+                try {
+                    while (batch.size < BLOCK_SIZE && (trade = reader.nextTrade()) != null) {
+                        if (!trade.isWellFormed()) {
+                            //[Touraj] :: Ends the block, the record is reported after the trades before it
+                            malformed = true;
+                            break;
+                        }
+                        adding = true;
+                        TradeType tradeType = trade.getType();
+                        batch.add(trade, tradeType, planFields[tradeType.ordinal()]);
+                        adding = false;
+                    }
+                } catch (RuntimeException | IOException e) {
+                    //[Touraj] :: A corrupt record: what was decoded before it is still reported, and the failing
+                    //[Touraj] :: trade goes through the chain, which reports what it can and fails the same way
+                    validateAndReport(batch, tradeNumber + 1, sink, start);
+                    if (adding) {
+                        chainofValidators.validateTrade(trade, tradeNumber + batch.size + 1, sink);
+                    }
+                    throw e;
+                }
+
+                validateAndReport(batch, tradeNumber + 1, sink, start);
+                tradeNumber += batch.size;
+
+                if (malformed) {
+                    sink.reject(++tradeNumber, ErrorType.TradeNotParsable);
+                    if (metrics != null) {
+                        metrics.recordRejection(ErrorType.TradeNotParsable);
+                    }
+                } else if (trade == null) {
+                    return tradeNumber;
+                }
+            }
+        } finally {
+            batch.release();
+        }
+    }
+
+    private void validateAndReport(TradeColumns batch, int firstTradeNumber, ValidationSink sink, long start) {
+
+        validate(batch);
+
+        if (metrics == null) {
+            report(batch, firstTradeNumber, sink);
+        } else {
+            ValidationMetrics.CountingSink countingSink = metrics.countingSink(sink);
+            try {
+                report(batch, firstTradeNumber, countingSink);
+            } finally {
+                countingSink.release();
+            }
+            recordTrades(batch, System.nanoTime() - start);
+        }
+    }
+
+    private void validate(TradeColumns batch) {
+
+        //[Touraj] :: One snapshot of each for the whole batch
+        HolidayCalendars calendars = holidayCalendars == null ? null : holidayCalendars.getCalendars();
+        Counterparties parties = counterparties == null ? Counterparties.DEFAULT : counterparties.getCounterparties();
+
+        for (int k = 0; k < batch.typeCounts[UNKNOWN]; k++) {
+            batch.fail(ErrorType.TradeTypeNotValid, batch.rowsByType[UNKNOWN][k]);
+        }
+
+        for (TradeType tradeType : TRADE_TYPES) {
+            int[] rows = batch.rowsByType[tradeType.ordinal()];
+            int count = batch.typeCounts[tradeType.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            for (int rule : plans[tradeType.ordinal()]) {
+                switch (rule) {
+                    case BEFORE_DATE:
+                        beforeDate(batch, rows, count);
+                        break;
+                    case WEEKEND:
+                        weekend(batch, rows, count, calendars);
+                        break;
+                    case ISO4217:
+                        iso4217(batch, rows, count);
+                        break;
+                    case CCY_PAIR:
+                        ccyPair(batch, rows, count);
+                        break;
+                    case CUSTOMER:
+                        customer(batch, rows, count, parties);
+                        break;
+                    case STYLE:
+                        style(batch, rows, count);
+                        break;
+                    case EXCERCISE_START_DATE:
+                        excerciseStartDate(batch, rows, count);
+                        break;
+                    default:
+                        expiryAndPremiumDate(batch, rows, count);
+                        break;
+                }
+            }
+        }
+
+        int words = TradeColumns.words(batch.size);
+        long[] any = batch.any;
+        for (long[] bitmap : batch.failures) {
+            for (int w = 0; w < words; w++) {
+                any[w] |= bitmap[w];
+            }
+        }
+    }
+
+    private static void beforeDate(TradeColumns batch, int[] rows, int count) {
+        int[] valueDate = batch.valueDate;
+        int[] tradeDate = batch.tradeDate;
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            if (!Utility.isValidDate(valueDate[row]) || !Utility.isValidDate(tradeDate[row])
+                    || Utility.checkBeforeDate(valueDate[row], tradeDate[row])) {
+                batch.fail(ErrorType.valueDateNotbeforeTradeDate, row);
+            }
+        }
+    }
+
+    private static void weekend(TradeColumns batch, int[] rows, int count, HolidayCalendars calendars) {
+        int[] valueDate = batch.valueDate;
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            int day = valueDate[row];
+            if (EpochDay.isWeekend(day)) {
+                batch.fail(ErrorType.valueDateFallinWeekend, row);
+            } else if (calendars != null
+                    && (calendars.isHoliday(batch.ccyPairBase[row], day) || calendars.isHoliday(batch.ccyPairQuote[row], day))) {
+                batch.fail(ErrorType.valueDateFallinHoliday, row);
+            }
+        }
+    }
+
+    private static void iso4217(TradeColumns batch, int[] rows, int count) {
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            if (!CurrencyRegistry.isValid(batch.payCcy[row])) {
+                batch.fail(ErrorType.payCcyNotValidISO4217, row);
+            }
+            if (!CurrencyRegistry.isValid(batch.premiumCcy[row])) {
+                batch.fail(ErrorType.premiumCcyNotValidISO4217, row);
+            }
+        }
+    }
+
+    private static void ccyPair(TradeColumns batch, int[] rows, int count) {
+        int[] base = batch.ccyPairBase;
+        int[] quote = batch.ccyPairQuote;
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            if (!CurrencyRegistry.isValid(base[row]) || !CurrencyRegistry.isValid(quote[row]) || base[row] == quote[row]) {
+                batch.fail(ErrorType.ccyPairNotValidISO4217, row);
+            }
+        }
+    }
+
+    private static void customer(TradeColumns batch, int[] rows, int count, Counterparties parties) {
+
+        //[Touraj] :: Batches come from few customers, consecutive rows mostly repeat the last lookup
+        boolean hasLast = false;
+        String lastCustomer = null;
+        String lastLegalEntity = null;
+        ErrorType lastResult = null;
+
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            String customer = batch.customer[row];
+            String legalEntity = batch.legalEntity[row];
+
+            ErrorType result;
+            if (hasLast && Objects.equals(customer, lastCustomer) && Objects.equals(legalEntity, lastLegalEntity)) {
+                result = lastResult;
+            } else {
+                if (!parties.isCustomer(customer)) {
+                    result = ErrorType.CustomerNotValid;
+                } else if (legalEntity != null && !legalEntity.isEmpty() && !parties.isLegalEntityOf(customer, legalEntity)) {
+                    result = ErrorType.LegalEntityNotValid;
+                } else {
+                    result = null;
+                }
+                hasLast = true;
+                lastCustomer = customer;
+                lastLegalEntity = legalEntity;
+                lastResult = result;
+            }
+
+            if (result != null) {
+                batch.fail(result, row);
+            }
+        }
+    }
+
+    private static void style(TradeColumns batch, int[] rows, int count) {
+        byte[] style = batch.style;
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            if ((style[row] & TradeColumns.STYLE_VALID) == 0) {
+                batch.fail(ErrorType.StyleNotValid, row);
+            }
+        }
+    }
+
+    private static void excerciseStartDate(TradeColumns batch, int[] rows, int count) {
+        byte[] style = batch.style;
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            if ((style[row] & TradeColumns.STYLE_AMERICAN) == 0) {
+                continue;
+            }
+            int excerciseStartDate = batch.excerciseStartDate[row];
+            if (!Utility.isValidDate(batch.tradeDate[row]) || Utility.checkBeforeDate(excerciseStartDate, batch.tradeDate[row])
+                    || !Utility.checkBeforeDate(excerciseStartDate, batch.expiryDate[row])) {
+                batch.fail(ErrorType.InvalidExcerciseStartDate, row);
+            }
+        }
+    }
+
+    private static void expiryAndPremiumDate(TradeColumns batch, int[] rows, int count) {
+        int[] expiryDate = batch.expiryDate;
+        int[] premiumDate = batch.premiumDate;
+        int[] deliveryDate = batch.deliveryDate;
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            if (!Utility.checkBeforeDate(expiryDate[row], deliveryDate[row])
+                    || !Utility.checkBeforeDate(premiumDate[row], deliveryDate[row])) {
+                batch.fail(ErrorType.InvalidExpiryAndPrimiumDate, row);
+            }
+        }
+    }
+
+    private void report(TradeColumns batch, int firstTradeNumber, ValidationSink sink) {
+
+        long[] any = batch.any;
+        int words = TradeColumns.words(batch.size);
+
+        for (int w = 0; w < words; w++) {
+            long bits = any[w];
+            while (bits != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                int tradeNumber = firstTradeNumber + row;
+                int tradeType = batch.type[row];
+
+                //[Touraj] :: As in the chain, before the type independent checks that still run
+                if (tradeType == UNKNOWN) {
+                    sink.reject(tradeNumber, ErrorType.TradeTypeNotValid);
+                }
+
+                for (int rule : plans[tradeType]) {
+                    for (ErrorType errorType : RULE_ERRORS[rule]) {
+                        if (batch.failed(errorType, row)) {
+                            sink.reject(tradeNumber, errorType);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void recordTrades(TradeColumns batch, long nanos) {
+        //[Touraj] :: Only the batch is timed, each trade is recorded with its share of it
+        long perTrade = batch.size == 0 ? 0 : nanos / batch.size;
+        for (TradeType tradeType : TRADE_TYPES) {
+            for (int k = 0; k < batch.typeCounts[tradeType.ordinal()]; k++) {
+                metrics.recordTrade(tradeType, perTrade);
+            }
+        }
+    }
+
+    private static int ruleOf(IValidator validator) {
+        int rule = ruleOrNone(validator);
+        if (rule < 0) {
+            throw new IllegalArgumentException("No columnar rule for " + validator.getClass().getName());
+        }
+        return rule;
+    }
+
+    /**
+     * @return -1 when there is no rule for the validator
+     */
+    private static int ruleOrNone(IValidator validator) {
+
+        //[Touraj] :: Exact classes only, a subclass may validate differently
+        Class<?> type = validator.getClass();
+        if (type == BeforeDateValidator.class) {
+            return BEFORE_DATE;
+        }
+        if (type == WeekendValidator.class) {
+            return WEEKEND;
+        }
+        if (type == ISO4217Validator.class) {
+            return ISO4217;
+        }
+        if (type == CcyPairValidator.class) {
+            return CCY_PAIR;
+        }
+        if (type == CustomerValidator.class) {
+            return CUSTOMER;
+        }
+        if (type == StyleValidator.class) {
+            return STYLE;
+        }
+        if (type == ExcerciseStartDateValidator.class) {
+            return EXCERCISE_START_DATE;
+        }
+        if (type == ExpiryAndPrimiumDateValidator.class) {
+            return EXPIRY_AND_PREMIUM_DATE;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,188 @@
+package com.touraj.creditsuisse.kafkaproject.columnar;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+
+import java.util.Arrays;
+
+/**
+ * A batch of trades decoded into primitive columns, one array per field, plus one failure
+ * bitmap per {@link ErrorType}. Row i of every column is the i-th trade of the batch. Rows are
+ * also grouped by trade type, so a rule loops only over the rows it applies to.
+ * Reused from batch to batch; not thread-safe.
+ */
+final class TradeColumns {
+
+    static final int TRADE_DATE = 1;
+    static final int VALUE_DATE = 1 << 1;
+    static final int EXPIRY_DATE = 1 << 2;
+    static final int PREMIUM_DATE = 1 << 3;
+    static final int DELIVERY_DATE = 1 << 4;
+    static final int CCY_PAIR = 1 << 5;
+    static final int PAY_CCY = 1 << 6;
+    static final int PREMIUM_CCY = 1 << 7;
+    static final int CUSTOMER = 1 << 8;
+    static final int STYLE = 1 << 9;
+    //[Touraj] :: tradeDate, expiryDate and excerciseStartDate, read only for AMERICAN style
+    static final int AMERICAN_DATES = 1 << 10;
+
+    static final byte STYLE_VALID = 1;
+    static final byte STYLE_AMERICAN = 2;
+
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+    private static final int ERROR_TYPE_COUNT = ErrorType.values().length;
+
+    int size;
+
+    byte[] type;
+    int[] tradeDate;
+    int[] valueDate;
+    int[] expiryDate;
+    int[] premiumDate;
+    int[] deliveryDate;
+    int[] excerciseStartDate;
+    int[] ccyPairBase;
+    int[] ccyPairQuote;
+    int[] payCcy;
+    int[] premiumCcy;
+    byte[] style;
+    String[] customer;
+    String[] legalEntity;
+
+    //[Touraj] :: rowsByType[t][0 .. typeCounts[t]) are the rows of trade type t, in batch order
+    final int[][] rowsByType = new int[TRADE_TYPES.length][];
+    final int[] typeCounts = new int[TRADE_TYPES.length];
+
+    //[Touraj] :: One bit per row, per error type; any is the OR of all of them
+    final long[][] failures = new long[ERROR_TYPE_COUNT][];
+    long[] any;
+
+    TradeColumns() {
+        allocate(1024);
+    }
+
+    void reset(int batchSize) {
+
+        if (batchSize > type.length) {
+            allocate(Math.max(batchSize, type.length * 2));
+        }
+
+        size = 0;
+        Arrays.fill(typeCounts, 0);
+
+        int words = words(batchSize);
+        for (long[] bitmap : failures) {
+            Arrays.fill(bitmap, 0, words, 0L);
+        }
+        Arrays.fill(any, 0, words, 0L);
+    }
+
+    /**
+     * Appends the trade as the next row. Reads only the fields in the mask, the same ones the row-by-row chain would read for the
+     * trade, so a field that chain never looks at can not make the decoding fail.
+     */
+    void add(Trade trade, TradeType tradeType, int fields) {
+
+        int row = size;
+
+        if ((fields & VALUE_DATE) != 0) {
+            valueDate[row] = trade.getValueDate();
+        }
+        if ((fields & TRADE_DATE) != 0) {
+            tradeDate[row] = trade.getTradeDate();
+        }
+        if ((fields & CCY_PAIR) != 0) {
+            ccyPairBase[row] = trade.getCcyPairBaseCode();
+            ccyPairQuote[row] = trade.getCcyPairQuoteCode();
+        }
+        if ((fields & PAY_CCY) != 0) {
+            payCcy[row] = trade.getPayCcyCode();
+        }
+        if ((fields & PREMIUM_CCY) != 0) {
+            premiumCcy[row] = trade.getPremiumCcyCode();
+        }
+        if ((fields & CUSTOMER) != 0) {
+            customer[row] = trade.getCustomer();
+            legalEntity[row] = trade.getLegalEntity();
+        }
+        if ((fields & STYLE) != 0) {
+            //[Touraj] :: The same two tests as StyleValidator and ExcerciseStartDateValidator
+            String value = trade.getStyle();
+            String upper = value.toUpperCase();
+            byte flags = 0;
+            if (upper.equals("AMERICAN") || upper.equals("EUROPEAN")) {
+                flags |= STYLE_VALID;
+            }
+            if (value.equalsIgnoreCase("AMERICAN")) {
+                flags |= STYLE_AMERICAN;
+            }
+            style[row] = flags;
+        }
+        if ((fields & AMERICAN_DATES) != 0 && (style[row] & STYLE_AMERICAN) != 0) {
+            tradeDate[row] = trade.getTradeDate();
+            expiryDate[row] = trade.getExpiryDate();
+            excerciseStartDate[row] = trade.getExcerciseStartDate();
+        }
+        if ((fields & EXPIRY_DATE) != 0) {
+            expiryDate[row] = trade.getExpiryDate();
+        }
+        if ((fields & PREMIUM_DATE) != 0) {
+            premiumDate[row] = trade.getPremiumDate();
+        }
+        if ((fields & DELIVERY_DATE) != 0) {
+            deliveryDate[row] = trade.getDeliveryDate();
+        }
+
+        //[Touraj] :: The row only counts once every read succeeded, a failing trade leaves no trace
+        type[row] = (byte) tradeType.ordinal();
+        rowsByType[tradeType.ordinal()][typeCounts[tradeType.ordinal()]++] = row;
+        size++;
+    }
+
+    void fail(ErrorType errorType, int row) {
+        failures[errorType.ordinal()][row >>> 6] |= 1L << row;
+    }
+
+    boolean failed(ErrorType errorType, int row) {
+        return (failures[errorType.ordinal()][row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Drops the strings of the batch, so they do not stay reachable until the next one.
+     */
+    void release() {
+        Arrays.fill(customer, 0, size, null);
+        Arrays.fill(legalEntity, 0, size, null);
+    }
+
+    static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    private void allocate(int capacity) {
+
+        type = new byte[capacity];
+        tradeDate = new int[capacity];
+        valueDate = new int[capacity];
+        expiryDate = new int[capacity];
+        premiumDate = new int[capacity];
+        deliveryDate = new int[capacity];
+        excerciseStartDate = new int[capacity];
+        ccyPairBase = new int[capacity];
+        ccyPairQuote = new int[capacity];
+        payCcy = new int[capacity];
+        premiumCcy = new int[capacity];
+        style = new byte[capacity];
+        customer = new String[capacity];
+        legalEntity = new String[capacity];
+
+        for (int t = 0; t < rowsByType.length; t++) {
+            rowsByType[t] = new int[capacity];
+        }
+        for (int e = 0; e < failures.length; e++) {
+            failures[e] = new long[words(capacity)];
+        }
+        any = new long[words(capacity)];
+    }
+}
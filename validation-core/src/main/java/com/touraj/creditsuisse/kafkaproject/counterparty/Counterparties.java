@@ -0,0 +1,98 @@
+package com.touraj.creditsuisse.kafkaproject.counterparty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the known customers and the legal entities each one may trade with,
+ * hashed by customer so a lookup is one map probe and one set probe.
+ */
+public final class Counterparties {
+
+    /**
+     * The two customers accepted before there was a counterparty file, with any legal entity
+     */
+    public static final Counterparties DEFAULT;
+
+    static {
+        Map<String, Set<String>> customers = new HashMap<>();
+        customers.put("PLUTO1", Collections.emptySet());
+        customers.put("PLUTO2", Collections.emptySet());
+        DEFAULT = new Counterparties(customers);
+    }
+
+    //[Touraj] :: An empty set means any legal entity is fine for that customer
+    private final Map<String, Set<String>> legalEntitiesByCustomer;
+
+    private Counterparties(Map<String, Set<String>> legalEntitiesByCustomer) {
+        this.legalEntitiesByCustomer = legalEntitiesByCustomer;
+    }
+
+    public boolean isCustomer(String customer) {
+        return customer != null && legalEntitiesByCustomer.containsKey(customer);
+    }
+
+    /**
+     * @return true if the customer is known and may trade with the legal entity
+     */
+    public boolean isLegalEntityOf(String customer, String legalEntity) {
+        Set<String> legalEntities = customer == null ? null : legalEntitiesByCustomer.get(customer);
+        return legalEntities != null && (legalEntities.isEmpty() || legalEntities.contains(legalEntity));
+    }
+
+    public int size() {
+        return legalEntitiesByCustomer.size();
+    }
+
+    /**
+     * One "customer,legalEntity" pair per line; a customer may appear on several lines, and a line
+     * with only a customer accepts any legal entity for it. Blank lines and lines starting with #
+     * are ignored.
+     *
+     * @throws IllegalArgumentException for a line without a customer
+     */
+    public static Counterparties load(Path file) throws IOException {
+
+        Map<String, Set<String>> customers = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                int comma = line.indexOf(',');
+                String customer = (comma < 0 ? line : line.substring(0, comma)).trim();
+                String legalEntity = comma < 0 ? "" : line.substring(comma + 1).trim();
+                if (customer.isEmpty()) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": no customer: " + line);
+                }
+
+                Set<String> legalEntities = customers.computeIfAbsent(customer, key -> new HashSet<>());
+                if (!legalEntity.isEmpty()) {
+                    //[Touraj] :: Thousands of customers share a few legal entities, keep one String each
+                    legalEntities.add(names.computeIfAbsent(legalEntity, key -> key));
+                }
+            }
+        }
+
+        for (Map.Entry<String, Set<String>> entry : customers.entrySet()) {
+            entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+        }
+        return new Counterparties(Collections.unmodifiableMap(customers));
+    }
+}
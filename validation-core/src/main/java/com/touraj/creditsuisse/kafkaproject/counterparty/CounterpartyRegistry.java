@@ -0,0 +1,105 @@
+package com.touraj.creditsuisse.kafkaproject.counterparty;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link Counterparties}. Validator threads only read the reference; a reload
+ * builds a complete new snapshot and swaps it in atomically, so readers never block and never
+ * see a half-loaded file. With a reload interval the file is checked for changes in the
+ * background. A reload that fails keeps the previous snapshot.
+ */
+public class CounterpartyRegistry implements Closeable {
+
+    private final Path file;
+
+    private final AtomicReference<Counterparties> counterparties = new AtomicReference<>(Counterparties.DEFAULT);
+    private long loadedSignature = 0;
+
+    private final ScheduledExecutorService reloader;
+
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param reloadIntervalSeconds 0 to only reload on {@link #reload()}
+     * @throws UncheckedIOException when the file exists but can not be read
+     */
+    public CounterpartyRegistry(Path file, long reloadIntervalSeconds) {
+
+        this.file = file;
+
+        if (Files.isRegularFile(file)) {
+            try {
+                reload();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            System.out.printf("No counterparty file %s, only PLUTO1 and PLUTO2 are valid customers\n", file);
+        }
+
+        if (reloadIntervalSeconds > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "counterparty-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            reloader = null;
+        }
+    }
+
+    public Counterparties getCounterparties() {
+        return counterparties.get();
+    }
+
+    public synchronized void reload() throws IOException {
+        long signature = signature();
+        Counterparties loaded = Counterparties.load(file);
+        counterparties.set(loaded);
+        loadedSignature = signature;
+        System.out.printf("%d counterparties loaded from %s\n", loaded.size(), file);
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    private synchronized void reloadIfChanged() {
+        try {
+            if (Files.isRegularFile(file) && signature() != loadedSignature) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            //[Touraj] :: Keep validating with the counterparties we have, retry on the next check
+            System.out.printf("Counterparties not reloaded from %s: %s\n", file, e);
+        }
+    }
+
+    private long signature() throws IOException {
+        return 31L * Files.getLastModifiedTime(file).toMillis() + Files.size(file);
+    }
+
+    /**
+     * Called after every successful reload, on the reloading thread
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+}
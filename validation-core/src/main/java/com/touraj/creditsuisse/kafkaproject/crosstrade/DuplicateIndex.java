@@ -0,0 +1,202 @@
+package com.touraj.creditsuisse.kafkaproject.crosstrade;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.util.Hashing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Booking keys of the trades accepted over the last window: customer, ccyPair, tradeDate, amount1,
+ * amount2 and direction, hashed to 128 bits. Keys are spread over striped maps, each with its own
+ * lock and kept in insertion order, so the entries that expire first are at the head of their
+ * stripe and are dropped there by whichever thread next uses it. Each stripe is also bounded; when
+ * full, its oldest key is evicted even if it has not expired yet.
+ */
+public class DuplicateIndex {
+
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxSize       upper bound of remembered trades, spread over the stripes
+     * @param windowSeconds how long an accepted trade is remembered
+     * @param stripes       rounded up to a power of two
+     */
+    public DuplicateIndex(int maxSize, long windowSeconds, int stripes) {
+        this(maxSize, windowSeconds, stripes, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanoseconds, only differences between its values are used
+     */
+    public DuplicateIndex(int maxSize, long windowSeconds, int stripes, LongSupplier clock) {
+
+        if (maxSize < 1 || windowSeconds < 1 || stripes < 1) {
+            throw new IllegalArgumentException("maxSize, windowSeconds and stripes must be positive: "
+                    + maxSize + ", " + windowSeconds + ", " + stripes);
+        }
+
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.clock = clock;
+
+        int perStripe = Math.max(1, maxSize / count);
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Records the trade unless a trade with the same booking key was recorded within the window.
+     *
+     * @return false for a duplicate
+     */
+    public boolean add(Trade trade) {
+
+        Key key = new Key(hash(trade, SEED_HIGH), hash(trade, SEED_LOW));
+        long now = clock.getAsLong();
+
+        Stripe stripe = stripes[(int) (key.high >>> 32) & stripeMask];
+        synchronized (stripe) {
+            stripe.expire(now);
+            if (stripe.containsKey(key)) {
+                duplicates.increment();
+                return false;
+            }
+            stripe.put(key, now + windowNanos);
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the trade's booking key, when the trade it was recorded for is withdrawn.
+     *
+     * @return false when the key was not recorded, or no longer is
+     */
+    public boolean remove(Trade trade) {
+
+        Key key = new Key(hash(trade, SEED_HIGH), hash(trade, SEED_LOW));
+        long now = clock.getAsLong();
+
+        Stripe stripe = stripes[(int) (key.high >>> 32) & stripeMask];
+        synchronized (stripe) {
+            stripe.expire(now);
+            return stripe.remove(key) != null;
+        }
+    }
+
+    private static long hash(Trade trade, long seed) {
+
+        String customer = trade.getCustomer();
+        String direction = trade.getDirection();
+
+        long h = Hashing.hash(customer == null ? "" : customer, seed);
+        h = Hashing.mix(h ^ ((long) trade.getCcyPairBaseCode() << 32 | (trade.getCcyPairQuoteCode() & 0xFFFFFFFFL)));
+        h = Hashing.mix(h ^ trade.getTradeDate());
+        h = Hashing.mix(h ^ trade.getAmount1());
+        h = Hashing.mix(h ^ trade.getAmount2());
+        //[Touraj] :: Case-insensitive, as in the binary format
+        return Hashing.mix(h ^ Hashing.hash(direction == null ? "" : direction.toUpperCase(Locale.ROOT), seed));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private static final class Key {
+
+        final long high;
+        final long low;
+
+        Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32));
+        }
+    }
+
+    /**
+     * Key to expiry time. Every key gets the same window, so insertion order is expiry order.
+     */
+    private final class Stripe extends LinkedHashMap<Key, Long> {
+
+        private final int maxSize;
+
+        Stripe(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        void expire(long now) {
+            Iterator<Long> expiries = values().iterator();
+            while (expiries.hasNext() && now - expiries.next() >= 0) {
+                expiries.remove();
+                expirations.increment();
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.touraj.creditsuisse.kafkaproject.crosstrade;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+
+/**
+ * Rejects a trade booked again within the window of its {@link DuplicateIndex}, whichever request
+ * the first booking came with.
+ */
+public class DuplicateTradeValidator implements IValidator {
+
+    private final DuplicateIndex duplicateIndex;
+
+    public DuplicateTradeValidator(DuplicateIndex duplicateIndex) {
+        this.duplicateIndex = duplicateIndex;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+        if (duplicateIndex.add(trade)) {
+            return true;
+        }
+        sink.reject(tradeNumber, ErrorType.DuplicateTrade);
+        return false;
+    }
+
+    @Override
+    public void withdraw(Trade trade) {
+        duplicateIndex.remove(trade);
+    }
+
+    @Override
+    public boolean isCrossTrade() {
+        return true;
+    }
+
+    public DuplicateIndex getDuplicateIndex() {
+        return duplicateIndex;
+    }
+}
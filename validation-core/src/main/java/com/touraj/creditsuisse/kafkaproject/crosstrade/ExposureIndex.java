@@ -0,0 +1,245 @@
+package com.touraj.creditsuisse.kafkaproject.crosstrade;
+
+import com.touraj.creditsuisse.kafkaproject.util.Hashing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Notional accepted per customer over a sliding window, checked against a limit per customer.
+ * The window is split into buckets: a customer's exposure is a ring of bucket totals, and moving
+ * to a new bucket drops the amounts of the bucket that fell out of the window, so the window
+ * slides in steps of one bucket. Customers are spread over striped maps, each with its own lock;
+ * customers whose exposure has fallen back to zero are swept out of a stripe every
+ * {@link #SWEEP_INTERVAL} updates of it. Amounts are in millionths, as {@link
+ * com.touraj.creditsuisse.kafkaproject.Validator.Trade#getAmount1()}.
+ */
+public class ExposureIndex {
+
+    static final int SWEEP_INTERVAL = 4096;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int buckets;
+    private final long bucketNanos;
+    private final long defaultLimit;
+    private final Map<String, Long> limits;
+    private final LongSupplier clock;
+
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param windowSeconds how long an accepted amount counts
+     * @param buckets       steps the window slides in
+     * @param defaultLimit  limit of customers not in limits, Long.MAX_VALUE for none
+     * @param limits        per customer
+     * @param stripes       rounded up to a power of two
+     */
+    public ExposureIndex(long windowSeconds, int buckets, long defaultLimit, Map<String, Long> limits, int stripes) {
+        this(windowSeconds, buckets, defaultLimit, limits, stripes, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanoseconds, only differences between its values are used
+     */
+    public ExposureIndex(long windowSeconds, int buckets, long defaultLimit, Map<String, Long> limits, int stripes,
+                         LongSupplier clock) {
+
+        if (windowSeconds < 1 || buckets < 1 || stripes < 1) {
+            throw new IllegalArgumentException("windowSeconds, buckets and stripes must be positive: "
+                    + windowSeconds + ", " + buckets + ", " + stripes);
+        }
+
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        this.buckets = buckets;
+        this.bucketNanos = Math.max(1, TimeUnit.SECONDS.toNanos(windowSeconds) / buckets);
+        this.defaultLimit = defaultLimit;
+        this.limits = new HashMap<>(limits);
+        this.clock = clock;
+
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds notional to the customer's exposure when that keeps it within its limit.
+     *
+     * @return false, leaving the exposure as it was, when the limit would be exceeded
+     */
+    public boolean tryAdd(String customer, long notional) {
+
+        long limit = getLimit(customer);
+        if (limit == Long.MAX_VALUE) {
+            return true;
+        }
+
+        long amount = Math.abs(notional);
+        long bucket = Math.floorDiv(clock.getAsLong(), bucketNanos);
+
+        Stripe stripe = stripeOf(customer);
+        synchronized (stripe) {
+            if (++stripe.updates % SWEEP_INTERVAL == 0) {
+                stripe.sweep(bucket);
+            }
+
+            Exposure exposure = stripe.get(customer);
+            if (exposure == null) {
+                exposure = new Exposure(buckets, bucket);
+                stripe.put(customer, exposure);
+            } else {
+                exposure.advance(bucket);
+            }
+
+            //[Touraj] :: total never exceeds limit, so this can not overflow
+            if (amount > limit - exposure.total) {
+                rejections.increment();
+                return false;
+            }
+            exposure.add(bucket, amount);
+        }
+        return true;
+    }
+
+    /**
+     * Takes back notional that {@link #tryAdd} accepted for the customer, from the newest bucket
+     * first: exact while the window has not moved on since, and never below zero once part of it
+     * has left the window.
+     */
+    public void remove(String customer, long notional) {
+
+        if (getLimit(customer) == Long.MAX_VALUE) {
+            return;
+        }
+
+        long amount = Math.abs(notional);
+        long bucket = Math.floorDiv(clock.getAsLong(), bucketNanos);
+
+        Stripe stripe = stripeOf(customer);
+        synchronized (stripe) {
+            Exposure exposure = stripe.get(customer);
+            if (exposure != null) {
+                exposure.advance(bucket);
+                exposure.remove(bucket, amount);
+            }
+        }
+    }
+
+    /**
+     * @return the customer's exposure over the current window
+     */
+    public long getExposure(String customer) {
+
+        long bucket = Math.floorDiv(clock.getAsLong(), bucketNanos);
+        Stripe stripe = stripeOf(customer);
+        synchronized (stripe) {
+            Exposure exposure = stripe.get(customer);
+            if (exposure == null) {
+                return 0;
+            }
+            exposure.advance(bucket);
+            return exposure.total;
+        }
+    }
+
+    public long getLimit(String customer) {
+        Long limit = limits.get(customer);
+        return limit == null ? defaultLimit : limit;
+    }
+
+    private Stripe stripeOf(String customer) {
+        return stripes[(int) Hashing.mix(customer.hashCode()) & stripeMask];
+    }
+
+    /**
+     * @return customers with an exposure entry, including ones not swept yet
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("customers", size());
+        stats.put("rejections", rejections.sum());
+        return stats;
+    }
+
+    private static final class Exposure {
+
+        final long[] amounts;
+        long total;
+        long lastBucket;
+
+        Exposure(int buckets, long bucket) {
+            this.amounts = new long[buckets];
+            this.lastBucket = bucket;
+        }
+
+        void advance(long bucket) {
+            if (bucket <= lastBucket) {
+                return;
+            }
+            if (bucket - lastBucket >= amounts.length) {
+                Arrays.fill(amounts, 0);
+                total = 0;
+            } else {
+                for (long b = lastBucket + 1; b <= bucket; b++) {
+                    int slot = (int) Math.floorMod(b, (long) amounts.length);
+                    total -= amounts[slot];
+                    amounts[slot] = 0;
+                }
+            }
+            lastBucket = bucket;
+        }
+
+        void add(long bucket, long amount) {
+            amounts[(int) Math.floorMod(bucket, (long) amounts.length)] += amount;
+            total += amount;
+        }
+
+        void remove(long bucket, long amount) {
+            for (long b = bucket; b > bucket - amounts.length && amount > 0; b--) {
+                int slot = (int) Math.floorMod(b, (long) amounts.length);
+                long taken = Math.min(amounts[slot], amount);
+                amounts[slot] -= taken;
+                total -= taken;
+                amount -= taken;
+            }
+        }
+    }
+
+    private static final class Stripe extends HashMap<String, Exposure> {
+
+        long updates;
+
+        void sweep(long bucket) {
+            Iterator<Exposure> exposures = values().iterator();
+            while (exposures.hasNext()) {
+                Exposure exposure = exposures.next();
+                exposure.advance(bucket);
+                if (exposure.total == 0) {
+                    exposures.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.touraj.creditsuisse.kafkaproject.crosstrade;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+
+/**
+ * Adds each accepted trade's amount1 to its customer's exposure and rejects the trade that would
+ * take it over the limit. Amounts are summed as they are, whatever their currency.
+ */
+public class ExposureLimitValidator implements IValidator {
+
+    private final ExposureIndex exposureIndex;
+
+    public ExposureLimitValidator(ExposureIndex exposureIndex) {
+        this.exposureIndex = exposureIndex;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        String customer = trade.getCustomer();
+        if (customer == null || exposureIndex.tryAdd(customer, trade.getAmount1())) {
+            return true;
+        }
+        sink.reject(tradeNumber, ErrorType.ExposureLimitExceeded);
+        return false;
+    }
+
+    @Override
+    public void withdraw(Trade trade) {
+        String customer = trade.getCustomer();
+        if (customer != null) {
+            exposureIndex.remove(customer, trade.getAmount1());
+        }
+    }
+
+    @Override
+    public boolean isCrossTrade() {
+        return true;
+    }
+
+    public ExposureIndex getExposureIndex() {
+        return exposureIndex;
+    }
+}
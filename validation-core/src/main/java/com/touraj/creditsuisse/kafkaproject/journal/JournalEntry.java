@@ -0,0 +1,52 @@
+package com.touraj.creditsuisse.kafkaproject.journal;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import org.json.JSONObject;
+
+import java.time.Instant;
+
+/**
+ * One rejection read back from the journal.
+ */
+public class JournalEntry {
+
+    private final long requestId;
+    private final int tradeNumber;
+    private final ErrorType errorType;
+    private final long timestamp;
+
+    public JournalEntry(long requestId, int tradeNumber, ErrorType errorType, long timestamp) {
+        this.requestId = requestId;
+        this.tradeNumber = tradeNumber;
+        this.errorType = errorType;
+        this.timestamp = timestamp;
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+
+    public int getTradeNumber() {
+        return tradeNumber;
+    }
+
+    public ErrorType getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * @return epoch milliseconds of the rejection
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public JSONObject toJSON() {
+        JSONObject entry = new JSONObject();
+        entry.put("RequestId", requestId);
+        entry.put("TradeNumber", tradeNumber);
+        entry.put("ErrorType", errorType.name());
+        entry.put("Timestamp", Instant.ofEpochMilli(timestamp).toString());
+        return entry;
+    }
+}
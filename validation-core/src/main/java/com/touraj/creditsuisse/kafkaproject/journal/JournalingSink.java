@@ -0,0 +1,31 @@
+package com.touraj.creditsuisse.kafkaproject.journal;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+
+/**
+ * Passes every rejection on to the caller's sink and publishes it to the journal under the
+ * request id. One per request.
+ */
+public class JournalingSink implements ValidationSink {
+
+    private final RejectionJournal journal;
+    private final long requestId;
+    private final ValidationSink sink;
+
+    public JournalingSink(RejectionJournal journal, long requestId, ValidationSink sink) {
+        this.journal = journal;
+        this.requestId = requestId;
+        this.sink = sink;
+    }
+
+    @Override
+    public void reject(int tradeNumber, ErrorType errorType) {
+        journal.publish(requestId, tradeNumber, errorType);
+        sink.reject(tradeNumber, errorType);
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+}
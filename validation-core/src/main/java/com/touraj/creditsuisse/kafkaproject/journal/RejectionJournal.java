@@ -0,0 +1,361 @@
+package com.touraj.creditsuisse.kafkaproject.journal;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit trail of rejections. Validation threads only publish into a
+ * {@link RejectionRingBuffer}; a background writer thread drains it in batches into memory-mapped
+ * segment files of fixed-size records, starting a new segment when the current one is full and
+ * deleting the oldest beyond maxSegments. Once the buffer stays empty for a few yields the writer
+ * parks until the next publish wakes it, so it costs nothing without traffic.
+ *
+ * Record layout, little endian: requestId (8), timestamp millis (8), tradeNumber (4), errorType (4).
+ * Request ids are never 0, so a zero requestId marks the end of the written part of a segment.
+ */
+public class RejectionJournal implements Closeable {
+
+    static final int RECORD_SIZE = 24;
+
+    private static final int DRAIN_BATCH = 4096;
+    //[Touraj] :: Empty drains the writer yields through before it parks
+    private static final int IDLE_YIELDS = 64;
+    private static final long AWAIT_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+
+    private final RejectionRingBuffer ringBuffer;
+    private final RejectionRingBuffer.RecordHandler appender = this::append;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final AtomicLong requestIds;
+
+    //[Touraj] :: Owned by the writer thread
+    private Segment current;
+    private MappedByteBuffer currentBuffer;
+    private long reportedDropped = 0;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+    //[Touraj] :: Set by the writer before it parks, publishers only unpark it then
+    private volatile boolean writerParked = false;
+
+    public RejectionJournal(Path directory, long segmentSize, int maxSegments, int bufferCapacity) throws IOException {
+
+        if (segmentSize < RECORD_SIZE || segmentSize / RECORD_SIZE > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("segmentSize out of range: " + segmentSize);
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("maxSegments must be positive: " + maxSegments);
+        }
+
+        this.directory = directory;
+        this.recordsPerSegment = (int) (segmentSize / RECORD_SIZE);
+        this.maxSegments = maxSegments;
+        this.ringBuffer = new RejectionRingBuffer(bufferCapacity);
+
+        Files.createDirectories(directory);
+        long lastRequestId = recover();
+
+        //[Touraj] :: Ids keep growing across restarts, also when the last requests had no rejection
+        this.requestIds = new AtomicLong(Math.max(System.currentTimeMillis() * 1000, lastRequestId + 1));
+
+        if (current == null || current.readOnly || current.records == recordsPerSegment) {
+            roll();
+        } else {
+            currentBuffer = map(current.path, FileChannel.MapMode.READ_WRITE, (long) recordsPerSegment * RECORD_SIZE);
+            currentBuffer.position(current.records * RECORD_SIZE);
+        }
+
+        this.writer = new Thread(this::writeLoop, "rejection-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public long nextRequestId() {
+        return requestIds.getAndIncrement();
+    }
+
+    /**
+     * @return a sink that journals every rejection of the request before passing it on
+     */
+    public JournalingSink journaling(long requestId, ValidationSink sink) {
+        return new JournalingSink(this, requestId, sink);
+    }
+
+    /**
+     * Never blocks; when the writer falls behind by a whole buffer the record is dropped.
+     */
+    public void publish(long requestId, int tradeNumber, ErrorType errorType) {
+        ringBuffer.offer(requestId, tradeNumber, errorType, System.currentTimeMillis());
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public long getDropped() {
+        return ringBuffer.getDropped();
+    }
+
+    /**
+     * Every rejection of the request, in the order they were journaled. Waits up to a second for
+     * the writer to catch up with what was published before the call.
+     */
+    public List<JournalEntry> find(long requestId) throws IOException {
+        return find(requestId, -1);
+    }
+
+    /**
+     * @param tradeNumber -1 for every trade of the request
+     */
+    public List<JournalEntry> find(long requestId, int tradeNumber) throws IOException {
+
+        awaitWritten(ringBuffer.getTail(), TimeUnit.SECONDS.toNanos(1));
+
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Segment segment : segments) {
+
+            int records = segment.records;
+            if (records == 0 || requestId < segment.minRequestId || requestId > segment.maxRequestId) {
+                continue;
+            }
+
+            ByteBuffer buffer;
+            try {
+                buffer = map(segment.path, FileChannel.MapMode.READ_ONLY, (long) records * RECORD_SIZE);
+            } catch (IOException e) {
+                if (!Files.exists(segment.path)) {
+                    //[Touraj] :: Deleted by a rollover while we were looking at it
+                    continue;
+                }
+                throw e;
+            }
+
+            for (int i = 0; i < records; i++) {
+                int offset = i * RECORD_SIZE;
+                if (buffer.getLong(offset) == requestId
+                        && (tradeNumber < 0 || buffer.getInt(offset + 16) == tradeNumber)) {
+                    entries.add(new JournalEntry(requestId, buffer.getInt(offset + 16),
+                            ERROR_TYPES[buffer.getInt(offset + 20)], buffer.getLong(offset + 8)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return false if the writer did not reach the sequence in time
+     */
+    boolean awaitWritten(long sequence, long timeoutNanos) {
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (ringBuffer.getHead() < sequence) {
+            if (!writer.isAlive() || System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(AWAIT_POLL_NANOS);
+        }
+        return true;
+    }
+
+    boolean isWriterParked() {
+        return writerParked;
+    }
+
+    /**
+     * Stops the writer once everything published so far is written.
+     */
+    @Override
+    public void close() {
+
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+
+        int idle = 0;
+        try {
+            while (running || ringBuffer.getHead() < ringBuffer.getTail()) {
+                if (ringBuffer.drain(appender, DRAIN_BATCH) > 0) {
+                    idle = 0;
+                } else if (idle++ < IDLE_YIELDS) {
+                    //[Touraj] :: Also covers a slot claimed but not yet published
+                    Thread.yield();
+                } else {
+                    reportDropped();
+                    park();
+                    idle = 0;
+                }
+            }
+            currentBuffer.force();
+        } catch (UncheckedIOException e) {
+            System.out.printf("Rejection journal stopped, can not write to %s: %s\n", directory, e.getCause());
+        }
+    }
+
+    /**
+     * Parks the writer until a publish or close. The flag is set before the tail is read and a
+     * publisher claims its slot before it reads the flag, so one of the two always sees the other.
+     */
+    private void park() {
+        writerParked = true;
+        if (running && ringBuffer.getHead() == ringBuffer.getTail()) {
+            LockSupport.park(this);
+        }
+        writerParked = false;
+    }
+
+    private void append(long requestId, int tradeNumber, int errorType, long timestamp) {
+
+        if (current.records == recordsPerSegment) {
+            try {
+                roll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        currentBuffer.putLong(requestId);
+        currentBuffer.putLong(timestamp);
+        currentBuffer.putInt(tradeNumber);
+        currentBuffer.putInt(errorType);
+
+        current.minRequestId = Math.min(current.minRequestId, requestId);
+        current.maxRequestId = Math.max(current.maxRequestId, requestId);
+        //[Touraj] :: Volatile write last, readers never look past records
+        current.records++;
+    }
+
+    private void reportDropped() {
+        long dropped = ringBuffer.getDropped();
+        if (dropped != reportedDropped) {
+            System.out.printf("Rejection journal buffer full, %d rejections not journaled\n", dropped - reportedDropped);
+            reportedDropped = dropped;
+        }
+    }
+
+    private void roll() throws IOException {
+
+        long number = 0;
+        if (current != null) {
+            if (currentBuffer != null) {
+                currentBuffer.force();
+            }
+            number = current.number + 1;
+        }
+
+        Segment segment = new Segment(number, directory.resolve(String.format("rejections-%010d.journal", number)));
+        currentBuffer = map(segment.path, FileChannel.MapMode.READ_WRITE, (long) recordsPerSegment * RECORD_SIZE);
+        current = segment;
+        segments.add(segment);
+
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.remove(0);
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    /**
+     * Picks up the segments left by a previous run.
+     *
+     * @return the biggest request id found, 0 if none
+     */
+    private long recover() throws IOException {
+
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "rejections-*.journal")) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        //[Touraj] :: Zero padded numbers, so names sort in segment order
+        paths.sort(null);
+
+        long lastRequestId = 0;
+        for (Path path : paths) {
+
+            String name = path.getFileName().toString();
+            Segment segment = new Segment(Long.parseLong(name.substring("rejections-".length(), name.length() - ".journal".length())), path);
+
+            ByteBuffer buffer = map(path, FileChannel.MapMode.READ_ONLY, Files.size(path));
+            int capacity = buffer.capacity() / RECORD_SIZE;
+            int records = 0;
+            while (records < capacity && buffer.getLong(records * RECORD_SIZE) != 0) {
+                long requestId = buffer.getLong(records * RECORD_SIZE);
+                segment.minRequestId = Math.min(segment.minRequestId, requestId);
+                segment.maxRequestId = Math.max(segment.maxRequestId, requestId);
+                records++;
+            }
+            segment.records = records;
+            //[Touraj] :: A segment written with another size is kept for queries but not appended to
+            segment.readOnly = capacity != recordsPerSegment;
+
+            lastRequestId = Math.max(lastRequestId, segment.maxRequestId);
+            segments.add(segment);
+            current = segment;
+        }
+
+        while (segments.size() > maxSegments) {
+            Files.deleteIfExists(segments.remove(0).path);
+        }
+        return lastRequestId;
+    }
+
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode, long size) throws IOException {
+
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            MappedByteBuffer buffer = channel.map(mode, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private static class Segment {
+
+        final long number;
+        final Path path;
+
+        volatile long minRequestId = Long.MAX_VALUE;
+        volatile long maxRequestId = Long.MIN_VALUE;
+        volatile int records = 0;
+        //[Touraj] :: Left by a run with another segment size, records never reaches its end
+        boolean readOnly;
+
+        Segment(long number, Path path) {
+            this.number = number;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.touraj.creditsuisse.kafkaproject.journal;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer / single-consumer queue of rejection records, kept as primitives in
+ * parallel arrays. Producers claim a slot with a CAS on the tail and never block: when the
+ * buffer is full the record is dropped and counted. Only the journal writer thread drains it.
+ */
+public class RejectionRingBuffer {
+
+    public interface RecordHandler {
+
+        void onRecord(long requestId, int tradeNumber, int errorType, long timestamp);
+
+    }
+
+    private final int capacity;
+    private final int mask;
+
+    private final long[] requestIds;
+    private final long[] timestamps;
+    private final int[] tradeNumbers;
+    private final int[] errorTypes;
+
+    //[Touraj] :: Sequence of the record last written into each slot, published after the fields
+    private final AtomicLongArray published;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head = 0;
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public RejectionRingBuffer(int capacity) {
+
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+
+        this.capacity = size;
+        this.mask = this.capacity - 1;
+
+        this.requestIds = new long[this.capacity];
+        this.timestamps = new long[this.capacity];
+        this.tradeNumbers = new int[this.capacity];
+        this.errorTypes = new int[this.capacity];
+
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * @return false when the buffer is full and the record was dropped
+     */
+    public boolean offer(long requestId, int tradeNumber, ErrorType errorType, long timestamp) {
+
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        requestIds[slot] = requestId;
+        timestamps[slot] = timestamp;
+        tradeNumbers[slot] = tradeNumber;
+        errorTypes[slot] = errorType.ordinal();
+
+        published.lazySet(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Consumer side, single thread only. Stops at the first slot claimed but not yet published.
+     *
+     * @return the number of records handed to the handler
+     */
+    public int drain(RecordHandler handler, int maxRecords) {
+
+        long first = head;
+        int drained = 0;
+
+        while (drained < maxRecords) {
+            long sequence = first + drained;
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                break;
+            }
+            handler.onRecord(requestIds[slot], tradeNumbers[slot], errorTypes[slot], timestamps[slot]);
+            drained++;
+        }
+
+        if (drained > 0) {
+            //[Touraj] :: Frees the slots for the producers
+            head = first + drained;
+        }
+        return drained;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return sequence of the next record to be claimed; every record before it is drained once
+     * {@link #getHead()} reaches it
+     */
+    public long getTail() {
+        return tail.get();
+    }
+
+    public long getHead() {
+        return head;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
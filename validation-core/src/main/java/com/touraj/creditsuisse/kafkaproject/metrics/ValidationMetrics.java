@@ -0,0 +1,251 @@
+package com.touraj.creditsuisse.kafkaproject.metrics;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the validation, shared by every thread. The record methods
+ * only touch striped counters ({@link LongAdder}) and do not allocate; {@link #snapshot()} is the
+ * reporting side and builds the whole view on each call.
+ */
+public class ValidationMetrics {
+
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+    private final List<IValidator> validators;
+
+    //[Touraj] :: [validator index][trade type ordinal]
+    private final LatencyHistogram[][] validatorLatency;
+    private final LatencyHistogram[] tradeLatency = new LatencyHistogram[TRADE_TYPES.length];
+    private final LongAdder[] rejections = new LongAdder[ERROR_TYPES.length];
+
+    private final LatencyHistogram batchSizes = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private final LatencyHistogram coalescedRequests = new LatencyHistogram();
+    private final LatencyHistogram coalescingQueueLatency = new LatencyHistogram();
+    private final LatencyHistogram tcpFrameLatency = new LatencyHistogram();
+
+    private final ThreadLocal<CountingSink> countingSinks = ThreadLocal.withInitial(() -> new CountingSink(rejections));
+
+    private final long startNanos = System.nanoTime();
+    private long lastSnapshotNanos = startNanos;
+    private long lastSnapshotTrades = 0;
+
+    public ValidationMetrics(List<IValidator> validators) {
+
+        this.validators = Collections.unmodifiableList(new ArrayList<>(validators));
+        this.validatorLatency = new LatencyHistogram[validators.size()][TRADE_TYPES.length];
+
+        for (int i = 0; i < validators.size(); i++) {
+            for (int j = 0; j < TRADE_TYPES.length; j++) {
+                validatorLatency[i][j] = new LatencyHistogram();
+            }
+        }
+        for (int j = 0; j < TRADE_TYPES.length; j++) {
+            tradeLatency[j] = new LatencyHistogram();
+        }
+        for (int k = 0; k < ERROR_TYPES.length; k++) {
+            rejections[k] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the index to pass to {@link #recordValidator}, by identity
+     */
+    public int indexOf(IValidator validator) {
+
+        for (int i = 0; i < validators.size(); i++) {
+            if (validators.get(i) == validator) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Validator has no metrics: " + validator.getClass().getSimpleName());
+    }
+
+    public void recordValidator(int validatorIndex, TradeType tradeType, long nanos) {
+        validatorLatency[validatorIndex][tradeType.ordinal()].record(nanos);
+    }
+
+    /**
+     * One trade through the whole chain
+     */
+    public void recordTrade(TradeType tradeType, long nanos) {
+        tradeLatency[tradeType.ordinal()].record(nanos);
+    }
+
+    public void recordBatch(int trades, long nanos) {
+        batchSizes.record(trades);
+        batchLatency.record(nanos);
+    }
+
+    /**
+     * @param requests number of requests merged into one batch by the request coalescer
+     */
+    public void recordCoalescedBatch(int requests) {
+        coalescedRequests.record(requests);
+    }
+
+    /**
+     * @param queueNanos time a request waited for its coalesced batch to be dispatched
+     */
+    public void recordCoalescedRequest(long queueNanos) {
+        coalescingQueueLatency.record(queueNanos);
+    }
+
+    /**
+     * @param nanos from reading a trade frame off a TCP connection to writing its response
+     */
+    public void recordTcpFrame(long nanos) {
+        tcpFrameLatency.record(nanos);
+    }
+
+    public void recordRejection(ErrorType errorType) {
+        rejections[errorType.ordinal()].increment();
+    }
+
+    /**
+     * Wraps the sink so every rejection is counted on the way through. The wrapper is reused per
+     * thread: it is only valid until the next call on the same thread, and should be released
+     * once the trade is done so it does not keep the caller's sink alive.
+     */
+    public CountingSink countingSink(ValidationSink sink) {
+        CountingSink countingSink = countingSinks.get();
+        countingSink.sink = sink;
+        return countingSink;
+    }
+
+    public long getTrades() {
+        long trades = 0;
+        for (LatencyHistogram histogram : tradeLatency) {
+            trades += histogram.snapshot().getCount();
+        }
+        return trades;
+    }
+
+    public long getRejections(ErrorType errorType) {
+        return rejections[errorType.ordinal()].sum();
+    }
+
+    /**
+     * trades.perSecond is measured since the previous snapshot, trades.perSecondSinceStart since
+     * the metrics were created.
+     */
+    public synchronized Map<String, Object> snapshot() {
+
+        long now = System.nanoTime();
+
+        Map<String, Object> tradesByType = new LinkedHashMap<>();
+        Map<String, Object> tradeLatencies = new LinkedHashMap<>();
+        long trades = 0;
+        for (TradeType tradeType : TRADE_TYPES) {
+            LatencyHistogram.Snapshot snapshot = tradeLatency[tradeType.ordinal()].snapshot();
+            if (snapshot.getCount() > 0) {
+                tradesByType.put(tradeType.name(), snapshot.getCount());
+                tradeLatencies.put(tradeType.name(), summary(snapshot));
+                trades += snapshot.getCount();
+            }
+        }
+
+        Map<String, Object> tradeCounts = new LinkedHashMap<>();
+        tradeCounts.put("total", trades);
+        tradeCounts.put("perSecond", perSecond(trades - lastSnapshotTrades, now - lastSnapshotNanos));
+        tradeCounts.put("perSecondSinceStart", perSecond(trades, now - startNanos));
+        tradeCounts.put("byType", tradesByType);
+
+        Map<String, Object> rejectionCounts = new LinkedHashMap<>();
+        for (ErrorType errorType : ERROR_TYPES) {
+            rejectionCounts.put(errorType.name(), rejections[errorType.ordinal()].sum());
+        }
+
+        Map<String, Object> validatorLatencies = new LinkedHashMap<>();
+        for (int i = 0; i < validators.size(); i++) {
+            Map<String, Object> byType = new LinkedHashMap<>();
+            for (TradeType tradeType : TRADE_TYPES) {
+                LatencyHistogram.Snapshot snapshot = validatorLatency[i][tradeType.ordinal()].snapshot();
+                if (snapshot.getCount() > 0) {
+                    byType.put(tradeType.name(), summary(snapshot));
+                }
+            }
+            validatorLatencies.put(validators.get(i).getClass().getSimpleName(), byType);
+        }
+
+        Map<String, Object> batches = new LinkedHashMap<>();
+        batches.put("size", summary(batchSizes.snapshot()));
+        batches.put("latencyNanos", summary(batchLatency.snapshot()));
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("uptimeSeconds", TimeUnit.NANOSECONDS.toSeconds(now - startNanos));
+        metrics.put("trades", tradeCounts);
+        metrics.put("rejections", rejectionCounts);
+        metrics.put("batches", batches);
+
+        LatencyHistogram.Snapshot coalesced = coalescedRequests.snapshot();
+        if (coalesced.getCount() > 0) {
+            Map<String, Object> coalescing = new LinkedHashMap<>();
+            coalescing.put("requestsPerBatch", summary(coalesced));
+            coalescing.put("queueNanos", summary(coalescingQueueLatency.snapshot()));
+            metrics.put("coalescing", coalescing);
+        }
+        LatencyHistogram.Snapshot tcpFrames = tcpFrameLatency.snapshot();
+        if (tcpFrames.getCount() > 0) {
+            Map<String, Object> tcp = new LinkedHashMap<>();
+            tcp.put("frameLatencyNanos", summary(tcpFrames));
+            metrics.put("tcp", tcp);
+        }
+        metrics.put("tradeLatencyNanos", tradeLatencies);
+        metrics.put("validatorLatencyNanos", validatorLatencies);
+
+        lastSnapshotNanos = now;
+        lastSnapshotTrades = trades;
+
+        return metrics;
+    }
+
+    private static Map<String, Object> summary(LatencyHistogram.Snapshot snapshot) {
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.getCount());
+        summary.put("mean", Math.round(snapshot.getMean()));
+        summary.put("p50", snapshot.getValueAt(0.50));
+        summary.put("p90", snapshot.getValueAt(0.90));
+        summary.put("p99", snapshot.getValueAt(0.99));
+        summary.put("p999", snapshot.getValueAt(0.999));
+        summary.put("max", snapshot.getMax());
+        return summary;
+    }
+
+    private static long perSecond(long count, long nanos) {
+        return nanos <= 0 ? 0 : Math.round(count * 1e9 / nanos);
+    }
+
+    public static final class CountingSink implements ValidationSink {
+
+        private final LongAdder[] rejections;
+        private ValidationSink sink;
+
+        private CountingSink(LongAdder[] rejections) {
+            this.rejections = rejections;
+        }
+
+        public void release() {
+            sink = null;
+        }
+
+        @Override
+        public void reject(int tradeNumber, ErrorType errorType) {
+            rejections[errorType.ordinal()].increment();
+            sink.reject(tradeNumber, errorType);
+        }
+    }
+}
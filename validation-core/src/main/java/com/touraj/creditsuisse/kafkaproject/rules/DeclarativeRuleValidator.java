@@ -0,0 +1,28 @@
+package com.touraj.creditsuisse.kafkaproject.rules;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+
+/**
+ * Runs the rules of the registry's current {@link RuleSet} as one validator of the chain. The rule
+ * set can change at any time, so this validator is in every type's plan and the rules of the
+ * trade's type are picked per trade; all of them come from the same rule set.
+ */
+public class DeclarativeRuleValidator implements IValidator {
+
+    private final RuleSetRegistry ruleSetRegistry;
+
+    public DeclarativeRuleValidator(RuleSetRegistry ruleSetRegistry) {
+        this.ruleSetRegistry = ruleSetRegistry;
+    }
+
+    @Override
+    public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+        return ruleSetRegistry.getRuleSet().validate(trade, tradeNumber, sink);
+    }
+
+    public RuleSetRegistry getRuleSetRegistry() {
+        return ruleSetRegistry;
+    }
+}
@@ -0,0 +1,266 @@
+package com.touraj.creditsuisse.kafkaproject.rules;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import com.touraj.creditsuisse.kafkaproject.util.Utility;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Turns rule definitions into a {@link RuleSet}. A definition file is a JSON array of rules:
+ * <pre>
+ * {"name": "excerciseStartDateWithinOption",
+ *  "types": ["VanillaOption"],
+ *  "when": [{"field": "style", "in": ["AMERICAN"], "ignoreCase": true}],
+ *  "require": [{"not": {"before": ["excerciseStartDate", "tradeDate"]}}, {"before": ["excerciseStartDate", "expiryDate"]}],
+ *  "error": "InvalidExcerciseStartDate"}
+ * </pre>
+ * "types" (every type when missing) and "when" (always when missing) select the trades a rule is
+ * checked on; it fails when any condition of "require" does not hold, and reports "error", the
+ * name of an {@link ErrorType}. Conditions are:
+ * <ul>
+ * <li>{"before": [date1, date2, ...]} - each date strictly before the next one; false when one of them is invalid</li>
+ * <li>{"field": f, "in": [...], "ignoreCase": false} - f is one of the values</li>
+ * <li>{"not": condition}</li>
+ * </ul>
+ * Every field name is resolved to its Trade getter here, and every value set is built here, so a
+ * compiled rule does no lookup by name and no parsing per trade.
+ */
+final class RuleCompiler {
+
+    private static final Map<String, ToIntFunction<Trade>> DATE_FIELDS = new HashMap<>();
+    private static final Map<String, Function<Trade, String>> STRING_FIELDS = new HashMap<>();
+
+    static {
+        DATE_FIELDS.put("tradeDate", Trade::getTradeDate);
+        DATE_FIELDS.put("valueDate", Trade::getValueDate);
+        DATE_FIELDS.put("expiryDate", Trade::getExpiryDate);
+        DATE_FIELDS.put("premiumDate", Trade::getPremiumDate);
+        DATE_FIELDS.put("deliveryDate", Trade::getDeliveryDate);
+        DATE_FIELDS.put("excerciseStartDate", Trade::getExcerciseStartDate);
+
+        STRING_FIELDS.put("customer", Trade::getCustomer);
+        STRING_FIELDS.put("legalEntity", Trade::getLegalEntity);
+        STRING_FIELDS.put("style", Trade::getStyle);
+        STRING_FIELDS.put("direction", Trade::getDirection);
+        STRING_FIELDS.put("payCcy", Trade::getPayCcy);
+        STRING_FIELDS.put("premiumCcy", Trade::getPremiumCcy);
+    }
+
+    //[Touraj] :: Up to this many values a linear scan beats hashing the field value
+    private static final int MAX_SCANNED_VALUES = 8;
+
+    private RuleCompiler() {
+    }
+
+    static RuleSet compile(JSONArray definitions) {
+
+        List<List<RuleSet.Rule>> rulesByType = new ArrayList<>();
+        for (int t = 0; t < TradeType.values().length; t++) {
+            rulesByType.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < definitions.length(); i++) {
+
+            String name = "rule " + (i + 1);
+            try {
+                JSONObject definition = definitions.getJSONObject(i);
+                name = definition.optString("name", name);
+
+                RuleSet.Rule rule = new RuleSet.Rule(name,
+                        errorType(definition.getString("error")),
+                        definition.has("when") ? all(definition.getJSONArray("when")) : null,
+                        all(definition.getJSONArray("require")));
+
+                for (TradeType tradeType : types(definition.optJSONArray("types"))) {
+                    rulesByType.get(tradeType.ordinal()).add(rule);
+                }
+            } catch (JSONException | IllegalArgumentException e) {
+                throw new IllegalArgumentException(name + ": " + e.getMessage(), e);
+            }
+        }
+
+        RuleSet.Rule[][] rules = new RuleSet.Rule[rulesByType.size()][];
+        for (int t = 0; t < rules.length; t++) {
+            rules[t] = rulesByType.get(t).toArray(new RuleSet.Rule[0]);
+        }
+        return new RuleSet(rules, definitions.length());
+    }
+
+    private static Set<TradeType> types(JSONArray types) {
+
+        if (types == null) {
+            return EnumSet.allOf(TradeType.class);
+        }
+
+        Set<TradeType> tradeTypes = EnumSet.noneOf(TradeType.class);
+        for (int i = 0; i < types.length(); i++) {
+            tradeTypes.add(TradeType.valueOf(types.getString(i)));
+        }
+        return tradeTypes;
+    }
+
+    private static ErrorType errorType(String error) {
+        try {
+            return ErrorType.valueOf(error);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown error " + error);
+        }
+    }
+
+    /**
+     * @return a predicate that holds when every condition holds
+     */
+    private static Predicate<Trade> all(JSONArray conditions) {
+
+        if (conditions.length() == 0) {
+            throw new IllegalArgumentException("no condition");
+        }
+
+        List<Predicate<Trade>> predicates = new ArrayList<>();
+        for (int i = 0; i < conditions.length(); i++) {
+            predicates.add(condition(conditions.getJSONObject(i)));
+        }
+
+        switch (predicates.size()) {
+            case 1:
+                return predicates.get(0);
+            case 2: {
+                Predicate<Trade> first = predicates.get(0);
+                Predicate<Trade> second = predicates.get(1);
+                return trade -> first.test(trade) && second.test(trade);
+            }
+            default: {
+                @SuppressWarnings("unchecked")
+                Predicate<Trade>[] each = predicates.toArray(new Predicate[0]);
+                return trade -> {
+                    for (Predicate<Trade> predicate : each) {
+                        if (!predicate.test(trade)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+        }
+    }
+
+    private static Predicate<Trade> condition(JSONObject condition) {
+
+        if (condition.has("before")) {
+            return before(condition.getJSONArray("before"));
+        }
+        if (condition.has("in")) {
+            return in(condition.getString("field"), condition.getJSONArray("in"), condition.optBoolean("ignoreCase", false));
+        }
+        if (condition.has("not")) {
+            return condition(condition.getJSONObject("not")).negate();
+        }
+        throw new IllegalArgumentException("unknown condition " + condition);
+    }
+
+    private static Predicate<Trade> before(JSONArray fields) {
+
+        if (fields.length() < 2) {
+            throw new IllegalArgumentException("before needs at least two dates: " + fields);
+        }
+
+        List<ToIntFunction<Trade>> dates = new ArrayList<>();
+        for (int i = 0; i < fields.length(); i++) {
+            dates.add(dateField(fields.getString(i)));
+        }
+
+        if (dates.size() == 2) {
+            ToIntFunction<Trade> first = dates.get(0);
+            ToIntFunction<Trade> second = dates.get(1);
+            return trade -> Utility.checkBeforeDate(first.applyAsInt(trade), second.applyAsInt(trade));
+        }
+
+        @SuppressWarnings("unchecked")
+        ToIntFunction<Trade>[] each = dates.toArray(new ToIntFunction[0]);
+        return trade -> {
+            int previous = each[0].applyAsInt(trade);
+            for (int i = 1; i < each.length; i++) {
+                int next = each[i].applyAsInt(trade);
+                if (!Utility.checkBeforeDate(previous, next)) {
+                    return false;
+                }
+                previous = next;
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<Trade> in(String field, JSONArray values, boolean ignoreCase) {
+
+        Function<Trade, String> getter = STRING_FIELDS.get(field);
+        if (getter == null) {
+            throw new IllegalArgumentException("unknown field " + field + ", one of " + STRING_FIELDS.keySet());
+        }
+
+        String[] members = new String[values.length()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = values.getString(i);
+        }
+
+        if (members.length <= MAX_SCANNED_VALUES) {
+            if (ignoreCase) {
+                return trade -> {
+                    String value = getter.apply(trade);
+                    for (String member : members) {
+                        if (member.equalsIgnoreCase(value)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            return trade -> {
+                String value = getter.apply(trade);
+                for (String member : members) {
+                    if (member.equals(value)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        if (ignoreCase) {
+            Set<String> upperCase = new HashSet<>();
+            for (String member : members) {
+                upperCase.add(member.toUpperCase(Locale.ROOT));
+            }
+            return trade -> {
+                String value = getter.apply(trade);
+                return value != null && upperCase.contains(value.toUpperCase(Locale.ROOT));
+            };
+        }
+
+        Set<String> set = new HashSet<>(Arrays.asList(members));
+        return trade -> set.contains(getter.apply(trade));
+    }
+
+    private static ToIntFunction<Trade> dateField(String field) {
+        ToIntFunction<Trade> getter = DATE_FIELDS.get(field);
+        if (getter == null) {
+            throw new IllegalArgumentException("unknown date field " + field + ", one of " + DATE_FIELDS.keySet());
+        }
+        return getter;
+    }
+}
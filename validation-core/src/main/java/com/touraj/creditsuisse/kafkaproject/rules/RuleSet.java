@@ -0,0 +1,99 @@
+package com.touraj.creditsuisse.kafkaproject.rules;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+/**
+ * Immutable set of declarative rules, already compiled: per trade type, the rules that apply to
+ * it in file order, each one a predicate over the trade plus the error it reports. Nothing of the
+ * definition file is looked at while a trade is validated. See {@link RuleCompiler} for the format.
+ */
+public final class RuleSet {
+
+    public static final RuleSet EMPTY = new RuleSet(new Rule[TradeType.values().length][0], 0);
+
+    private final Rule[][] rulesByType;
+    private final int size;
+
+    RuleSet(Rule[][] rulesByType, int size) {
+        this.rulesByType = rulesByType;
+        this.size = size;
+    }
+
+    /**
+     * Runs every rule of the trade's type and reports each one that does not hold
+     *
+     * @return true if the trade passed all of them
+     */
+    public boolean validate(Trade trade, int tradeNumber, ValidationSink sink) {
+
+        boolean isValidationSuccessfull = true;
+
+        for (Rule rule : rulesByType[trade.getType().ordinal()]) {
+            if (!rule.holds(trade)) {
+                isValidationSuccessfull = false;
+                sink.reject(tradeNumber, rule.errorType);
+            }
+        }
+
+        return isValidationSuccessfull;
+    }
+
+    /**
+     * @return the number of rules in the definition, whatever the types they apply to
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the file is not a valid rule definition
+     */
+    public static RuleSet load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return RuleCompiler.compile(new JSONArray(new JSONTokener(reader)));
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when the definitions are not valid
+     */
+    public static RuleSet compile(JSONArray definitions) {
+        return RuleCompiler.compile(definitions);
+    }
+
+    static final class Rule {
+
+        final String name;
+        final ErrorType errorType;
+
+        //[Touraj] :: null when the rule has no "when" guard
+        private final Predicate<Trade> when;
+        private final Predicate<Trade> require;
+
+        Rule(String name, ErrorType errorType, Predicate<Trade> when, Predicate<Trade> require) {
+            this.name = name;
+            this.errorType = errorType;
+            this.when = when;
+            this.require = require;
+        }
+
+        boolean holds(Trade trade) {
+            return (when != null && !when.test(trade)) || require.test(trade);
+        }
+    }
+}
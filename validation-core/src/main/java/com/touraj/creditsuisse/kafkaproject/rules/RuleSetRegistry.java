@@ -0,0 +1,106 @@
+package com.touraj.creditsuisse.kafkaproject.rules;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current compiled {@link RuleSet}. A reload compiles the whole file before swapping the
+ * new set in atomically, so a trade is always checked against one complete rule set, old or new.
+ * With a reload interval the file is checked for changes in the background. A reload that fails,
+ * e.g. on a rule that does not compile, keeps the previous rule set.
+ */
+public class RuleSetRegistry implements Closeable {
+
+    private final Path file;
+
+    private final AtomicReference<RuleSet> ruleSet = new AtomicReference<>(RuleSet.EMPTY);
+    private long loadedSignature = 0;
+
+    private final ScheduledExecutorService reloader;
+
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param reloadIntervalSeconds 0 to only reload on {@link #reload()}
+     * @throws UncheckedIOException     when the file exists but can not be read
+     * @throws IllegalArgumentException when the file exists but its rules do not compile
+     */
+    public RuleSetRegistry(Path file, long reloadIntervalSeconds) {
+
+        this.file = file;
+
+        if (Files.isRegularFile(file)) {
+            try {
+                reload();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            System.out.printf("No rule file %s, no declarative rules are checked\n", file);
+        }
+
+        if (reloadIntervalSeconds > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rule-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            reloader = null;
+        }
+    }
+
+    public RuleSet getRuleSet() {
+        return ruleSet.get();
+    }
+
+    public synchronized void reload() throws IOException {
+        long signature = signature();
+        RuleSet loaded = RuleSet.load(file);
+        ruleSet.set(loaded);
+        loadedSignature = signature;
+        System.out.printf("%d rules compiled from %s\n", loaded.size(), file);
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    private synchronized void reloadIfChanged() {
+        try {
+            if (Files.isRegularFile(file) && signature() != loadedSignature) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            //[Touraj] :: Keep validating with the rules we have, retry on the next check
+            System.out.printf("Rules not reloaded from %s: %s\n", file, e);
+        }
+    }
+
+    private long signature() throws IOException {
+        return 31L * Files.getLastModifiedTime(file).toMillis() + Files.size(file);
+    }
+
+    /**
+     * Called after every successful reload, on the reloading thread
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.touraj.creditsuisse.kafkaproject.tcp;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blocking client of a {@link TcpValidationServer}. Trades are buffered by {@link #send} and go out
+ * on {@link #flush()}, so many of them can be pipelined before the first {@link #receive}.
+ * The server stops reading while its responses are not read, so a pipeline must not be longer
+ * than its responses fit in the socket buffers, some thousands of trades. Not thread-safe; use one
+ * client per thread.
+ */
+public class TcpValidationClient implements Closeable {
+
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+    private final SocketChannel channel;
+    private ByteBuffer out = ByteBuffer.allocate(1 << 16);
+    private final ByteBuffer in = ByteBuffer.allocate(1 << 16);
+
+    public TcpValidationClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.in.flip();
+    }
+
+    /**
+     * Queues the trade in the binary encoding
+     */
+    public void send(JSONObject trade) throws IOException {
+        ensureRoom(4 + BinaryTradeFormat.MIN_RECORD_LENGTH + 5 * 256);
+        int start = out.position();
+        out.position(start + 4);
+        BinaryTradeFormat.encode(trade, out);
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Queues the trade as JSON, e.g. for fields the binary encoding does not carry
+     */
+    public void sendJson(JSONObject trade) throws IOException {
+        byte[] json = trade.toString().getBytes(StandardCharsets.UTF_8);
+        ensureRoom(4 + json.length);
+        out.putInt(json.length);
+        out.put(json);
+    }
+
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Blocks for the next response and reports its rejections to sink
+     *
+     * @return the trade number of the response, counted per connection from 1
+     */
+    public int receive(ValidationSink sink) throws IOException {
+
+        fill(4);
+        int length = in.getInt();
+        fill(length);
+        int tradeNumber = in.getInt();
+        for (int i = 4; i < length; i++) {
+            sink.reject(tradeNumber, ERROR_TYPES[in.get()]);
+        }
+        return tradeNumber;
+    }
+
+    private void fill(int bytes) throws IOException {
+        while (in.remaining() < bytes) {
+            in.compact();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+        }
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            flush();
+        }
+        if (out.remaining() < bytes) {
+            out = ByteBuffer.allocate(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,414 @@
+package com.touraj.creditsuisse.kafkaproject.tcp;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTrade;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.journal.RejectionJournal;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Validation over plain TCP, next to the REST API, for callers to whom an HTTP request per batch
+ * costs more than the validation. A client keeps its connection open and writes trade frames back
+ * to back without waiting; every frame is answered, in order, on the same connection. A frame is
+ * an int length followed by a {@link BinaryTradeFormat} record body, or by one JSON trade in UTF-8
+ * when it starts with '{'; a binary batch as posted to /validatetrades is a valid stream of frames.
+ * A response is:
+ * <pre>
+ *  int  length of the rest
+ *  int  trade number, counted per connection from 1
+ *  byte ErrorType ordinal of each rejection, in reporting order (none for a valid trade)
+ * </pre>
+ * A frame that is not a readable trade gets TradeNotParsable, a JSON nested too deep for the parser
+ * included; a length out of bounds closes the connection. Connections are spread over a few event loop threads, which also run the chain, so
+ * a trade is validated as soon as its frame is complete and is never handed between threads. A
+ * connection is not read from while its responses can not be written, so a client that stops
+ * reading is slowed down by TCP flow control instead of filling the server's memory.
+ */
+public class TcpValidationServer implements Closeable {
+
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+    private static final int FRAME_HEADER = 4;
+    private static final int RESPONSE_HEADER = 8;
+
+    //[Touraj] :: Responses are flushed once this much is pending, before more frames are read
+    private static final int OUTPUT_CAPACITY = 1 << 16;
+
+    private final ChainofValidators chainofValidators;
+    private final ValidationMetrics metrics;
+    private final RejectionJournal rejectionJournal;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private int nextEventLoop = 0;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param rejectionJournal null to not journal rejections; each connection is journaled under its own request id
+     * @param port             0 for any free port, see {@link #getPort()}
+     * @param threads          event loops
+     */
+    public TcpValidationServer(ChainofValidators chainofValidators, RejectionJournal rejectionJournal, int port,
+                               int threads) throws IOException {
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+
+        this.chainofValidators = chainofValidators;
+        this.metrics = chainofValidators.getMetrics();
+        this.rejectionJournal = rejectionJournal;
+
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port));
+        this.serverChannel.configureBlocking(false);
+
+        this.eventLoops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            eventLoops[i] = new EventLoop(i);
+        }
+        serverChannel.register(eventLoops[0].selector, SelectionKey.OP_ACCEPT);
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.thread.start();
+        }
+
+        System.out.printf("TCP validation server listening on port %d with %d event loops\n", getPort(), threads);
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    @Override
+    public void close() {
+
+        running = false;
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.selector.wakeup();
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            try {
+                eventLoop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            System.out.printf("TCP validation server did not close cleanly: %s\n", e);
+        }
+    }
+
+    private void accept() throws IOException {
+
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            EventLoop eventLoop = nextEventLoop();
+            if (eventLoop == null) {
+                channel.close();
+                continue;
+            }
+            eventLoop.newConnections.add(channel);
+            eventLoop.selector.wakeup();
+        }
+    }
+
+    /**
+     * @return the next event loop still running, a loop stopped by a fatal error would never serve its connections
+     */
+    private EventLoop nextEventLoop() {
+        for (int i = 0; i < eventLoops.length; i++) {
+            EventLoop eventLoop = eventLoops[nextEventLoop];
+            nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+            if (eventLoop.thread.isAlive()) {
+                return eventLoop;
+            }
+        }
+        return null;
+    }
+
+    private final class EventLoop implements Runnable {
+
+        final Selector selector;
+        final Queue<SocketChannel> newConnections = new ConcurrentLinkedQueue<>();
+        final Thread thread;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "tcp-validation-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+
+                    SocketChannel channel;
+                    while ((channel = newConnections.poll()) != null) {
+                        register(channel);
+                    }
+
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            try {
+                                accept();
+                            } catch (IOException e) {
+                                //[Touraj] :: e.g. out of file descriptors, the next connection may get through
+                                System.out.printf("TCP validation connection not accepted: %s\n", e);
+                            }
+                            continue;
+                        }
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            } else if (key.isWritable()) {
+                                connection.serve();
+                            }
+                        } catch (IOException | RuntimeException | StackOverflowError e) {
+                            closeFailed(connection, e);
+                        } catch (VirtualMachineError e) {
+                            throw e;
+                        } catch (Error e) {
+                            //[Touraj] :: Only this connection is lost, the others of the loop go on
+                            closeFailed(connection, e);
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                System.out.printf("TCP validation event loop %s stopped: %s\n", thread.getName(), e);
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection) {
+                        ((Connection) key.attachment()).close();
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    System.out.printf("TCP validation event loop %s did not close cleanly: %s\n", thread.getName(), e);
+                }
+            }
+        }
+
+        private void closeFailed(Connection connection, Throwable e) {
+            System.out.printf("TCP validation connection %s closed: %s\n", connection.remote, e);
+            connection.close();
+        }
+
+        private void register(SocketChannel channel) {
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                Connection connection = new Connection(channel, key);
+                key.attach(connection);
+                System.out.printf("TCP validation connection %s journaled under request id %d\n",
+                        connection.remote, connection.requestId);
+            } catch (IOException e) {
+                System.out.printf("TCP validation connection not registered: %s\n", e);
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    //[Touraj] :: Nothing was sent on it yet
+                }
+            }
+        }
+    }
+
+    private final class Connection implements ValidationSink {
+
+        final SocketChannel channel;
+        final SelectionKey key;
+        final Object remote;
+        final long requestId;
+
+        //[Touraj] :: Always room for one whole frame
+        final ByteBuffer in = ByteBuffer.allocate(FRAME_HEADER + BinaryTradeFormat.MAX_RECORD_LENGTH);
+        //[Touraj] :: Same bytes as in, its limit is moved to the end of each binary frame so a trade can not read past it
+        final ByteBuffer frame = in.duplicate();
+        final BinaryTrade binaryTrade = new BinaryTrade();
+
+        ByteBuffer out = ByteBuffer.allocate(OUTPUT_CAPACITY + 256);
+
+        int tradeNumber = 0;
+        long readNanos;
+        int unanswered = 0;
+
+        Connection(SocketChannel channel, SelectionKey key) throws IOException {
+            this.channel = channel;
+            this.key = key;
+            this.remote = channel.getRemoteAddress();
+            this.requestId = rejectionJournal == null ? 0 : rejectionJournal.nextRequestId();
+        }
+
+        void read() throws IOException {
+
+            int read = channel.read(in);
+            if (read < 0) {
+                close();
+                return;
+            }
+            readNanos = System.nanoTime();
+            serve();
+        }
+
+        /**
+         * Answers every complete frame, as long as the responses can be written
+         */
+        void serve() throws IOException {
+
+            while (true) {
+                if (!flush()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (!validateFrames()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return false when there was no complete frame
+         */
+        private boolean validateFrames() throws IOException {
+
+            in.flip();
+            int frames = 0;
+            try {
+                while (in.remaining() >= FRAME_HEADER && out.position() < OUTPUT_CAPACITY) {
+
+                    int length = in.getInt(in.position());
+                    if (length < 1 || length > BinaryTradeFormat.MAX_RECORD_LENGTH) {
+                        throw new IOException("Invalid frame length " + length);
+                    }
+                    if (in.remaining() < FRAME_HEADER + length) {
+                        break;
+                    }
+
+                    int start = in.position() + FRAME_HEADER;
+                    validate(start, length);
+                    in.position(start + length);
+                    frames++;
+                }
+            } finally {
+                in.compact();
+            }
+            unanswered += frames;
+            return frames > 0;
+        }
+
+        private void validate(int start, int length) {
+
+            int responseStart = out.position();
+            int number = ++tradeNumber;
+            out.position(responseStart + RESPONSE_HEADER);
+
+            try {
+                chainofValidators.validateTrade(trade(start, length), number, this);
+            } catch (RuntimeException | StackOverflowError e) {
+                //[Touraj] :: Drop whatever the chain reported before it failed, as in Kafka mode. A deeply
+                //[Touraj] :: nested JSON frame overflows the parser's stack, which unwinds like any other failure
+                out.position(responseStart + RESPONSE_HEADER);
+                reject(number, ErrorType.TradeNotParsable);
+            }
+
+            out.putInt(responseStart, out.position() - responseStart - FRAME_HEADER);
+            out.putInt(responseStart + FRAME_HEADER, number);
+
+            if (rejectionJournal != null) {
+                for (int i = responseStart + RESPONSE_HEADER; i < out.position(); i++) {
+                    rejectionJournal.publish(requestId, number, ERROR_TYPES[out.get(i)]);
+                }
+            }
+        }
+
+        private Trade trade(int start, int length) {
+
+            if (in.get(start) == '{') {
+                return new JsonTrade(new JSONObject(new String(in.array(), start, length, StandardCharsets.UTF_8)));
+            }
+            if (length < BinaryTradeFormat.MIN_RECORD_LENGTH) {
+                throw new IllegalArgumentException("Binary trade record too short: " + length);
+            }
+            frame.limit(start + length);
+            return binaryTrade.wrap(frame, start);
+        }
+
+        @Override
+        public void reject(int tradeNumber, ErrorType errorType) {
+            if (!out.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(out.capacity() * 2);
+                out.flip();
+                out = bigger.put(out);
+            }
+            out.put((byte) errorType.ordinal());
+        }
+
+        /**
+         * @return true when every response was written
+         */
+        private boolean flush() throws IOException {
+
+            if (out.position() == 0) {
+                return true;
+            }
+
+            out.flip();
+            channel.write(out);
+            boolean flushed = !out.hasRemaining();
+            out.compact();
+
+            if (flushed && metrics != null) {
+                long nanos = System.nanoTime() - readNanos;
+                for (int i = 0; i < unanswered; i++) {
+                    metrics.recordTcpFrame(nanos);
+                }
+            }
+            if (flushed) {
+                unanswered = 0;
+            }
+            return flushed;
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.printf("TCP validation connection %s did not close cleanly: %s\n", remote, e);
+            }
+        }
+    }
+}
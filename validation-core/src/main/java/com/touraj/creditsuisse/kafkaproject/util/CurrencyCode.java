@@ -0,0 +1,72 @@
+package com.touraj.creditsuisse.kafkaproject.util;
+
+/**
+ * Three-letter currency codes packed into 15 bits (5 bits per letter A-Z), so a code fits in a
+ * short and can index a 32768-entry table directly. 0 means "not three upper-case letters".
+ */
+public final class CurrencyCode {
+
+    public static final int NONE = 0;
+    public static final int TABLE_SIZE = 1 << 15;
+
+    private static final String[] NAMES = new String[TABLE_SIZE];
+
+    private CurrencyCode() {
+    }
+
+    public static int pack(CharSequence code) {
+        if (code == null || code.length() != 3) {
+            return NONE;
+        }
+        return pack(code, 0);
+    }
+
+    /**
+     * Packs the three characters starting at offset, e.g. the quote currency of a ccyPair at offset 3
+     */
+    public static int pack(CharSequence s, int offset) {
+
+        if (s == null || offset < 0 || s.length() < offset + 3) {
+            return NONE;
+        }
+
+        int packed = 0;
+        for (int i = offset; i < offset + 3; i++) {
+            int letter = s.charAt(i) - 'A';
+            if (letter < 0 || letter > 25) {
+                return NONE;
+            }
+            //[Touraj] :: +1 so that "AAA" does not pack to NONE
+            packed = (packed << 5) | (letter + 1);
+        }
+        return packed;
+    }
+
+    /**
+     * @return the code as a String; cached per code, so it only allocates the first time
+     */
+    public static String toString(int packed) {
+
+        if (packed <= NONE || packed >= TABLE_SIZE) {
+            return "";
+        }
+
+        String name = NAMES[packed];
+        if (name == null) {
+            char[] letters = new char[3];
+            int rest = packed;
+            for (int i = 2; i >= 0; i--) {
+                int letter = rest & 31;
+                if (letter < 1 || letter > 26) {
+                    return "";
+                }
+                letters[i] = (char) ('A' + letter - 1);
+                rest >>>= 5;
+            }
+            //[Touraj] :: Benign race, at worst two threads build the same String
+            name = new String(letters);
+            NAMES[packed] = name;
+        }
+        return name;
+    }
+}
@@ -0,0 +1,36 @@
+package com.touraj.creditsuisse.kafkaproject.util;
+
+import java.util.Currency;
+
+/**
+ * ISO 4217 membership as a bitset over every packed {@link CurrencyCode}, built once from the
+ * JDK currency data. A lookup never throws and never allocates, whatever the input.
+ */
+public final class CurrencyRegistry {
+
+    private static final long[] ISO4217 = new long[CurrencyCode.TABLE_SIZE >>> 6];
+
+    static {
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            int packed = CurrencyCode.pack(currency.getCurrencyCode());
+            if (packed != CurrencyCode.NONE) {
+                ISO4217[packed >>> 6] |= 1L << packed;
+            }
+        }
+    }
+
+    private CurrencyRegistry() {
+    }
+
+    /**
+     * @param packed a code from {@link CurrencyCode#pack}
+     */
+    public static boolean isValid(int packed) {
+        return packed > CurrencyCode.NONE && packed < CurrencyCode.TABLE_SIZE
+                && (ISO4217[packed >>> 6] & (1L << packed)) != 0;
+    }
+
+    public static boolean isValid(CharSequence code) {
+        return isValid(CurrencyCode.pack(code));
+    }
+}
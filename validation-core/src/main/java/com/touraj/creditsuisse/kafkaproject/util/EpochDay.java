@@ -0,0 +1,101 @@
+package com.touraj.creditsuisse.kafkaproject.util;
+
+import java.time.LocalDate;
+
+/**
+ * yyyy-MM-dd dates as primitive epoch-days (days since 1970-01-01), parsed without allocating
+ * so date checks become plain int comparisons.
+ */
+public final class EpochDay {
+
+    /**
+     * Returned for anything that is not a real yyyy-MM-dd date
+     */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    private EpochDay() {
+    }
+
+    public static int parse(CharSequence date) {
+
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return INVALID;
+        }
+
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+
+        return of(year, month, day);
+    }
+
+    public static int of(int year, int month, int day) {
+
+        //[Touraj] :: Same arithmetic as LocalDate.toEpochDay, restricted to years 0000-9999
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * @return ISO day of week, 1 (Monday) to 7 (Sunday)
+     */
+    public static int dayOfWeek(int epochDay) {
+        //[Touraj] :: 1970-01-01 was a Thursday
+        return Math.floorMod(epochDay + 3, 7) + 1;
+    }
+
+    public static boolean isWeekend(int epochDay) {
+        return epochDay != INVALID && dayOfWeek(epochDay) >= 6;
+    }
+
+    /**
+     * Only meant for log and error messages, it allocates.
+     */
+    public static String toString(int epochDay) {
+        return epochDay == INVALID ? "invalid" : LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    private static int digits(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.touraj.creditsuisse.kafkaproject.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Seeded 64-bit hashes (FNV-1a followed by the MurmurHash3 finalizer) used for content keys.
+ * Two different seeds give two independent hashes of the same input.
+ */
+public final class Hashing {
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    public static long hash(CharSequence s, long seed) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return mix(h ^ s.length());
+    }
+
+    public static long hash(ByteBuffer buffer, int from, int to, long seed) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            h = (h ^ (buffer.get(i) & 0xFF)) * FNV_PRIME;
+        }
+        return mix(h ^ (to - from));
+    }
+
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb3f9fe1a85ecL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,42 @@
+package com.touraj.creditsuisse.kafkaproject.util;
+
+/**
+ * Created by toraj on 06/08/2017.
+ */
+public class Utility {
+
+    public static boolean checkBeforeDate(String firstDate, String secondDate) {
+        return checkBeforeDate(EpochDay.parse(firstDate), EpochDay.parse(secondDate));
+    }
+
+    /**
+     * @param firstDate  epoch-day, see {@link EpochDay}
+     * @param secondDate epoch-day, see {@link EpochDay}
+     * @return true if firstDate is strictly before secondDate, false if either of them is invalid
+     */
+    public static boolean checkBeforeDate(int firstDate, int secondDate) {
+        return firstDate != EpochDay.INVALID && secondDate != EpochDay.INVALID && firstDate < secondDate;
+    }
+
+    /**
+     * @return false for {@link EpochDay#INVALID}, i.e. a date that is not a real yyyy-MM-dd date
+     */
+    public static boolean isValidDate(int epochDay) {
+        return epochDay != EpochDay.INVALID;
+    }
+
+    public static boolean isDateFallinWeekend(String firstDate) {
+        return isDateFallinWeekend(EpochDay.parse(firstDate));
+    }
+
+    public static boolean isDateFallinWeekend(int epochDay) {
+        return EpochDay.isWeekend(epochDay);
+    }
+
+    /**
+     * @return false for null, malformed and unknown codes alike, without throwing
+     */
+    public static boolean isValidCurrencyISO4217(String currency) {
+        return CurrencyRegistry.isValid(currency);
+    }
+}
@@ -0,0 +1,374 @@
+package com.touraj.creditsuisse.kafkaproject.Validator;
+
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+public class ValidatorTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Validator validator = new Validator(new ChainofValidators());
+
+	@Test
+	public void testBeforeDateValidator() {
+
+		String tradeJson = "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}, \n";
+
+		JSONArray validationMessages = new JSONArray();
+		BeforeDateValidator bdv = new BeforeDateValidator();
+
+		try {
+			JSONObject jo = new JSONObject(tradeJson);
+
+			boolean result = bdv.processValidation(new JsonTrade(jo), 1, new JSONArraySink(validationMessages));
+
+			Assert.assertTrue(result);
+
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+
+	}
+
+	@Test
+	public void testWeekendValidator() {
+
+		String tradeJson = "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}, \n";
+
+		JSONArray validationMessages = new JSONArray();
+		WeekendValidator wv = new WeekendValidator();
+
+		boolean result = false;
+		
+		try {
+			JSONObject jsonObject = new JSONObject(tradeJson);
+
+			result = wv.processValidation(new JsonTrade(jsonObject), 1, new JSONArraySink(validationMessages));
+
+
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+			Assert.assertTrue(result);
+
+	}
+
+	@Test
+	public void testCustomerValidator() {
+
+		String tradeJson = "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}, \n";
+
+		JSONArray validationMessages = new JSONArray();
+		CustomerValidator cv = new CustomerValidator();
+		boolean result = false;
+		try {
+			JSONObject jsonObject = new JSONObject(tradeJson);
+
+			result = cv.processValidation(new JsonTrade(jsonObject), 1, new JSONArraySink(validationMessages));
+
+
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+
+		Assert.assertTrue(result);
+
+	}
+
+	@Test
+	public void testCustomerValidator2() {
+
+		String tradeJson = "{\"customer\":\"Touraj\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}, \n";
+
+		JSONArray validationMessages = new JSONArray();
+		CustomerValidator cv = new CustomerValidator();
+		boolean result = false;
+		try {
+			JSONObject jsonObject = new JSONObject(tradeJson);
+
+			result = cv.processValidation(new JsonTrade(jsonObject), 1, new JSONArraySink(validationMessages));
+
+
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		System.out.println("Validation Message : "  + validationMessages.toString());
+
+		Assert.assertEquals(false, result);
+		Assert.assertEquals("[{\"ErrorType\":\"CustomerNotValid\",\"TradeNumber\":1}]", validationMessages.toString());
+
+	}
+
+	@Test
+	public void testStreamingValidationMatchesArrayValidation() {
+
+		String trades = "[{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"},\n" +
+				"{\"customer\":\"PLUTO3\",\"ccyPair\":\"EURUSD\",\"type\":\"Forward\",\"direction\":\"SELL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-06\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}]";
+
+		JSONArray arrayMessages = new JSONArray();
+		validator.startValidation(trades, new JSONArraySink(arrayMessages));
+
+		JSONArray streamMessages = new JSONArray();
+		validator.startValidation(new ByteArrayInputStream(trades.getBytes(StandardCharsets.UTF_8)), new JSONArraySink(streamMessages));
+
+		Assert.assertEquals(3, arrayMessages.length());
+		Assert.assertEquals(arrayMessages.toString(), streamMessages.toString());
+
+	}
+
+	@Test
+	public void testChainPlansPerTradeType() {
+
+		ChainofValidators chain = new ChainofValidators();
+
+		Assert.assertEquals(4, chain.getPlan(TradeType.Spot).size());
+		Assert.assertEquals(4, chain.getPlan(TradeType.Forward).size());
+		Assert.assertEquals(5, chain.getPlan(TradeType.VanillaOption).size());
+		Assert.assertEquals(1, chain.getPlan(TradeType.UNKNOWN).size());
+
+		JSONArray validationMessages = new JSONArray();
+		chain.executeChain(new JSONArray("[{\"customer\":\"PLUTO1\",\"type\":\"Swap\"},{\"customer\":\"PLUTO1\"}]"),
+				new JSONArraySink(validationMessages));
+
+		Assert.assertEquals("[{\"ErrorType\":\"TradeTypeNotValid\",\"TradeNumber\":1},{\"ErrorType\":\"TradeTypeNotValid\",\"TradeNumber\":2}]",
+				validationMessages.toString());
+
+	}
+
+	@Test
+	public void testParallelChainKeepsTradeNumberOrder() {
+
+		JSONArray trades = new JSONArray();
+		for (int i = 0; i < 500; i++) {
+			JSONObject trade = new JSONObject();
+			trade.put("customer", i % 3 == 0 ? "PLUTO3" : "PLUTO1");
+			trade.put("type", i % 2 == 0 ? "Spot" : "Forward");
+			trade.put("ccyPair", "EURUSD");
+			trade.put("tradeDate", "2016-08-11");
+			trade.put("valueDate", i % 5 == 0 ? "2016-08-13" : "2016-08-15");
+			trades.put(trade);
+		}
+
+		ChainofValidators chain = new ChainofValidators();
+
+		JSONArray sequentialMessages = new JSONArray();
+		chain.executeChain(trades, new JSONArraySink(sequentialMessages));
+
+		JSONArray parallelMessages = new JSONArray();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			new ParallelChainExecutor(chain, pool, 7).executeChain(trades, new JSONArraySink(parallelMessages));
+		} finally {
+			pool.shutdown();
+		}
+
+		Assert.assertEquals(267, sequentialMessages.length());
+		Assert.assertEquals(sequentialMessages.toString(), parallelMessages.toString());
+
+	}
+
+	@Test
+	public void testFailFastReportsFirstRejectionOnly() {
+
+		JSONArray trades = new TradeGenerator(7, "mixed", 0.5).batch(300);
+		//[Touraj] :: Bad customer and weekend value date, two rejections in full mode
+		trades.put(new TradeGenerator(7, "spot", 0).spotOrForward("Spot", "2016-08-20", ErrorType.CustomerNotValid));
+		trades.put(new JSONObject("{\"customer\":\"PLUTO1\",\"type\":\"Swap\"}"));
+
+		ChainofValidators chain = new ChainofValidators();
+
+		RejectionBuffer full = new RejectionBuffer();
+		chain.executeChain(trades, full);
+		RejectionBuffer failFast = new RejectionBuffer();
+		chain.failFast().executeChain(trades, failFast);
+
+		java.util.Set<Integer> rejectedTrades = new java.util.TreeSet<>();
+		for (int i = 0; i < full.size(); i++) {
+			rejectedTrades.add(full.getTradeNumber(i));
+		}
+
+		Assert.assertTrue(full.size() > rejectedTrades.size());
+		Assert.assertEquals(rejectedTrades.size(), failFast.size());
+		for (int i = 0; i < failFast.size(); i++) {
+			Assert.assertTrue(rejectedTrades.contains(failFast.getTradeNumber(i)));
+		}
+		Assert.assertEquals(ErrorType.TradeTypeNotValid, failFast.getErrorType(failFast.size() - 1));
+		Assert.assertSame(validator.failFast(), validator.failFast().failFast());
+
+	}
+
+	@Test
+	public void testFailFastRunsSelectiveValidatorFirst() {
+
+		ChainofValidators chain = new ChainofValidators();
+		Assert.assertTrue(chain.getFailFastOrder(TradeType.Spot).get(0) instanceof BeforeDateValidator);
+
+		//[Touraj] :: Half the trades have an unknown customer, nothing else is ever wrong
+		TradeGenerator generator = new TradeGenerator(11, "spot", 0);
+		RejectionBuffer sink = new RejectionBuffer();
+		for (int i = 0; i < 60000; i++) {
+			JSONObject trade = generator.spotOrForward("Spot", "2016-08-15", i % 2 == 0 ? ErrorType.CustomerNotValid : null);
+			chain.failFast().validateTrade(new JsonTrade(trade), i + 1, sink);
+		}
+
+		Assert.assertEquals(30000, sink.size());
+		Assert.assertTrue(chain.getFailFastOrder(TradeType.Spot).get(0) instanceof CustomerValidator);
+		Assert.assertEquals(4, chain.getFailFastOrder(TradeType.Spot).size());
+		Assert.assertTrue(chain.getPlan(TradeType.Spot).get(0) instanceof BeforeDateValidator);
+
+	}
+
+	@Test
+	public void testMalformedDatesAreRejected() {
+
+		JSONObject spot = new JSONObject("{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}");
+		JSONObject option = new JSONObject("{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"VanillaOption\",\"style\":\"american\",\"direction\":\"BUY\",\"strategy\":\"CALL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"deliveryDate\":\"2016-08-22\",\"expiryDate\":\"2016-08-19\",\"excerciseStartDate\":\"2016-08-12\",\"payCcy\":\"USD\",\"premium\":0.20,\"premiumCcy\":\"USD\",\"premiumType\":\"%USD\",\"premiumDate\":\"2016-08-12\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}");
+
+		JSONArray trades = new JSONArray()
+				.put(spot)
+				.put(new JSONObject(spot.toString()).put("valueDate", "2016-8-15"))
+				.put(new JSONObject(spot.toString()).put("tradeDate", "11/08/2016"))
+				.put(option)
+				.put(new JSONObject(option.toString()).put("tradeDate", "2016-8-11"))
+				.put(new JSONObject(option.toString()).put("premiumDate", "soon"));
+
+		ChainofValidators chain = new ChainofValidators();
+		RejectionBuffer rejections = new RejectionBuffer();
+		new Validator(chain).startValidation(trades, rejections);
+
+		Assert.assertEquals(4, rejections.size());
+		Assert.assertEquals(2, rejections.getTradeNumber(0));
+		Assert.assertEquals(ErrorType.valueDateNotbeforeTradeDate, rejections.getErrorType(0));
+		Assert.assertEquals(3, rejections.getTradeNumber(1));
+		Assert.assertEquals(ErrorType.valueDateNotbeforeTradeDate, rejections.getErrorType(1));
+		Assert.assertEquals(5, rejections.getTradeNumber(2));
+		Assert.assertEquals(ErrorType.InvalidExcerciseStartDate, rejections.getErrorType(2));
+		Assert.assertEquals(6, rejections.getTradeNumber(3));
+		Assert.assertEquals(ErrorType.InvalidExpiryAndPrimiumDate, rejections.getErrorType(3));
+
+		//[Touraj] :: Same rejections from the columnar engine
+		RejectionBuffer columnar = new RejectionBuffer();
+		new com.touraj.creditsuisse.kafkaproject.columnar.ColumnarValidator(chain).executeChain(trades, columnar);
+		Assert.assertEquals(rejections.size(), columnar.size());
+		for (int i = 0; i < rejections.size(); i++) {
+			Assert.assertEquals(rejections.getTradeNumber(i), columnar.getTradeNumber(i));
+			Assert.assertEquals(rejections.getErrorType(i), columnar.getErrorType(i));
+		}
+
+	}
+
+	@Test
+	public void testEngineWithDefaultsUsesReferenceData() {
+
+		long start = System.nanoTime();
+		try (ValidationEngine engine = new ValidationEngine()) {
+			System.out.printf("Validation engine built in %.1f ms\n", (System.nanoTime() - start) / 1e6);
+			//[Touraj] :: Opt-in only
+			Assert.assertNull(engine.getResultCache());
+		}
+
+		java.util.Properties settings = new java.util.Properties();
+		settings.setProperty("validation.cache.enabled", "true");
+		try (ValidationEngine engine = new ValidationEngine(settings)) {
+
+			//[Touraj] :: The holiday and legal entity errors are only found with ./calendars and ./counterparties.csv
+			JSONArray trades = new TradeGenerator(5, 1.0 / 3, 1.0 / 3, 0.5, TradeGenerator.VALIDATOR_ERRORS).batch(2000);
+			RejectionBuffer rejections = new RejectionBuffer();
+			engine.getValidator().startValidation(trades, rejections);
+
+			java.util.Set<ErrorType> found = java.util.EnumSet.noneOf(ErrorType.class);
+			for (int i = 0; i < rejections.size(); i++) {
+				found.add(rejections.getErrorType(i));
+			}
+			Assert.assertEquals(TradeGenerator.VALIDATOR_ERRORS, found);
+
+			//[Touraj] :: Resubmitted, every trade comes from the result cache (some already did, the generator repeats itself)
+			RejectionBuffer resubmitted = new RejectionBuffer();
+			engine.getValidator().startValidation(trades, resubmitted);
+			Assert.assertEquals(rejections.size(), resubmitted.size());
+			Assert.assertTrue((Long) engine.getResultCache().stats().get("hits") >= 2000);
+			Assert.assertEquals(4000L, ((java.util.Map<?, ?>) engine.getMetrics().snapshot().get("trades")).get("total"));
+		}
+
+	}
+
+	@Test
+	public void testEngineReadsPropertiesFile() throws Exception {
+
+		java.nio.file.Path file = folder.newFile("application.properties").toPath();
+		java.nio.file.Files.write(file, java.util.Arrays.asList(
+				"validation.cache.enabled=false",
+				"validation.calendar.reload-interval-seconds=0",
+				"validation.counterparty.reload-interval-seconds=0",
+				"validation.duplicates.enabled=true",
+				"validation.exposure.enabled=true",
+				"validation.exposure.limits.PLUTO1=1500000"));
+
+		try (ValidationEngine engine = ValidationEngine.load(file)) {
+
+			Assert.assertNull(engine.getResultCache());
+
+			JSONObject trade = new TradeGenerator(3, "spot", 0).spotOrForward("Spot", "2016-08-15", null);
+			trade.put("customer", "PLUTO1");
+			trade.put("amount1", 1000000.00);
+			JSONArray trades = new JSONArray().put(trade)
+					.put(new JSONObject(trade.toString()).put("amount1", 600000.00))
+					.put(new JSONObject(trade.toString()));
+
+			RejectionBuffer rejections = new RejectionBuffer();
+			engine.getValidator().startValidation(trades, rejections);
+
+			Assert.assertEquals(2, rejections.size());
+			Assert.assertEquals(2, rejections.getTradeNumber(0));
+			Assert.assertEquals(ErrorType.ExposureLimitExceeded, rejections.getErrorType(0));
+			Assert.assertEquals(3, rejections.getTradeNumber(1));
+			Assert.assertEquals(ErrorType.DuplicateTrade, rejections.getErrorType(1));
+		}
+
+	}
+
+	@Test
+	public void testColumnarEngineWithCrossTradeChecks() {
+
+		java.util.Properties settings = new java.util.Properties();
+		settings.setProperty("validation.calendar.reload-interval-seconds", "0");
+		settings.setProperty("validation.counterparty.reload-interval-seconds", "0");
+		settings.setProperty("validation.columnar.enabled", "true");
+		settings.setProperty("validation.duplicates.enabled", "true");
+		settings.setProperty("validation.exposure.enabled", "true");
+		settings.setProperty("validation.exposure.limits.PLUTO1", "1500000");
+
+		//[Touraj] :: The columnar engine has no rule for them, the row chain validates instead
+		try (ValidationEngine engine = new ValidationEngine(settings)) {
+
+			JSONObject trade = new TradeGenerator(3, "spot", 0).spotOrForward("Spot", "2016-08-15", null);
+			trade.put("customer", "PLUTO1");
+			trade.put("amount1", 1000000.00);
+			JSONArray trades = new JSONArray().put(trade)
+					.put(new JSONObject(trade.toString()).put("amount1", 600000.00))
+					.put(new JSONObject(trade.toString()))
+					.put(new JSONObject(trade.toString()).put("valueDate", "2016-08-13"));
+
+			RejectionBuffer rejections = new RejectionBuffer();
+			engine.getValidator().startValidation(trades, rejections);
+
+			Assert.assertEquals(3, rejections.size());
+			Assert.assertEquals(ErrorType.ExposureLimitExceeded, rejections.getErrorType(0));
+			Assert.assertEquals(ErrorType.DuplicateTrade, rejections.getErrorType(1));
+			Assert.assertEquals(ErrorType.valueDateFallinWeekend, rejections.getErrorType(2));
+		}
+
+	}
+
+}
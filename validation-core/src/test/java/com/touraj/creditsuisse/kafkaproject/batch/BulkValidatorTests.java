@@ -0,0 +1,69 @@
+package com.touraj.creditsuisse.kafkaproject.batch;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class BulkValidatorTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRegionsGiveSameResultsAsSequentialChain() throws Exception {
+
+        ChainofValidators chain = new ChainofValidators();
+        RejectionBuffer expected = new RejectionBuffer();
+        StringBuilder file = new StringBuilder();
+
+        for (int i = 1; i <= 300; i++) {
+            JSONObject trade = new JSONObject();
+            trade.put("customer", i % 7 == 0 ? "PLUTO9" : "PLUTO2");
+            trade.put("type", "Spot");
+            trade.put("tradeDate", "2016-08-11");
+            trade.put("valueDate", i % 4 == 0 ? "2016-08-14" : "2016-08-15");
+            file.append(trade).append(i % 2 == 0 ? "\r\n" : "\n");
+            chain.validateTrade(trade, i, expected);
+        }
+        file.append("{not a trade}\n");
+        expected.reject(301, ErrorType.TradeNotParsable);
+
+        Path input = folder.newFile("trades.ndjson").toPath();
+        Path output = folder.newFile("rejections.ndjson").toPath();
+        Files.write(input, file.toString().getBytes(StandardCharsets.UTF_8));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BulkValidationReport report;
+        try {
+            report = new BulkValidator(chain, pool, 500).validate(input, output);
+        } finally {
+            pool.shutdown();
+        }
+
+        List<String> expectedLines = new ArrayList<>();
+        for (int i = 0; i < expected.size(); i++) {
+            JSONObject line = new JSONObject();
+            line.put("ErrorType", expected.getErrorType(i).name());
+            line.put("TradeNumber", expected.getTradeNumber(i));
+            expectedLines.add(line.toString());
+        }
+
+        assertEquals(301, report.getTrades());
+        assertEquals(expected.size(), report.getRejections());
+        assertEquals(Long.valueOf(75), report.getErrorCounts().get(ErrorType.valueDateFallinWeekend));
+        assertEquals(expectedLines, Files.readAllLines(output, StandardCharsets.UTF_8));
+    }
+}
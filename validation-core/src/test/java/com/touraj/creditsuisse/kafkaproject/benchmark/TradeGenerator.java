@@ -0,0 +1,192 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic synthetic trades for benchmarks and load tests. The type mix and the share of
+ * trades carrying an error are configurable; a bad trade gets exactly one injected error,
+ * picked among the ones that apply to its type. A type with none of the chosen errors is always valid.
+ */
+public class TradeGenerator {
+
+    //[Touraj] :: Appended only, the order decides which error a given seed picks
+    private static final ErrorType[] SPOT_FORWARD_ERRORS = {
+            ErrorType.valueDateNotbeforeTradeDate, ErrorType.valueDateFallinWeekend, ErrorType.ccyPairNotValidISO4217,
+            ErrorType.CustomerNotValid, ErrorType.valueDateFallinHoliday, ErrorType.LegalEntityNotValid};
+
+    private static final ErrorType[] OPTION_ERRORS = {
+            ErrorType.payCcyNotValidISO4217, ErrorType.premiumCcyNotValidISO4217, ErrorType.CustomerNotValid,
+            ErrorType.StyleNotValid, ErrorType.InvalidExcerciseStartDate, ErrorType.InvalidExpiryAndPrimiumDate,
+            ErrorType.LegalEntityNotValid};
+
+    /**
+     * Errors any chain finds
+     */
+    public static final Set<ErrorType> DEFAULT_ERRORS = Collections.unmodifiableSet(EnumSet.of(
+            ErrorType.valueDateNotbeforeTradeDate, ErrorType.valueDateFallinWeekend, ErrorType.ccyPairNotValidISO4217,
+            ErrorType.CustomerNotValid, ErrorType.payCcyNotValidISO4217, ErrorType.premiumCcyNotValidISO4217,
+            ErrorType.StyleNotValid, ErrorType.InvalidExcerciseStartDate, ErrorType.InvalidExpiryAndPrimiumDate));
+
+    /**
+     * One error per validator; valueDateFallinHoliday and LegalEntityNotValid are only found with the
+     * holiday calendars and counterparties of the service (USD Labor Day 2016, legal entity CS London)
+     */
+    public static final Set<ErrorType> VALIDATOR_ERRORS;
+
+    static {
+        Set<ErrorType> errors = EnumSet.copyOf(DEFAULT_ERRORS);
+        errors.add(ErrorType.valueDateFallinHoliday);
+        errors.add(ErrorType.LegalEntityNotValid);
+        VALIDATOR_ERRORS = Collections.unmodifiableSet(errors);
+    }
+
+    private final Random random;
+    private final double spotShare;
+    private final double forwardShare;
+    private final double errorRatio;
+    private final ErrorType[] spotForwardErrors;
+    private final ErrorType[] optionErrors;
+
+    /**
+     * @param mix        "spot", "forward", "option" or "mixed" (a third of each)
+     * @param errorRatio share of trades with one injected error, 0 to 1
+     */
+    public TradeGenerator(long seed, String mix, double errorRatio) {
+        this(seed, share(mix, TradeType.Spot), share(mix, TradeType.Forward), errorRatio);
+    }
+
+    public TradeGenerator(long seed, double spotShare, double forwardShare, double errorRatio) {
+        this(seed, spotShare, forwardShare, errorRatio, DEFAULT_ERRORS);
+    }
+
+    /**
+     * @param errors the errors bad trades are given, see {@link #VALIDATOR_ERRORS}
+     */
+    public TradeGenerator(long seed, double spotShare, double forwardShare, double errorRatio, Set<ErrorType> errors) {
+        this.random = new Random(seed);
+        this.spotShare = spotShare;
+        this.forwardShare = forwardShare;
+        this.errorRatio = errorRatio;
+        this.spotForwardErrors = retain(SPOT_FORWARD_ERRORS, errors);
+        this.optionErrors = retain(OPTION_ERRORS, errors);
+    }
+
+    private static ErrorType[] retain(ErrorType[] all, Set<ErrorType> errors) {
+        List<ErrorType> retained = new ArrayList<>();
+        for (ErrorType errorType : all) {
+            if (errors.contains(errorType)) {
+                retained.add(errorType);
+            }
+        }
+        return retained.toArray(new ErrorType[0]);
+    }
+
+    public JSONArray batch(int size) {
+        JSONArray trades = new JSONArray();
+        for (int i = 0; i < size; i++) {
+            trades.put(next());
+        }
+        return trades;
+    }
+
+    public JSONObject next() {
+
+        double type = random.nextDouble();
+        boolean bad = random.nextDouble() < errorRatio;
+
+        if (type < spotShare) {
+            return spotOrForward("Spot", "2016-08-15", bad ? pick(spotForwardErrors) : null);
+        }
+        if (type < spotShare + forwardShare) {
+            return spotOrForward("Forward", "2016-08-22", bad ? pick(spotForwardErrors) : null);
+        }
+        return vanillaOption(bad ? pick(optionErrors) : null);
+    }
+
+    /**
+     * @param error the error the trade must trigger, or null for a valid trade
+     */
+    public JSONObject spotOrForward(String type, String valueDate, ErrorType error) {
+
+        JSONObject trade = common(type, error);
+        trade.put("valueDate", valueDate);
+
+        if (error == ErrorType.valueDateNotbeforeTradeDate) {
+            trade.put("valueDate", "2016-08-10");
+        } else if (error == ErrorType.valueDateFallinWeekend) {
+            trade.put("valueDate", "2016-08-20");
+        } else if (error == ErrorType.ccyPairNotValidISO4217) {
+            trade.put("ccyPair", "EURUDS");
+        } else if (error == ErrorType.valueDateFallinHoliday) {
+            trade.put("valueDate", "2016-09-05");
+        }
+        return trade;
+    }
+
+    public JSONObject vanillaOption(ErrorType error) {
+
+        JSONObject trade = common("VanillaOption", error);
+        trade.put("style", error == ErrorType.StyleNotValid ? "BERMUDAN" : random.nextBoolean() ? "AMERICAN" : "EUROPEAN");
+        trade.put("strategy", "CALL");
+        trade.put("deliveryDate", "2016-08-22");
+        trade.put("expiryDate", error == ErrorType.InvalidExpiryAndPrimiumDate ? "2016-08-23" : "2016-08-19");
+        trade.put("payCcy", error == ErrorType.payCcyNotValidISO4217 ? "XXY" : "USD");
+        trade.put("premium", 0.20);
+        trade.put("premiumCcy", error == ErrorType.premiumCcyNotValidISO4217 ? "UDS" : "USD");
+        trade.put("premiumType", "%USD");
+        trade.put("premiumDate", "2016-08-12");
+
+        if (error == ErrorType.InvalidExcerciseStartDate) {
+            trade.put("style", "AMERICAN");
+            trade.put("excerciseStartDate", "2016-08-10");
+        } else {
+            trade.put("excerciseStartDate", "2016-08-12");
+        }
+        return trade;
+    }
+
+    private JSONObject common(String type, ErrorType error) {
+
+        JSONObject trade = new JSONObject();
+        trade.put("customer", error == ErrorType.CustomerNotValid ? "PLUTO3" : random.nextBoolean() ? "PLUTO1" : "PLUTO2");
+        trade.put("ccyPair", "EURUSD");
+        trade.put("type", type);
+        trade.put("direction", random.nextBoolean() ? "BUY" : "SELL");
+        trade.put("tradeDate", "2016-08-11");
+        trade.put("amount1", 1000000.00 + random.nextInt(1000) * 1000);
+        trade.put("amount2", 1120000.00);
+        trade.put("rate", 1.12);
+        trade.put("legalEntity", error == ErrorType.LegalEntityNotValid ? "CS London" : "CS Zurich");
+        trade.put("trader", "Johann Baumfiddler");
+        return trade;
+    }
+
+    private ErrorType pick(ErrorType[] errors) {
+        return errors.length == 0 ? null : errors[random.nextInt(errors.length)];
+    }
+
+    private static double share(String mix, TradeType type) {
+        switch (mix) {
+            case "spot":
+                return type == TradeType.Spot ? 1 : 0;
+            case "forward":
+                return type == TradeType.Forward ? 1 : 0;
+            case "option":
+                return 0;
+            case "mixed":
+                return 1.0 / 3;
+            default:
+                throw new IllegalArgumentException("Unknown trade mix: " + mix);
+        }
+    }
+}
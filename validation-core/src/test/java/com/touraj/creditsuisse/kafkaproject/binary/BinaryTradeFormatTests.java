@@ -0,0 +1,92 @@
+package com.touraj.creditsuisse.kafkaproject.binary;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.JSONArraySink;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.columnar.ColumnarValidator;
+import org.json.JSONArray;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryTradeFormatTests {
+
+    //[Touraj] :: README example first, then trades that hit every validator
+    static final String TRADES = "[" +
+            "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}," +
+            "{\"customer\":\"PLUTO3\",\"ccyPair\":\"EURUSD\",\"type\":\"Forward\",\"direction\":\"SELL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-06\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}," +
+            "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"VanillaOption\",\"style\":\"american\",\"direction\":\"BUY\",\"strategy\":\"CALL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"deliveryDate\":\"2016-08-22\",\"expiryDate\":\"2016-08-19\",\"excerciseStartDate\":\"2016-08-12\",\"payCcy\":\"USD\",\"premium\":0.20,\"premiumCcy\":\"USD\",\"premiumType\":\"%USD\",\"premiumDate\":\"2016-08-12\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}," +
+            "{\"customer\":\"PLUTO2\",\"ccyPair\":\"EURUSD\",\"type\":\"VanillaOption\",\"style\":\"AMERICAN\",\"direction\":\"SELL\",\"strategy\":\"CALL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"deliveryDate\":\"2016-08-22\",\"expiryDate\":\"2016-08-25\",\"excerciseStartDate\":\"2016-08-10\",\"payCcy\":\"XYZ\",\"premium\":0.20,\"premiumCcy\":\"usd\",\"premiumType\":\"%USD\",\"premiumDate\":\"2016-08-12\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}," +
+            "{\"customer\":\"PLUTO2\",\"ccyPair\":\"EURUSD\",\"type\":\"VanillaOption\",\"style\":\"ASIAN\",\"direction\":\"SELL\",\"strategy\":\"CALL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"deliveryDate\":\"2016-08-22\",\"expiryDate\":\"2016-08-19\",\"payCcy\":\"USD\",\"premium\":0.20,\"premiumCcy\":\"USD\",\"premiumType\":\"%USD\",\"premiumDate\":\"2016-08-12\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}," +
+            "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Swap\",\"tradeDate\":\"2016-08-11\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}" +
+            "]";
+
+    @Test
+    public void testBinaryAndJsonGiveIdenticalResults() throws Exception {
+
+        Validator validator = new Validator(new ChainofValidators());
+
+        JSONArray jsonMessages = new JSONArray();
+        validator.startValidation(TRADES, new JSONArraySink(jsonMessages));
+
+        byte[] binary = BinaryTradeFormat.encode(new JSONArray(TRADES));
+        JSONArray binaryMessages = new JSONArray();
+        int trades = validator.startBinaryValidation(new ByteArrayInputStream(binary), new JSONArraySink(binaryMessages));
+
+        assertEquals(6, trades);
+        assertEquals(9, jsonMessages.length());
+        assertEquals(jsonMessages.toString(), binaryMessages.toString());
+    }
+
+    @Test
+    public void testReadmeTradeFields() throws Exception {
+
+        byte[] binary = BinaryTradeFormat.encode(new JSONArray(TRADES));
+        BinaryTrade trade = new BinaryTradeReader(new ByteArrayInputStream(binary)).nextTrade();
+
+        assertEquals("PLUTO1", trade.getCustomer());
+        assertEquals("CS Zurich", trade.getLegalEntity());
+        assertEquals("Johann Baumfiddler", trade.getTrader());
+        assertEquals("BUY", trade.getDirection());
+        assertEquals(1120000000000L, trade.getAmount2());
+        assertEquals(1120000L, trade.getRate());
+        assertEquals("2016-08-15", java.time.LocalDate.ofEpochDay(trade.getValueDate()).toString());
+    }
+
+    @Test
+    public void testTruncatedStringFieldIsNotParsable() throws Exception {
+
+        JSONArray trades = new JSONArray(TRADES);
+        byte[] option = BinaryTradeFormat.encode(new JSONArray().put(trades.get(2)));
+        byte[] spot = BinaryTradeFormat.encode(new JSONArray().put(trades.get(0)));
+        byte[] truncated = spot.clone();
+        //[Touraj] :: The last byte is the length of the empty premiumType, now past the end of the record
+        truncated[truncated.length - 1] = 30;
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(option);
+        stream.write(truncated);
+        stream.write(spot);
+
+        BinaryTradeReader reader = new BinaryTradeReader(new ByteArrayInputStream(stream.toByteArray()));
+        assertTrue(reader.nextTrade().isWellFormed());
+        assertFalse(reader.nextTrade().isWellFormed());
+        assertTrue(reader.nextTrade().isWellFormed());
+
+        ChainofValidators chain = new ChainofValidators();
+        for (Validator validator : new Validator[]{new Validator(chain), new Validator(chain, null, Integer.MAX_VALUE, new ColumnarValidator(chain))}) {
+            RejectionBuffer rejections = new RejectionBuffer();
+            assertEquals(3, validator.startBinaryValidation(new ByteArrayInputStream(stream.toByteArray()), rejections));
+            assertEquals(1, rejections.size());
+            assertEquals(2, rejections.getTradeNumber(0));
+            assertEquals(ErrorType.TradeNotParsable, rejections.getErrorType(0));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.touraj.creditsuisse.kafkaproject.cache;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class ValidationResultCacheTests {
+
+    @Test
+    public void testKeyIgnoresFieldOrderButNotContent() {
+
+        JSONObject trade = new JSONObject("{\"customer\":\"PLUTO1\",\"type\":\"Spot\",\"ccyPair\":\"EURUSD\","
+                + "\"tradeDate\":\"2016-08-11\",\"valueDate\":\"2016-08-15\",\"amount1\":1000000.00}");
+        JSONObject reordered = new JSONObject("{\"amount1\":1000000.00,\"valueDate\":\"2016-08-15\","
+                + "\"tradeDate\":\"2016-08-11\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"customer\":\"PLUTO1\"}");
+        JSONObject amended = new JSONObject(trade.toString());
+        amended.put("amount1", 1000001.00);
+        JSONObject swapped = new JSONObject(trade.toString());
+        swapped.put("tradeDate", "2016-08-15");
+        swapped.put("valueDate", "2016-08-11");
+
+        TradeKey key = TradeKey.of(new JsonTrade(trade));
+
+        assertEquals(key, TradeKey.of(new JsonTrade(reordered)));
+        assertNotEquals(key, TradeKey.of(new JsonTrade(amended)));
+        assertNotEquals(key, TradeKey.of(new JsonTrade(swapped)));
+    }
+
+    @Test
+    public void testResubmittedTradeIsServedFromCache() {
+
+        ValidationResultCache cache = new ValidationResultCache(1000, 0, 4);
+        ChainofValidators chain = new ChainofValidators(ChainofValidators.initValidators(), null, cache);
+
+        JSONObject trade = new TradeGenerator(1, "spot", 0).spotOrForward("Spot", "2016-08-20", ErrorType.valueDateFallinWeekend);
+
+        RejectionBuffer first = new RejectionBuffer();
+        chain.validateTrade(trade, 1, first);
+        RejectionBuffer second = new RejectionBuffer();
+        chain.validateTrade(new JSONObject(trade.toString()), 7, second);
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, second.size());
+        assertEquals(7, second.getTradeNumber(0));
+        assertEquals(ErrorType.valueDateFallinWeekend, second.getErrorType(0));
+
+        //[Touraj] :: A reference data reload drops the cached result
+        cache.clear();
+        assertEquals(0, cache.size());
+        chain.validateTrade(trade, 1, new RejectionBuffer());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testResultComputedAcrossClearIsNotStored() {
+
+        ValidationResultCache cache = new ValidationResultCache(1000, 0, 4);
+        TradeKey key = new TradeKey(1, 2);
+
+        long generation = cache.getGeneration();
+        cache.clear();
+        cache.put(key, new ErrorType[0], generation);
+
+        assertNull(cache.get(key));
+        cache.put(key, new ErrorType[0], cache.getGeneration());
+        assertArrayEquals(new ErrorType[0], cache.get(key));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+
+        ValidationResultCache cache = new ValidationResultCache(2, 0, 1);
+        TradeKey first = new TradeKey(1, 1);
+        TradeKey second = new TradeKey(2, 2);
+        TradeKey third = new TradeKey(3, 3);
+
+        cache.put(first, new ErrorType[]{ErrorType.StyleNotValid}, 0);
+        cache.put(second, new ErrorType[0], 0);
+        cache.get(first);
+        cache.put(third, new ErrorType[0], 0);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(second));
+        assertArrayEquals(new ErrorType[]{ErrorType.StyleNotValid}, cache.get(first));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    public void testCachedChainMatchesUncachedChain() {
+
+        JSONArray trades = new TradeGenerator(42, "mixed", 0.3).batch(2000);
+        //[Touraj] :: Resubmit the same batch, so the second half is served from the cache
+        for (int i = 0; i < 2000; i++) {
+            trades.put(new JSONObject(trades.getJSONObject(i).toString()));
+        }
+
+        RejectionBuffer expected = new RejectionBuffer();
+        new ChainofValidators().executeChain(trades, expected);
+
+        ValidationResultCache cache = new ValidationResultCache(10000, 0, 16);
+        RejectionBuffer actual = new RejectionBuffer();
+        new ChainofValidators(ChainofValidators.initValidators(), null, cache).executeChain(trades, actual);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getTradeNumber(i), actual.getTradeNumber(i));
+            assertEquals(expected.getErrorType(i), actual.getErrorType(i));
+        }
+        assertEquals(cache.getMisses(), cache.size());
+        assertEquals(4000, cache.getHits() + cache.getMisses());
+    }
+}
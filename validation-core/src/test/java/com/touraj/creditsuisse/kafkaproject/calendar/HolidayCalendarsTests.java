@@ -0,0 +1,92 @@
+package com.touraj.creditsuisse.kafkaproject.calendar;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.WeekendValidator;
+import com.touraj.creditsuisse.kafkaproject.util.CurrencyCode;
+import com.touraj.creditsuisse.kafkaproject.util.EpochDay;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HolidayCalendarsTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testShippedCalendars() throws Exception {
+
+        HolidayCalendars calendars = HolidayCalendars.load(Paths.get("calendars"));
+
+        int usd = CurrencyCode.pack("USD");
+        int eur = CurrencyCode.pack("EUR");
+
+        assertTrue(calendars.isHoliday(usd, EpochDay.parse("2016-07-04")));
+        assertFalse(calendars.isHoliday(eur, EpochDay.parse("2016-07-04")));
+        assertTrue(calendars.isHoliday(eur, EpochDay.parse("2017-04-17")));
+        assertFalse(calendars.isHoliday(usd, EpochDay.parse("2016-08-15")));
+        assertFalse(calendars.isHoliday(CurrencyCode.pack("JPY"), EpochDay.parse("2017-01-02")));
+        assertFalse(calendars.isHoliday(usd, EpochDay.parse("2099-12-25")));
+        assertFalse(calendars.isHoliday(usd, EpochDay.INVALID));
+    }
+
+    @Test
+    public void testHolidayInEitherCurrencyAndReload() throws Exception {
+
+        Path directory = folder.getRoot().toPath();
+        Files.write(directory.resolve("CHF.txt"), "# Swiss\n\n2016-08-01\n".getBytes(StandardCharsets.UTF_8));
+
+        HolidayCalendarRegistry registry = new HolidayCalendarRegistry(directory, 0);
+        WeekendValidator validator = new WeekendValidator(registry);
+
+        RejectionBuffer sink = new RejectionBuffer();
+        validator.processValidation(trade("USDCHF", "2016-08-01"), 1, sink);
+        validator.processValidation(trade("EURUSD", "2016-08-01"), 2, sink);
+        validator.processValidation(trade("CHFJPY", "2016-07-31"), 3, sink);
+        validator.processValidation(trade("EURUSD", "2016-08-02"), 4, sink);
+
+        assertEquals(2, sink.size());
+        assertEquals(1, sink.getTradeNumber(0));
+        assertEquals(ErrorType.valueDateFallinHoliday, sink.getErrorType(0));
+        //[Touraj] :: A Sunday is only reported as weekend
+        assertEquals(3, sink.getTradeNumber(1));
+        assertEquals(ErrorType.valueDateFallinWeekend, sink.getErrorType(1));
+
+        Files.write(directory.resolve("EUR.txt"), "2016-08-02\n".getBytes(StandardCharsets.UTF_8));
+        registry.reload();
+
+        sink.clear();
+        validator.processValidation(trade("EURUSD", "2016-08-02"), 4, sink);
+        assertEquals(1, sink.size());
+        assertEquals(ErrorType.valueDateFallinHoliday, sink.getErrorType(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadLineFailsTheLoad() throws Exception {
+
+        Path directory = folder.getRoot().toPath();
+        Files.write(directory.resolve("GBP.txt"), "2016-12-26\n2016-13-01\n".getBytes(StandardCharsets.UTF_8));
+
+        HolidayCalendars.load(directory);
+    }
+
+    private static JsonTrade trade(String ccyPair, String valueDate) {
+        JSONObject trade = new JSONObject();
+        trade.put("type", "Spot");
+        trade.put("ccyPair", ccyPair);
+        trade.put("valueDate", valueDate);
+        return new JsonTrade(trade);
+    }
+}
@@ -0,0 +1,148 @@
+package com.touraj.creditsuisse.kafkaproject.coalescing;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.JSONArraySink;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentCallersGetOwnResults() throws Exception {
+
+        List<IValidator> validators = ChainofValidators.initValidators();
+        ValidationMetrics metrics = new ValidationMetrics(validators);
+        Validator validator = new Validator(new ChainofValidators(validators, metrics));
+
+        int callers = 8;
+        TradeGenerator generator = new TradeGenerator(3, "mixed", 0.5);
+        List<JSONArray> requests = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            JSONArray request = generator.batch(1 + i % 3);
+            JSONArray messages = new JSONArray();
+            new ChainofValidators().executeChain(request, new JSONArraySink(messages));
+            requests.add(request);
+            expected.add(messages.toString());
+        }
+
+        //[Touraj] :: Wide window, so all callers land in the first batch or two even on a slow machine
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try (RequestCoalescer coalescer = new RequestCoalescer(validator, metrics, 200000, 16, 1024, 64)) {
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (JSONArray request : requests) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    JSONArray messages = new JSONArray();
+                    coalescer.validate(request, new JSONArraySink(messages));
+                    return messages.toString();
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < callers; i++) {
+                assertEquals(expected.get(i), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Object> coalescing = (Map<String, Object>) metrics.snapshot().get("coalescing");
+        Map<String, Object> requestsPerBatch = (Map<String, Object>) coalescing.get("requestsPerBatch");
+        assertTrue(requestsPerBatch.toString(), (Long) requestsPerBatch.get("max") > 1);
+        assertEquals((long) callers, ((Map<String, Object>) coalescing.get("queueNanos")).get("count"));
+    }
+
+    @Test
+    public void testBadRequestFailsOnlyItsCaller() throws Exception {
+
+        Validator validator = new Validator(new ChainofValidators());
+        JSONObject good = new TradeGenerator(5, "spot", 0).spotOrForward("Spot", "2016-08-20", null);
+        JSONObject bad = new JSONObject(good.toString());
+        bad.put("tradeDate", 20160811);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (RequestCoalescer coalescer = new RequestCoalescer(validator, null, 200000, 1, 2, 64)) {
+
+            Future<String> goodResult = executor.submit(() -> {
+                JSONArray messages = new JSONArray();
+                coalescer.validate(new JSONArray().put(good), new JSONArraySink(messages));
+                return messages.toString();
+            });
+            Future<?> badResult = executor.submit(() -> {
+                coalescer.validate(new JSONArray().put(bad), new JSONArraySink(new JSONArray()));
+                return null;
+            });
+
+            assertEquals("[{\"ErrorType\":\"valueDateFallinWeekend\",\"TradeNumber\":1}]", goodResult.get());
+            try {
+                badResult.get();
+                fail("A trade with a numeric tradeDate can not be validated");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().toString(), e.getCause() instanceof RuntimeException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrorInBatchFailsCallersNotDispatcher() throws Exception {
+
+        List<IValidator> validators = new ArrayList<>(ChainofValidators.initValidators());
+        validators.add((trade, tradeNumber, sink) -> {
+            if ("BOOM".equals(trade.getCustomer())) {
+                throw new StackOverflowError();
+            }
+            return true;
+        });
+        Validator validator = new Validator(new ChainofValidators(validators));
+        JSONObject good = new TradeGenerator(5, "spot", 0).spotOrForward("Spot", "2016-08-20", null);
+        JSONObject boom = new JSONObject(good.toString()).put("customer", "BOOM");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (RequestCoalescer coalescer = new RequestCoalescer(validator, null, 1000, 1, 2, 64)) {
+
+            Future<?> boomResult = executor.submit(() -> {
+                coalescer.validate(new JSONArray().put(boom), new RejectionBuffer());
+                return null;
+            });
+            try {
+                boomResult.get(10, TimeUnit.SECONDS);
+                fail("The validator throws for this trade");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().toString(), e.getCause() instanceof StackOverflowError);
+            }
+
+            //[Touraj] :: Still dispatching
+            RejectionBuffer rejections = new RejectionBuffer();
+            coalescer.validate(new JSONArray().put(good), rejections);
+            assertEquals(1, rejections.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
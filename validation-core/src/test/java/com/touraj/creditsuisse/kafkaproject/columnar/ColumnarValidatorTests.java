@@ -0,0 +1,153 @@
+package com.touraj.creditsuisse.kafkaproject.columnar;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.BeforeDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.CustomerValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.Validator.WeekendValidator;
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeReader;
+import com.touraj.creditsuisse.kafkaproject.calendar.HolidayCalendarRegistry;
+import com.touraj.creditsuisse.kafkaproject.counterparty.CounterpartyRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ColumnarValidatorTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameRejectionsAsChain() throws Exception {
+
+        Path counterparties = folder.newFile("counterparties.csv").toPath();
+        Files.write(counterparties, "PLUTO1,CS Zurich\nPLUTO2\n".getBytes(StandardCharsets.UTF_8));
+
+        List<IValidator> validators = ChainofValidators.initValidators();
+        validators = new ArrayList<>(validators);
+        validators.set(1, new WeekendValidator(new HolidayCalendarRegistry(Paths.get("calendars"), 0)));
+        validators.set(4, new CustomerValidator(new CounterpartyRegistry(counterparties, 0)));
+        ChainofValidators chain = new ChainofValidators(validators);
+
+        JSONArray trades = new TradeGenerator(19, "mixed", 0.4).batch(5000);
+        for (int i = 0; i < trades.length(); i += 7) {
+            //[Touraj] :: Several errors on one trade, and both styles in odd casing
+            JSONObject trade = trades.getJSONObject(i);
+            trade.put("valueDate", "2016-08-13");
+            trade.put("customer", i % 2 == 0 ? "PLUTO3" : "PLUTO1");
+            trade.put("legalEntity", "CS London");
+            if (trade.has("style")) {
+                trade.put("style", i % 3 == 0 ? "american" : "European");
+                trade.put("payCcy", "XXY");
+            }
+        }
+        trades.put(new JSONObject("{\"customer\":\"PLUTO1\",\"type\":\"Swap\"}"));
+        trades.put(new JSONObject("{\"customer\":\"PLUTO9\"}"));
+        //[Touraj] :: Holidays: 2016-07-04 in USD, 2016-12-26 in EUR
+        trades.put(new TradeGenerator(1, "spot", 0).spotOrForward("Spot", "2016-07-04", null));
+        trades.put(new TradeGenerator(1, "spot", 0).spotOrForward("Forward", "2016-12-26", null));
+
+        RejectionBuffer all = assertSameAsChain(chain, trades, 0, trades.length());
+        assertSameAsChain(chain, trades, 1000, 1700);
+
+        //[Touraj] :: The same trades as binary records, several blocks of them
+        byte[] records = BinaryTradeFormat.encode(trades);
+        RejectionBuffer expected = new RejectionBuffer();
+        new Validator(chain)
+                .startBinaryValidation(new ByteArrayInputStream(records), expected);
+        RejectionBuffer actual = new RejectionBuffer();
+        assertEquals(trades.length(), new ColumnarValidator(chain)
+                .executeChain(new BinaryTradeReader(new ByteArrayInputStream(records)), actual));
+        assertSame(expected, actual);
+
+        Set<ErrorType> reported = EnumSet.noneOf(ErrorType.class);
+        for (int i = 0; i < all.size(); i++) {
+            reported.add(all.getErrorType(i));
+        }
+        //[Touraj] :: Every error but TradeNotParsable, never reported by the chain itself, and the cross-trade ones
+        assertEquals(EnumSet.complementOf(EnumSet.of(ErrorType.TradeNotParsable, ErrorType.DuplicateTrade,
+                ErrorType.ExposureLimitExceeded)), reported);
+    }
+
+    @Test
+    public void testUndecodableBatchFailsLikeChain() {
+
+        ChainofValidators chain = new ChainofValidators();
+        JSONArray trades = new TradeGenerator(23, "spot", 0.5).batch(50);
+        trades.getJSONObject(30).remove("tradeDate");
+
+        RejectionBuffer expected = new RejectionBuffer();
+        RuntimeException expectedFailure = null;
+        try {
+            chain.executeChain(trades, expected);
+        } catch (RuntimeException e) {
+            expectedFailure = e;
+        }
+
+        RejectionBuffer actual = new RejectionBuffer();
+        try {
+            new ColumnarValidator(chain).executeChain(trades, actual);
+            fail("The chain fails on a Spot trade without tradeDate");
+        } catch (RuntimeException e) {
+            assertEquals(expectedFailure.getClass(), e.getClass());
+            assertEquals(expectedFailure.getMessage(), e.getMessage());
+        }
+
+        assertSame(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownValidatorIsRefused() {
+        new ColumnarValidator(new ChainofValidators(Collections.singletonList(new BeforeDateValidator() {
+            @Override
+            public boolean processValidation(Trade trade, int tradeNumber, ValidationSink sink) {
+                return true;
+            }
+        })));
+    }
+
+    private static RejectionBuffer assertSameAsChain(ChainofValidators chain, JSONArray trades, int from, int to) {
+
+        RejectionBuffer expected = new RejectionBuffer();
+        for (int i = from; i < to; i++) {
+            chain.validateTrade(trades.getJSONObject(i), i + 1, expected);
+        }
+
+        RejectionBuffer actual = new RejectionBuffer();
+        new ColumnarValidator(chain).executeChain(trades, from, to, actual);
+
+        assertSame(expected, actual);
+        return actual;
+    }
+
+    private static void assertSame(RejectionBuffer expected, RejectionBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("rejection " + i, expected.getTradeNumber(i), actual.getTradeNumber(i));
+            assertEquals("rejection " + i, expected.getErrorType(i), actual.getErrorType(i));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.touraj.creditsuisse.kafkaproject.counterparty;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.CustomerValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CounterpartyRegistryTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCustomerAndLegalEntityCombinations() throws Exception {
+
+        Path file = folder.newFile("counterparties.csv").toPath();
+        write(file, "# test\nPLUTO1,CS Zurich\nPLUTO1, CS London \nPLUTO2,CS Zurich\nPLUTO3\n");
+
+        CounterpartyRegistry registry = new CounterpartyRegistry(file, 0);
+        CustomerValidator validator = new CustomerValidator(registry);
+
+        RejectionBuffer sink = new RejectionBuffer();
+        validator.processValidation(trade("PLUTO1", "CS London"), 1, sink);
+        validator.processValidation(trade("PLUTO2", "CS London"), 2, sink);
+        validator.processValidation(trade("PLUTO3", "Anyone"), 3, sink);
+        validator.processValidation(trade("PLUTO4", "CS Zurich"), 4, sink);
+        validator.processValidation(trade("PLUTO2", null), 5, sink);
+
+        assertEquals(2, sink.size());
+        assertEquals(2, sink.getTradeNumber(0));
+        assertEquals(ErrorType.LegalEntityNotValid, sink.getErrorType(0));
+        assertEquals(4, sink.getTradeNumber(1));
+        assertEquals(ErrorType.CustomerNotValid, sink.getErrorType(1));
+    }
+
+    @Test
+    public void testReloadSwapsWholeSnapshot() throws Exception {
+
+        Path file = folder.newFile("counterparties.csv").toPath();
+        StringBuilder counterparties = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            counterparties.append("CUST").append(i).append(",CS ").append(i % 10 == 0 ? "London" : "Zurich").append('\n');
+        }
+        write(file, counterparties.toString());
+
+        CounterpartyRegistry registry = new CounterpartyRegistry(file, 0);
+        Counterparties before = registry.getCounterparties();
+
+        assertEquals(50000, before.size());
+        assertTrue(before.isLegalEntityOf("CUST40", "CS London"));
+        assertFalse(before.isLegalEntityOf("CUST41", "CS London"));
+
+        write(file, "CUST41,CS London\n");
+        registry.reload();
+
+        //[Touraj] :: A reader holding the old snapshot keeps a consistent view
+        assertEquals(50000, before.size());
+        assertEquals(1, registry.getCounterparties().size());
+        assertTrue(registry.getCounterparties().isLegalEntityOf("CUST41", "CS London"));
+
+        write(file, ",CS London\n");
+        try {
+            registry.reload();
+        } catch (IllegalArgumentException e) {
+            //[Touraj] :: Expected, the bad file must not replace the good snapshot
+        }
+        assertEquals(1, registry.getCounterparties().size());
+    }
+
+    @Test
+    public void testMissingFileKeepsBuiltInCustomers() {
+
+        CounterpartyRegistry registry = new CounterpartyRegistry(folder.getRoot().toPath().resolve("none.csv"), 0);
+
+        assertSame(Counterparties.DEFAULT, registry.getCounterparties());
+        assertTrue(registry.getCounterparties().isLegalEntityOf("PLUTO2", "Any Bank"));
+        assertFalse(registry.getCounterparties().isCustomer("PLUTO3"));
+    }
+
+    private static JsonTrade trade(String customer, String legalEntity) {
+        JSONObject trade = new JSONObject();
+        trade.put("customer", customer);
+        trade.put("legalEntity", legalEntity);
+        return new JsonTrade(trade);
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,335 @@
+package com.touraj.creditsuisse.kafkaproject.crosstrade;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.CrossTradeBookings;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.ParallelChainExecutor;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeType;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.batch.BulkValidationReport;
+import com.touraj.creditsuisse.kafkaproject.batch.BulkValidator;
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeReader;
+import com.touraj.creditsuisse.kafkaproject.cache.ValidationResultCache;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CrossTradeTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLION = 1000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDuplicateKeyAndWindow() throws Exception {
+
+        AtomicLong clock = new AtomicLong();
+        //[Touraj] :: One stripe: expired keys are only dropped from the stripe in use
+        DuplicateIndex index = new DuplicateIndex(1000, 60, 1, clock::get);
+
+        JSONObject trade = new TradeGenerator(1, "spot", 0).spotOrForward("Spot", "2016-08-15", null);
+        trade.put("direction", "BUY");
+        assertTrue(index.add(new JsonTrade(trade)));
+
+        //[Touraj] :: Same booking key in binary, with fields that are not part of the key changed
+        JSONObject rebooked = new JSONObject(trade.toString()).put("direction", "buy").put("trader", "Someone Else").put("rate", 1.13);
+        BinaryTradeReader reader = new BinaryTradeReader(new ByteArrayInputStream(BinaryTradeFormat.encode(new JSONArray().put(rebooked))));
+        assertFalse(index.add(reader.nextTrade()));
+
+        for (String[] change : new String[][]{{"customer", "PLUTO9"}, {"ccyPair", "EURCHF"}, {"tradeDate", "2016-08-12"}, {"direction", "SELL"}}) {
+            assertTrue(change[0], index.add(new JsonTrade(new JSONObject(trade.toString()).put(change[0], change[1]))));
+        }
+        assertTrue(index.add(new JsonTrade(new JSONObject(trade.toString()).put("amount1", trade.getDouble("amount1") + 0.01))));
+        assertTrue(index.add(new JsonTrade(new JSONObject(trade.toString()).put("amount2", 1.0))));
+        assertEquals(7, index.size());
+        assertEquals(1, index.getDuplicates());
+
+        clock.addAndGet(59 * SECOND);
+        assertFalse(index.add(new JsonTrade(trade)));
+        clock.addAndGet(SECOND);
+        assertTrue(index.add(new JsonTrade(trade)));
+        //[Touraj] :: The other keys expired on the way, only the new booking is left
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testExposureSlidesOutOfWindow() {
+
+        AtomicLong clock = new AtomicLong();
+        ExposureIndex index = new ExposureIndex(60, 6, 100 * MILLION,
+                Collections.singletonMap("PLUTO1", 10 * MILLION), 4, clock::get);
+
+        assertTrue(index.tryAdd("PLUTO1", 6 * MILLION));
+        clock.addAndGet(30 * SECOND);
+        assertTrue(index.tryAdd("PLUTO1", 4 * MILLION));
+        assertFalse(index.tryAdd("PLUTO1", 1));
+        assertEquals(10 * MILLION, index.getExposure("PLUTO1"));
+        assertTrue(index.tryAdd("PLUTO2", 60 * MILLION));
+
+        //[Touraj] :: The first amount leaves the window, the second is still in it
+        clock.addAndGet(30 * SECOND);
+        assertEquals(4 * MILLION, index.getExposure("PLUTO1"));
+        assertFalse(index.tryAdd("PLUTO1", 7 * MILLION));
+        assertTrue(index.tryAdd("PLUTO1", 6 * MILLION));
+
+        clock.addAndGet(60 * SECOND);
+        assertEquals(0, index.getExposure("PLUTO1"));
+        assertEquals(0, index.getExposure("PLUTO2"));
+
+        ExposureIndex unlimited = new ExposureIndex(60, 6, Long.MAX_VALUE, Collections.emptyMap(), 1);
+        assertTrue(unlimited.tryAdd("PLUTO1", Long.MAX_VALUE));
+        assertEquals(0, unlimited.size());
+    }
+
+    @Test
+    public void testExposureLimitHoldsUnderConcurrentAdds() throws Exception {
+
+        ExposureIndex index = new ExposureIndex(3600, 60, 5000, Collections.emptyMap(), 2);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 5000; i++) {
+                    if (index.tryAdd("PLUTO" + (i % 3), 1)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(3 * 5000, accepted.get());
+        for (int c = 0; c < 3; c++) {
+            assertEquals(5000, index.getExposure("PLUTO" + c));
+        }
+    }
+
+    @Test
+    public void testChainRunsCrossTradeChecksLastOnAcceptedTrades() {
+
+        AtomicLong clock = new AtomicLong();
+        DuplicateTradeValidator duplicates = new DuplicateTradeValidator(new DuplicateIndex(1000, 60, 4, clock::get));
+        ExposureLimitValidator exposure = new ExposureLimitValidator(new ExposureIndex(60, 6, 3500000 * MILLION,
+                Collections.emptyMap(), 4, clock::get));
+
+        List<IValidator> validators = new ArrayList<>();
+        validators.add(duplicates);
+        validators.add(exposure);
+        validators.addAll(ChainofValidators.initValidators());
+        ValidationResultCache cache = new ValidationResultCache(1000, 0, 4);
+        ChainofValidators chain = new ChainofValidators(validators, new ValidationMetrics(validators), cache);
+
+        List<IValidator> plan = chain.getPlan(TradeType.Spot);
+        assertEquals(exposure, plan.get(plan.size() - 1));
+        assertEquals(duplicates, plan.get(plan.size() - 2));
+
+        TradeGenerator generator = new TradeGenerator(3, "spot", 0);
+        JSONObject trade = generator.spotOrForward("Spot", "2016-08-15", null).put("amount1", 1000000.00);
+        JSONObject weekend = generator.spotOrForward("Spot", "2016-08-20", null).put("amount1", 1000000.00);
+
+        RejectionBuffer sink = new RejectionBuffer();
+        chain.validateTrade(trade, 1, sink);
+        chain.validateTrade(weekend, 2, sink);
+        //[Touraj] :: Served from the cache, but still a duplicate
+        chain.validateTrade(new JSONObject(trade.toString()), 3, sink);
+        //[Touraj] :: A rejected trade was never recorded, so it is no duplicate either
+        chain.validateTrade(new JSONObject(weekend.toString()), 4, sink);
+        chain.failFast().validateTrade(new JSONObject(trade.toString()), 5, sink);
+
+        assertEquals(4, sink.size());
+        assertEquals(2, sink.getTradeNumber(0));
+        assertEquals(ErrorType.valueDateFallinWeekend, sink.getErrorType(0));
+        assertEquals(3, sink.getTradeNumber(1));
+        assertEquals(ErrorType.DuplicateTrade, sink.getErrorType(1));
+        assertEquals(4, sink.getTradeNumber(2));
+        assertEquals(ErrorType.valueDateFallinWeekend, sink.getErrorType(2));
+        assertEquals(5, sink.getTradeNumber(3));
+        assertEquals(ErrorType.DuplicateTrade, sink.getErrorType(3));
+        assertEquals(2, cache.size());
+
+        //[Touraj] :: Only the accepted trade and none of its duplicates count towards the exposure
+        assertEquals(1000000 * MILLION, exposure.getExposureIndex().getExposure(trade.getString("customer")));
+
+        sink.clear();
+        for (int i = 0; i < 4; i++) {
+            chain.validateTrade(new JSONObject(trade.toString()).put("amount1", 1000001.00 + i), 10 + i, sink);
+        }
+        assertEquals(2, sink.size());
+        assertEquals(12, sink.getTradeNumber(0));
+        assertEquals(ErrorType.ExposureLimitExceeded, sink.getErrorType(0));
+        assertEquals(2, chain.getMetrics().getRejections(ErrorType.ExposureLimitExceeded));
+    }
+
+    @Test
+    public void testRetryIsNotADuplicateOfItself() {
+
+        DuplicateTradeValidator duplicates = new DuplicateTradeValidator(new DuplicateIndex(1000, 60, 4));
+        ExposureLimitValidator exposure = new ExposureLimitValidator(new ExposureIndex(60, 6, 3 * MILLION * MILLION,
+                Collections.emptyMap(), 4));
+
+        List<IValidator> validators = new ArrayList<>(ChainofValidators.initValidators());
+        validators.add(duplicates);
+        validators.add(exposure);
+        Validator validator = new Validator(new ChainofValidators(validators, new ValidationMetrics(validators)));
+
+        TradeGenerator generator = new TradeGenerator(3, "spot", 0);
+        JSONObject first = generator.spotOrForward("Spot", "2016-08-15", null).put("amount1", 1000000.00);
+        String customer = first.getString("customer");
+        JSONObject second = new JSONObject(first.toString()).put("amount1", 1500000.00);
+        JSONObject broken = new JSONObject(first.toString()).put("amount1", 2000000.00);
+        broken.remove("valueDate");
+
+        //[Touraj] :: The batch throws on its last trade, the two before it are withdrawn
+        RejectionBuffer sink = new RejectionBuffer();
+        try {
+            validator.startValidation(new JSONArray().put(first).put(second).put(broken), sink);
+            fail("A trade without valueDate must fail the batch");
+        } catch (RuntimeException expected) {
+        }
+        assertEquals(0, duplicates.getDuplicateIndex().size());
+        assertEquals(0, exposure.getExposureIndex().getExposure(customer));
+
+        sink.clear();
+        validator.startValidation(new JSONArray().put(first).put(second), sink);
+        assertEquals(0, sink.size());
+        assertEquals(2500000 * MILLION, exposure.getExposureIndex().getExposure(customer));
+
+        //[Touraj] :: Over the limit: the duplicate index forgets the trade, so its retry is not a duplicate
+        JSONObject large = new JSONObject(first.toString()).put("amount1", 600000.00);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            sink.clear();
+            validator.startValidation(new JSONArray().put(large), sink);
+            assertEquals(1, sink.size());
+            assertEquals(ErrorType.ExposureLimitExceeded, sink.getErrorType(0));
+        }
+        assertEquals(2, duplicates.getDuplicateIndex().size());
+        assertEquals(0, duplicates.getDuplicateIndex().getDuplicates());
+        assertEquals(2500000 * MILLION, exposure.getExposureIndex().getExposure(customer));
+
+        sink.clear();
+        validator.startValidation(new JSONArray().put(second), sink);
+        assertEquals(ErrorType.DuplicateTrade, sink.getErrorType(0));
+    }
+
+    @Test
+    public void testStreamedBookingsStayBounded() {
+
+        DuplicateTradeValidator duplicates = new DuplicateTradeValidator(new DuplicateIndex(10000, 60, 4));
+        List<IValidator> validators = new ArrayList<>(ChainofValidators.initValidators());
+        validators.add(duplicates);
+        ChainofValidators chain = new ChainofValidators(validators);
+
+        TradeGenerator generator = new TradeGenerator(5, "spot", 0);
+        RejectionBuffer sink = new RejectionBuffer();
+        CrossTradeBookings bookings = chain.newBookings(16);
+        for (int i = 0; i < 1000; i++) {
+            chain.validateTrade(generator.spotOrForward("Spot", "2016-08-15", null).put("amount1", 1000.00 + i), i + 1, sink, bookings);
+            assertTrue(bookings.size() <= 16);
+        }
+        assertEquals(0, sink.size());
+        assertEquals(1000 - 62 * 16, bookings.size());
+
+        //[Touraj] :: A stream that fails on its last trade withdraws only the last window
+        int trades = 2 * Validator.STREAM_BOOKINGS_WINDOW + 100;
+        StringBuilder stream = new StringBuilder("[");
+        for (int i = 0; i < trades; i++) {
+            stream.append(generator.spotOrForward("Spot", "2016-08-15", null).put("amount1", 5000.00 + i)).append(',');
+        }
+        stream.append("{\"type\":\"Spot\"}]");
+        try {
+            new Validator(chain).startValidation(new ByteArrayInputStream(stream.toString().getBytes(StandardCharsets.UTF_8)), sink);
+            fail("A trade without dates must fail the stream");
+        } catch (RuntimeException expected) {
+        }
+        assertEquals(0, sink.size());
+        assertEquals(1000 + 2 * Validator.STREAM_BOOKINGS_WINDOW, duplicates.getDuplicateIndex().size());
+    }
+
+    @Test
+    public void testParallelModesKeepTradeOrderWithCrossTradeChecks() throws Exception {
+
+        TradeGenerator generator = new TradeGenerator(7, "spot", 0);
+        JSONArray batch = new JSONArray();
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            //[Touraj] :: Every trade is booked twice, 100 trades apart
+            JSONObject trade = i % 200 < 100
+                    ? generator.spotOrForward("Spot", "2016-08-15", null).put("amount1", 1000.00 + i)
+                    : new JSONObject(batch.getJSONObject(i - 100).toString());
+            batch.put(trade);
+            file.append(trade).append('\n');
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DuplicateTradeValidator duplicates = new DuplicateTradeValidator(new DuplicateIndex(1000, 60, 4));
+            List<IValidator> validators = new ArrayList<>(ChainofValidators.initValidators());
+            validators.add(duplicates);
+            ChainofValidators chain = new ChainofValidators(validators);
+
+            RejectionBuffer sink = new RejectionBuffer();
+            new Validator(chain, new ParallelChainExecutor(chain, pool, 8), 1).startValidation(batch, sink);
+            assertEquals(200, sink.size());
+            for (int i = 0; i < sink.size(); i++) {
+                assertEquals(ErrorType.DuplicateTrade, sink.getErrorType(i));
+                assertEquals(101 + i % 100 + i / 100 * 200, sink.getTradeNumber(i));
+            }
+
+            ChainofValidators fresh = new ChainofValidators(new ArrayList<>(Arrays.asList(
+                    new DuplicateTradeValidator(new DuplicateIndex(1000, 60, 4)))));
+            Path input = folder.newFile("trades.ndjson").toPath();
+            Path output = folder.newFile("rejections.ndjson").toPath();
+            Files.write(input, file.toString().getBytes(StandardCharsets.UTF_8));
+            BulkValidationReport report = new BulkValidator(fresh, pool, 500).validate(input, output);
+
+            List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+            assertEquals(200, report.getRejections());
+            for (int i = 0; i < lines.size(); i++) {
+                assertEquals(101 + i % 100 + i / 100 * 200, new JSONObject(lines.get(i)).getInt("TradeNumber"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.touraj.creditsuisse.kafkaproject.journal;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RejectionJournalTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRingBufferKeepsEveryProducersOrder() throws Exception {
+
+        RejectionRingBuffer ringBuffer = new RejectionRingBuffer(1000);
+        assertEquals(1024, ringBuffer.getCapacity());
+
+        int producers = 4;
+        int perProducer = 50000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p + 1;
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= perProducer; i++) {
+                    while (!ringBuffer.offer(producer, i, ErrorType.CustomerNotValid, i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        int[] lastTradeNumbers = new int[producers + 1];
+        int[] received = new int[1];
+        while (received[0] < producers * perProducer) {
+            received[0] += ringBuffer.drain((requestId, tradeNumber, errorType, timestamp) -> {
+                assertEquals(lastTradeNumbers[(int) requestId] + 1, tradeNumber);
+                assertEquals(tradeNumber, timestamp);
+                lastTradeNumbers[(int) requestId] = tradeNumber;
+            }, 100);
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int p = 1; p <= producers; p++) {
+            assertEquals(perProducer, lastTradeNumbers[p]);
+        }
+    }
+
+    @Test
+    public void testRingBufferDropsWhenFull() {
+
+        RejectionRingBuffer ringBuffer = new RejectionRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ringBuffer.offer(1, i, ErrorType.StyleNotValid, 0));
+        }
+        assertFalse(ringBuffer.offer(1, 4, ErrorType.StyleNotValid, 0));
+        assertEquals(1, ringBuffer.getDropped());
+    }
+
+    @Test
+    public void testIdleWriterParksAndWakesOnPublish() throws Exception {
+
+        try (RejectionJournal journal = new RejectionJournal(folder.getRoot().toPath(), 1 << 20, 2, 1024)) {
+
+            long requestId = journal.nextRequestId();
+            for (int i = 1; i <= 200; i++) {
+                awaitParked(journal);
+                journal.publish(requestId, i, ErrorType.CustomerNotValid);
+                //[Touraj] :: A lost wakeup would leave the record in the buffer past find's one second wait
+                assertEquals(i, journal.find(requestId).size());
+            }
+            awaitParked(journal);
+        }
+    }
+
+    private static void awaitParked(RejectionJournal journal) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!journal.isWriterParked()) {
+            assertTrue("writer did not park", System.nanoTime() - deadline < 0);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testQueriesAcrossRolloverAndRestart() throws Exception {
+
+        Path directory = folder.getRoot().toPath();
+        long segmentSize = 10 * RejectionJournal.RECORD_SIZE;
+
+        long firstRequest;
+        long secondRequest;
+        try (RejectionJournal journal = new RejectionJournal(directory, segmentSize, 100, 64)) {
+
+            firstRequest = journal.nextRequestId();
+            secondRequest = journal.nextRequestId();
+            for (int i = 1; i <= 24; i++) {
+                journal.publish(firstRequest, i, ErrorType.valueDateFallinWeekend);
+                if (i % 5 == 0) {
+                    journal.publish(secondRequest, i, ErrorType.CustomerNotValid);
+                }
+            }
+
+            assertEquals(24, journal.find(firstRequest).size());
+            assertEquals(4, journal.find(secondRequest).size());
+
+            List<JournalEntry> trade10 = journal.find(secondRequest, 10);
+            assertEquals(1, trade10.size());
+            assertEquals(ErrorType.CustomerNotValid, trade10.get(0).getErrorType());
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.collect(Collectors.toList()).size());
+        }
+
+        try (RejectionJournal journal = new RejectionJournal(directory, segmentSize, 2, 64)) {
+
+            long thirdRequest = journal.nextRequestId();
+            assertTrue(thirdRequest > secondRequest);
+
+            //[Touraj] :: Only the 2 newest segments are kept, records 11 to 28 of the first run
+            List<JournalEntry> entries = journal.find(firstRequest);
+            assertEquals(15, entries.size());
+            assertEquals(10, entries.get(0).getTradeNumber());
+            assertEquals(24, entries.get(14).getTradeNumber());
+
+            //[Touraj] :: The last segment was not full, so appending goes on in it
+            journal.publish(thirdRequest, 1, ErrorType.StyleNotValid);
+            assertEquals(1, journal.find(thirdRequest).size());
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.collect(Collectors.toList()).size());
+        }
+    }
+
+    @Test
+    public void testRestartWithAnotherSegmentSize() throws Exception {
+
+        Path directory = folder.getRoot().toPath();
+
+        long firstRequest;
+        try (RejectionJournal journal = new RejectionJournal(directory, 10 * RejectionJournal.RECORD_SIZE, 10, 64)) {
+            firstRequest = journal.nextRequestId();
+            journal.publish(firstRequest, 1, ErrorType.StyleNotValid);
+            assertEquals(1, journal.find(firstRequest).size());
+        }
+
+        //[Touraj] :: Both ways: the old segment is only read as far as the file goes, and never appended to
+        for (int records : new int[]{100, 5}) {
+            try (RejectionJournal journal = new RejectionJournal(directory, records * RejectionJournal.RECORD_SIZE, 10, 64)) {
+
+                List<JournalEntry> entries = journal.find(firstRequest);
+                assertEquals(1, entries.size());
+                assertEquals(ErrorType.StyleNotValid, entries.get(0).getErrorType());
+
+                long request = journal.nextRequestId();
+                journal.publish(request, 2, ErrorType.CustomerNotValid);
+                assertEquals(1, journal.find(request).size());
+                assertEquals(1, journal.find(firstRequest).size());
+            }
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.collect(Collectors.toList()).size());
+        }
+    }
+}
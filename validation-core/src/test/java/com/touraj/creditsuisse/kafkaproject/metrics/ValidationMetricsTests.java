@@ -0,0 +1,82 @@
+package com.touraj.creditsuisse.kafkaproject.metrics;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationMetricsTests {
+
+    @Test
+    public void testHistogramPercentilesWithinBucketError() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100000, snapshot.getCount());
+        assertEquals(100000, snapshot.getMax());
+        assertEquals(50000.5, snapshot.getMean(), 0.001);
+
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            long exact = (long) (quantile * 100000);
+            long reported = snapshot.getValueAt(quantile);
+            assertTrue(quantile + ": " + reported, reported >= exact && reported <= exact * 1.125);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testChainCountsTradesAndRejections() {
+
+        List<IValidator> validators = ChainofValidators.initValidators();
+        ValidationMetrics metrics = new ValidationMetrics(validators);
+        Validator validator = new Validator(new ChainofValidators(validators, metrics));
+
+        JSONArray trades = new JSONArray();
+        for (int i = 0; i < 10; i++) {
+            JSONObject trade = new JSONObject();
+            trade.put("customer", i < 3 ? "PLUTO3" : "PLUTO1");
+            trade.put("type", i == 9 ? "Swap" : "Spot");
+            trade.put("ccyPair", "EURUSD");
+            trade.put("tradeDate", "2016-08-11");
+            trade.put("valueDate", "2016-08-15");
+            trades.put(trade);
+        }
+
+        RejectionBuffer sink = new RejectionBuffer();
+        validator.startValidation(trades.toString(), sink);
+
+        assertEquals(4, sink.size());
+        assertEquals(10, metrics.getTrades());
+        assertEquals(3, metrics.getRejections(ErrorType.CustomerNotValid));
+        assertEquals(1, metrics.getRejections(ErrorType.TradeTypeNotValid));
+        assertEquals(0, metrics.getRejections(ErrorType.valueDateFallinWeekend));
+
+        Map<String, Object> snapshot = metrics.snapshot();
+
+        Map<String, Object> byType = (Map<String, Object>) ((Map<String, Object>) snapshot.get("trades")).get("byType");
+        assertEquals(9L, byType.get("Spot"));
+        assertEquals(1L, byType.get("UNKNOWN"));
+
+        Map<String, Object> batchSize = (Map<String, Object>) ((Map<String, Object>) snapshot.get("batches")).get("size");
+        assertEquals(1L, batchSize.get("count"));
+        assertEquals(10L, batchSize.get("max"));
+
+        Map<String, Object> weekend = (Map<String, Object>) ((Map<String, Object>) snapshot.get("validatorLatencyNanos")).get("WeekendValidator");
+        assertEquals(9L, ((Map<String, Object>) weekend.get("Spot")).get("count"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.touraj.creditsuisse.kafkaproject.rules;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.BeforeDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.ExcerciseStartDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ExpiryAndPrimiumDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.StyleValidator;
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RuleSetTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRulesMatchHandWrittenValidators() throws Exception {
+
+        Path file = folder.newFile("rules.json").toPath();
+        try (InputStream in = RuleSetTests.class.getResourceAsStream("/rules/date-and-style-rules.json")) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        ChainofValidators handWritten = new ChainofValidators(Arrays.asList(new BeforeDateValidator(), new StyleValidator(),
+                new ExcerciseStartDateValidator(), new ExpiryAndPrimiumDateValidator()));
+        ChainofValidators declarative = new ChainofValidators(Collections.singletonList(
+                new DeclarativeRuleValidator(new RuleSetRegistry(file, 0))));
+
+        JSONArray trades = new TradeGenerator(29, "mixed", 0.5).batch(5000);
+        for (int i = 0; i < trades.length(); i += 5) {
+            JSONObject trade = trades.getJSONObject(i);
+            if (trade.has("style")) {
+                trade.put("style", i % 3 == 0 ? "american" : i % 3 == 1 ? "BERMUDAN" : "European");
+                trade.put("excerciseStartDate", "2016-08-10");
+            }
+        }
+
+        RejectionBuffer expected = new RejectionBuffer();
+        handWritten.executeChain(trades, expected);
+        RejectionBuffer actual = new RejectionBuffer();
+        declarative.executeChain(trades, actual);
+
+        assertTrue(expected.size() > 500);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("rejection " + i, expected.getTradeNumber(i), actual.getTradeNumber(i));
+            assertEquals("rejection " + i, expected.getErrorType(i), actual.getErrorType(i));
+        }
+    }
+
+    @Test
+    public void testDateOrderingAndLargeValueSets() {
+
+        StringBuilder customers = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            customers.append(i == 0 ? "" : ",").append("\"PLUTO").append(i).append('"');
+        }
+        RuleSet ruleSet = RuleSet.compile(new JSONArray("["
+                + "{\"require\": [{\"before\": [\"tradeDate\", \"premiumDate\", \"expiryDate\", \"deliveryDate\"]}],"
+                + " \"types\": [\"VanillaOption\"], \"error\": \"InvalidExpiryAndPrimiumDate\"},"
+                + "{\"require\": [{\"field\": \"customer\", \"in\": [" + customers + "]}], \"error\": \"CustomerNotValid\"}]"));
+
+        JSONObject trade = new TradeGenerator(3, "option", 0).vanillaOption(null);
+        trade.put("tradeDate", "2016-08-11").put("premiumDate", "2016-08-12").put("expiryDate", "2016-08-19").put("deliveryDate", "2016-08-22");
+        trade.put("customer", "PLUTO19");
+
+        RejectionBuffer sink = new RejectionBuffer();
+        assertTrue(ruleSet.validate(new JsonTrade(trade), 1, sink));
+
+        trade.put("premiumDate", "2016-08-19");
+        trade.put("customer", "pluto19");
+        assertFalse(ruleSet.validate(new JsonTrade(trade), 2, sink));
+
+        assertEquals(2, sink.size());
+        assertEquals(ErrorType.InvalidExpiryAndPrimiumDate, sink.getErrorType(0));
+        assertEquals(ErrorType.CustomerNotValid, sink.getErrorType(1));
+
+        //[Touraj] :: The first rule is for options only
+        sink.clear();
+        assertTrue(ruleSet.validate(new JsonTrade(new TradeGenerator(3, "spot", 0).spotOrForward("Spot", "2016-08-15", null)
+                .put("customer", "PLUTO1")), 3, sink));
+    }
+
+    @Test
+    public void testReloadSwapsRuleSetAndKeepsItOnBadFile() throws Exception {
+
+        Path file = folder.newFile("rules.json").toPath();
+        write(file, "[{\"name\": \"onlyEuropean\", \"types\": [\"VanillaOption\"],"
+                + " \"require\": [{\"field\": \"style\", \"in\": [\"EUROPEAN\"]}], \"error\": \"StyleNotValid\"}]");
+
+        RuleSetRegistry registry = new RuleSetRegistry(file, 0);
+        AtomicInteger reloads = new AtomicInteger();
+        registry.addReloadListener(reloads::incrementAndGet);
+        RuleSet before = registry.getRuleSet();
+        assertEquals(1, before.size());
+
+        write(file, "[]");
+        registry.reload();
+        assertEquals(0, registry.getRuleSet().size());
+        assertEquals(1, reloads.get());
+
+        //[Touraj] :: A reader holding the old rule set still runs it
+        RejectionBuffer sink = new RejectionBuffer();
+        before.validate(new JsonTrade(new TradeGenerator(5, "option", 0).vanillaOption(null).put("style", "AMERICAN")), 1, sink);
+        assertEquals(1, sink.size());
+
+        RuleSet current = registry.getRuleSet();
+        for (String bad : new String[]{
+                "[{\"name\": \"typo\", \"require\": [{\"before\": [\"tradeDate\", \"valueDat\"]}], \"error\": \"valueDateNotbeforeTradeDate\"}]",
+                "[{\"name\": \"noSuchError\", \"require\": [{\"before\": [\"tradeDate\", \"valueDate\"]}], \"error\": \"Nope\"}]",
+                "[{\"name\": \"noSuchType\", \"types\": [\"Swap\"], \"require\": [{\"before\": [\"tradeDate\", \"valueDate\"]}], \"error\": \"StyleNotValid\"}]",
+                "[{\"name\": \"noRequire\", \"error\": \"StyleNotValid\"}]",
+                "[{"}) {
+            write(file, bad);
+            try {
+                registry.reload();
+                fail("Rules do not compile: " + bad);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), bad.length() < 3 || e.getMessage().startsWith(new JSONArray(bad).getJSONObject(0).getString("name")));
+            }
+            assertSame(current, registry.getRuleSet());
+        }
+        assertEquals(1, reloads.get());
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package com.touraj.creditsuisse.kafkaproject.tcp;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class TcpValidationServerTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPipelinedFramesAnsweredInOrderPerConnection() throws Exception {
+
+        List<IValidator> validators = ChainofValidators.initValidators();
+        ValidationMetrics metrics = new ValidationMetrics(validators);
+        ChainofValidators chain = new ChainofValidators(validators, metrics);
+
+        int clients = 3;
+        int trades = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try (TcpValidationServer server = new TcpValidationServer(chain, null, 0, 2)) {
+
+            Future<?>[] results = new Future<?>[clients];
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                results[c] = executor.submit(() -> {
+                    JSONArray batch = new TradeGenerator(seed, "mixed", 0.5).batch(trades);
+                    RejectionBuffer expected = new RejectionBuffer();
+                    new ChainofValidators().executeChain(batch, expected);
+
+                    RejectionBuffer actual = new RejectionBuffer();
+                    try (TcpValidationClient client = new TcpValidationClient("localhost", server.getPort())) {
+                        //[Touraj] :: Both encodings on one connection, the whole batch before the first response is read
+                        for (int i = 0; i < trades; i++) {
+                            if (i % 10 == 0) {
+                                client.sendJson(batch.getJSONObject(i));
+                            } else {
+                                client.send(batch.getJSONObject(i));
+                            }
+                        }
+                        client.flush();
+                        for (int i = 1; i <= trades; i++) {
+                            assertEquals(i, client.receive(actual));
+                        }
+
+                        //[Touraj] :: The connection stays usable after an unreadable trade
+                        client.sendJson(new JSONObject());
+                        client.send(batch.getJSONObject(0));
+                        client.flush();
+                        RejectionBuffer unparsable = new RejectionBuffer();
+                        assertEquals(trades + 1, client.receive(unparsable));
+                        assertEquals(1, unparsable.size());
+                        assertEquals(ErrorType.TradeNotParsable, unparsable.getErrorType(0));
+                        assertEquals(trades + 2, client.receive(new RejectionBuffer()));
+                    }
+
+                    assertEquals(expected.size(), actual.size());
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertEquals("rejection " + i, expected.getTradeNumber(i), actual.getTradeNumber(i));
+                        assertEquals("rejection " + i, expected.getErrorType(i), actual.getErrorType(i));
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Object> tcp = (Map<String, Object>) metrics.snapshot().get("tcp");
+        assertEquals((long) clients * (trades + 2), ((Map<String, Object>) tcp.get("frameLatencyNanos")).get("count"));
+    }
+
+    @Test
+    public void testInvalidFrameLengthClosesConnection() throws Exception {
+
+        try (TcpValidationServer server = new TcpValidationServer(new ChainofValidators(), null, 0, 1);
+             Socket socket = new Socket("localhost", server.getPort())) {
+
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(-1);
+            out.flush();
+
+            assertEquals(-1, read(socket.getInputStream()));
+        }
+    }
+
+    @Test
+    public void testDeeplyNestedJsonIsNotParsable() throws Exception {
+
+        byte[] nested = new byte[BinaryTradeFormat.MAX_RECORD_LENGTH];
+        Arrays.fill(nested, (byte) '[');
+        byte[] prefix = "{\"trade\":".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(prefix, 0, nested, 0, prefix.length);
+        JSONObject trade = new TradeGenerator(1, "spot", 0).spotOrForward("Spot", "2016-08-15", null);
+        byte[] valid = trade.toString().getBytes(StandardCharsets.UTF_8);
+
+        //[Touraj] :: One event loop, the one that also accepts the connections
+        try (TcpValidationServer server = new TcpValidationServer(new ChainofValidators(), null, 0, 1);
+             Socket socket = new Socket("localhost", server.getPort())) {
+
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(nested.length);
+            out.write(nested);
+            out.writeInt(valid.length);
+            out.write(valid);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertEquals(5, in.readInt());
+            assertEquals(1, in.readInt());
+            assertEquals(ErrorType.TradeNotParsable.ordinal(), in.readByte());
+            assertEquals(4, in.readInt());
+            assertEquals(2, in.readInt());
+
+            try (TcpValidationClient client = new TcpValidationClient("localhost", server.getPort())) {
+                client.send(trade);
+                client.flush();
+                RejectionBuffer rejections = new RejectionBuffer();
+                assertEquals(1, client.receive(rejections));
+                assertEquals(0, rejections.size());
+            }
+        }
+    }
+
+    private static int read(InputStream in) {
+        try {
+            return in.read();
+        } catch (IOException e) {
+            //[Touraj] :: A reset is as good as an end of stream here
+            return -1;
+        }
+    }
+}
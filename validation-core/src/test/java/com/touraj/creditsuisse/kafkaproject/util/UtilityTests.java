@@ -0,0 +1,100 @@
+package com.touraj.creditsuisse.kafkaproject.util;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.CcyPairValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.JSONArraySink;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Currency;
+
+public class UtilityTests {
+
+	@Test
+	public void testBeforeDate() {
+
+		String firstDate = "2016-08-11";
+		String secondDate = "2016-08-18";
+
+		boolean result = Utility.checkBeforeDate(firstDate, secondDate);
+
+		Assert.assertTrue(result);
+
+	}
+
+	@Test
+	public void testCurrencyRegistryAndCcyPair() {
+
+		for (Currency currency : Currency.getAvailableCurrencies()) {
+			Assert.assertTrue(Utility.isValidCurrencyISO4217(currency.getCurrencyCode()));
+		}
+		Assert.assertTrue(!Utility.isValidCurrencyISO4217("UDS"));
+		Assert.assertTrue(!Utility.isValidCurrencyISO4217("usd"));
+		Assert.assertTrue(!Utility.isValidCurrencyISO4217("USDX"));
+		Assert.assertTrue(!Utility.isValidCurrencyISO4217(null));
+
+		CcyPairValidator validator = new CcyPairValidator();
+		JSONArray messages = new JSONArray();
+		String[] pairs = {"EURUSD", "EURUDS", "EUREUR", "EUR/USD", null};
+		for (int i = 0; i < pairs.length; i++) {
+			JSONObject trade = new JSONObject();
+			trade.put("type", "Spot");
+			trade.put("ccyPair", pairs[i]);
+			validator.processValidation(new JsonTrade(trade), i + 1, new JSONArraySink(messages));
+		}
+
+		Assert.assertEquals(4, messages.length());
+		Assert.assertEquals(2, messages.getJSONObject(0).getInt("TradeNumber"));
+		Assert.assertEquals("ccyPairNotValidISO4217", messages.getJSONObject(0).getString("ErrorType"));
+
+	}
+
+	@Test
+	public void testIfDateFallInWeekend() {
+
+		String date = "2017-06-11";
+
+		boolean result = Utility.isDateFallinWeekend(date);
+
+		Assert.assertTrue(result);
+
+	}
+
+	@Test
+	public void testEpochDayMatchesLocalDate() {
+
+		for (LocalDate date = LocalDate.of(1999, 1, 1); date.getYear() < 2031; date = date.plusDays(1)) {
+
+			int epochDay = EpochDay.parse(date.toString());
+
+			Assert.assertEquals(date.toEpochDay(), epochDay);
+			Assert.assertEquals(date.getDayOfWeek().getValue(), EpochDay.dayOfWeek(epochDay));
+		}
+
+		Assert.assertEquals(EpochDay.INVALID, EpochDay.parse("2017-02-29"));
+		Assert.assertEquals(EpochDay.INVALID, EpochDay.parse("2017-6-11"));
+		Assert.assertEquals(EpochDay.INVALID, EpochDay.parse("not a date"));
+
+		//[Touraj] :: An invalid date is never in order, nor on a weekend
+		Assert.assertFalse(Utility.isValidDate(EpochDay.parse("2017-6-11")));
+		Assert.assertTrue(Utility.isValidDate(EpochDay.parse("2017-06-11")));
+		Assert.assertFalse(Utility.checkBeforeDate("2017-6-10", "2017-06-11"));
+		Assert.assertFalse(Utility.isDateFallinWeekend("2017-6-11"));
+
+	}
+
+	@Test
+	public void testIfCurrencyIsValidISO4217() {
+
+		String currency = "USD";
+
+		boolean result = Utility.isValidCurrencyISO4217(currency);
+
+		Assert.assertTrue(result);
+
+	}
+
+}
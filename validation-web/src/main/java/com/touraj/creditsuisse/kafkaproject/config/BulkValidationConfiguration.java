@@ -0,0 +1,41 @@
+package com.touraj.creditsuisse.kafkaproject.config;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.batch.BulkValidationReport;
+import com.touraj.creditsuisse.kafkaproject.batch.BulkValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Offline bulk mode, run once at startup when validation.bulk.input is set:
+ *
+ * java -jar kafkacreditsuisse.jar --spring.main.web-environment=false
+ *      --validation.bulk.input=trades.ndjson --validation.bulk.output=rejections.ndjson
+ */
+@Configuration
+@ConditionalOnProperty(name = "validation.bulk.input")
+public class BulkValidationConfiguration {
+
+    @Bean
+    public BulkValidator bulkValidator(ChainofValidators chainofValidators, ForkJoinPool validationPool,
+                                       @Value("${validation.bulk.region-size-mb:64}") long regionSizeMb) {
+        return new BulkValidator(chainofValidators, validationPool, regionSizeMb * 1024 * 1024);
+    }
+
+    @Bean
+    public CommandLineRunner bulkValidationRunner(BulkValidator bulkValidator,
+                                                  @Value("${validation.bulk.input}") String input,
+                                                  @Value("${validation.bulk.output:rejections.ndjson}") String output) {
+        return args -> {
+            System.out.printf("Bulk validation of %s into %s\n", input, output);
+            BulkValidationReport report = bulkValidator.validate(Paths.get(input), Paths.get(output));
+            report.print();
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.touraj.creditsuisse.kafkaproject.config;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.coalescing.RequestCoalescer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Coalescing of small concurrent POST /validatetrades requests, switched on with
+ * validation.coalescing.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "validation.coalescing.enabled", havingValue = "true")
+public class CoalescingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public RequestCoalescer requestCoalescer(Validator validator, ChainofValidators chainofValidators,
+                                             @Value("${validation.coalescing.window-micros:500}") long windowMicros,
+                                             @Value("${validation.coalescing.max-request-trades:16}") int maxRequestTrades,
+                                             @Value("${validation.coalescing.max-batch-trades:1024}") int maxBatchTrades,
+                                             @Value("${validation.coalescing.queue-capacity:4096}") int queueCapacity) {
+        return new RequestCoalescer(validator, chainofValidators.getMetrics(), windowMicros, maxRequestTrades,
+                maxBatchTrades, queueCapacity);
+    }
+}
@@ -0,0 +1,24 @@
+package com.touraj.creditsuisse.kafkaproject.config;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.kafka.KafkaValidationProperties;
+import com.touraj.creditsuisse.kafkaproject.kafka.KafkaValidationService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Kafka ingestion mode, switched on with validation.kafka.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "validation.kafka.enabled", havingValue = "true")
+@EnableConfigurationProperties(KafkaValidationProperties.class)
+public class KafkaValidationConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public KafkaValidationService kafkaValidationService(ChainofValidators chainofValidators,
+                                                         KafkaValidationProperties properties) {
+        return new KafkaValidationService(chainofValidators, properties);
+    }
+}
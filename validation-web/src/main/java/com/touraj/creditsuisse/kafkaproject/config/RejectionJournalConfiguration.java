@@ -0,0 +1,24 @@
+package com.touraj.creditsuisse.kafkaproject.config;
+
+import com.touraj.creditsuisse.kafkaproject.journal.RejectionJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Journal of every rejection returned by the REST endpoints, queried with GET /rejections.
+ */
+@Configuration
+public class RejectionJournalConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public RejectionJournal rejectionJournal(@Value("${validation.journal.dir:journal}") String directory,
+                                             @Value("${validation.journal.segment-size-mb:64}") long segmentSizeMb,
+                                             @Value("${validation.journal.max-segments:16}") int maxSegments,
+                                             @Value("${validation.journal.buffer-capacity:65536}") int bufferCapacity) throws IOException {
+        return new RejectionJournal(Paths.get(directory), segmentSizeMb * 1024 * 1024, maxSegments, bufferCapacity);
+    }
+}
@@ -0,0 +1,26 @@
+package com.touraj.creditsuisse.kafkaproject.config;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.journal.RejectionJournal;
+import com.touraj.creditsuisse.kafkaproject.tcp.TcpValidationServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Pipelined TCP validation endpoint next to the REST API, switched on with validation.tcp.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "validation.tcp.enabled", havingValue = "true")
+public class TcpServerConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public TcpValidationServer tcpValidationServer(ChainofValidators chainofValidators, RejectionJournal rejectionJournal,
+                                                   @Value("${validation.tcp.port:9191}") int port,
+                                                   @Value("${validation.tcp.threads:1}") int threads) throws IOException {
+        return new TcpValidationServer(chainofValidators, rejectionJournal, port, threads);
+    }
+}
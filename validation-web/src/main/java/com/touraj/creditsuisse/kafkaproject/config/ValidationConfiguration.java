@@ -0,0 +1,77 @@
+package com.touraj.creditsuisse.kafkaproject.config;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationEngine;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetricsEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The validation is built by {@link ValidationEngine}, the one place that knows the validators,
+ * their order and the validation.* settings with their defaults. Spring only hands it the
+ * settings, exposes what it built to the other configurations and closes it on shutdown.
+ */
+@Configuration
+public class ValidationConfiguration {
+
+    private static final String SETTINGS_PREFIX = "validation.";
+
+    @Bean(destroyMethod = "close")
+    public ValidationEngine validationEngine(ConfigurableEnvironment environment) {
+        return new ValidationEngine(validationSettings(environment));
+    }
+
+    /**
+     * Every validation.* key of the environment, with Spring's precedence and placeholders applied
+     */
+    static Properties validationSettings(ConfigurableEnvironment environment) {
+
+        Properties settings = new Properties();
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (source instanceof EnumerablePropertySource) {
+                for (String name : ((EnumerablePropertySource<?>) source).getPropertyNames()) {
+                    if (name.startsWith(SETTINGS_PREFIX) && !settings.containsKey(name)) {
+                        settings.setProperty(name, environment.getProperty(name));
+                    }
+                }
+            }
+        }
+        return settings;
+    }
+
+    @Bean
+    public ChainofValidators chainofValidators(ValidationEngine validationEngine) {
+        return validationEngine.getChain();
+    }
+
+    @Bean
+    public Validator validator(ValidationEngine validationEngine) {
+        return validationEngine.getValidator();
+    }
+
+    @Bean
+    public ValidationMetrics validationMetrics(ValidationEngine validationEngine) {
+        return validationEngine.getMetrics();
+    }
+
+    @Bean
+    public ValidationMetricsEndpoint validationMetricsEndpoint(ValidationEngine validationEngine) {
+        return new ValidationMetricsEndpoint(validationEngine.getMetrics(), validationEngine.getResultCache());
+    }
+
+    /**
+     * The engine's pool, shut down with the engine
+     */
+    @Bean(destroyMethod = "")
+    public ForkJoinPool validationPool(ValidationEngine validationEngine) {
+        return validationEngine.getPool();
+    }
+}
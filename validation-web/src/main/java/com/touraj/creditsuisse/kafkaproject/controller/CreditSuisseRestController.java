@@ -0,0 +1,215 @@
+package com.touraj.creditsuisse.kafkaproject.controller;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionJson;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.coalescing.RequestCoalescer;
+import com.touraj.creditsuisse.kafkaproject.Validator.TradeStreamReader;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.journal.JournalEntry;
+import com.touraj.creditsuisse.kafkaproject.journal.RejectionJournal;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Created by toraj on 06/08/2017.
+ */
+@RestController
+public class CreditSuisseRestController {
+
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    /**
+     * Content type of the validation results, as Spring sent it for the String those endpoints used to return
+     */
+    public static final String RESULT_CONTENT_TYPE = "text/plain;charset=ISO-8859-1";
+
+    public static final String VALIDATION_SUCCESSFUL = "Validation Successful :: No error found in trade data";
+
+    /**
+     * Response header with the id the request's rejections are journaled under
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private final Validator validator;
+
+    private final RejectionJournal rejectionJournal;
+
+    private final RequestCoalescer requestCoalescer;
+
+    public CreditSuisseRestController(Validator validator, RejectionJournal rejectionJournal) {
+        this(validator, rejectionJournal, Optional.empty());
+    }
+
+    /**
+     * @param requestCoalescer present when small /validatetrades requests are merged into shared batches
+     */
+    @Autowired
+    public CreditSuisseRestController(Validator validator, RejectionJournal rejectionJournal,
+                                      Optional<RequestCoalescer> requestCoalescer) {
+        this.validator = validator;
+        this.rejectionJournal = rejectionJournal;
+        this.requestCoalescer = requestCoalescer.orElse(null);
+    }
+
+    /**
+     * @param failFast ?failFast=true on any validation endpoint reports only the first rejection of each trade
+     */
+    private Validator validator(boolean failFast) {
+        return failFast ? validator.failFast() : validator;
+    }
+
+    /**
+     * @param tradeJSON consumes a JSON array including tardes information
+     * validate trades information and writes validation results to the client
+     * @throws Exception
+     */
+    @RequestMapping(
+            value = "/validatetrades",
+            method = RequestMethod.POST,
+            consumes = "text/plain")
+    public void validatetrades(@RequestBody String tradeJSON, HttpServletResponse response,
+            @RequestParam(value = "failFast", required = false, defaultValue = "false") boolean failFast) throws Exception {
+
+        System.out.println("In validatetrades method...");
+
+        RejectionBuffer validationMessages = new RejectionBuffer();
+
+        JSONArray trades = new JSONArray(tradeJSON);
+        ValidationSink sink = journaling(validationMessages, response);
+
+        //[Touraj] :: Fail-fast requests are not coalesced, a merged batch runs in one mode
+        if (requestCoalescer != null && !failFast) {
+            requestCoalescer.validate(trades, sink);
+        } else {
+            validator(failFast).startValidation(trades, sink);
+        }
+
+        writeResponse(validationMessages, response);
+    }
+
+    /**
+     * @param tradeStream trades in the compact binary encoding described in {@link BinaryTradeFormat}
+     * validate trades information and writes the same validation results as for a JSON body
+     * @throws Exception
+     */
+    @RequestMapping(
+            value = "/validatetrades",
+            method = RequestMethod.POST,
+            consumes = BinaryTradeFormat.CONTENT_TYPE)
+    public void validatetradesBinary(InputStream tradeStream, HttpServletResponse response,
+            @RequestParam(value = "failFast", required = false, defaultValue = "false") boolean failFast) throws Exception {
+
+        RejectionBuffer validationMessages = new RejectionBuffer();
+
+        validator(failFast).startBinaryValidation(tradeStream, journaling(validationMessages, response));
+
+        writeResponse(validationMessages, response);
+    }
+
+    /**
+     * @param tradeStream the same JSON array as /validatetrades, read straight from the request body
+     * validate trades while the body is still arriving, one trade at a time, and writes
+     * the same validation results as /validatetrades
+     * @throws Exception
+     */
+    @RequestMapping(
+            value = "/validatetrades/stream",
+            method = RequestMethod.POST,
+            consumes = "text/plain")
+    public void validatetradesStreaming(InputStream tradeStream, HttpServletResponse response,
+            @RequestParam(value = "failFast", required = false, defaultValue = "false") boolean failFast) throws Exception {
+
+        RejectionBuffer validationMessages = new RejectionBuffer();
+
+        validator(failFast).startValidation(tradeStream, journaling(validationMessages, response));
+
+        writeResponse(validationMessages, response);
+    }
+
+    /**
+     * @param tradeStream the same JSON array as /validatetrades, read straight from the request body
+     * writes each rejection as its own JSON line as soon as it is found, over chunked transfer encoding,
+     * and ends with a {"Summary":{"Trades":n,"Rejections":m}} line
+     * @throws Exception
+     */
+    @RequestMapping(
+            value = "/validatetrades/ndjson",
+            method = RequestMethod.POST,
+            consumes = "text/plain")
+    public void validatetradesNdjson(InputStream tradeStream, HttpServletResponse response,
+            @RequestParam(value = "failFast", required = false, defaultValue = "false") boolean failFast) throws Exception {
+
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+
+        TradeStreamReader reader = new TradeStreamReader(tradeStream);
+        NdjsonValidationSink sink = new NdjsonValidationSink(response.getOutputStream());
+        ValidationSink journalingSink = journaling(sink, response);
+
+        String error = null;
+        try {
+            validator(failFast).startValidation(reader, journalingSink);
+        } catch (JSONException e) {
+            //[Touraj] :: The status line is already sent, so the failure can only be reported in the summary
+            error = e.getMessage();
+        }
+
+        sink.writeSummary(reader.getTradesRead(), error);
+    }
+
+    /**
+     * @param requestId the X-Request-Id of an earlier validation
+     * @param tradeNumber only this trade of the request, all trades when missing
+     * @return journaled rejections as [{"RequestId","TradeNumber","ErrorType","Timestamp"}]
+     * @throws Exception
+     */
+    @RequestMapping(
+            value = "/rejections",
+            method = RequestMethod.GET,
+            produces = "application/json")
+    public String rejections(@RequestParam("requestId") long requestId,
+                             @RequestParam(value = "tradeNumber", required = false, defaultValue = "-1") int tradeNumber) throws Exception {
+
+        JSONArray rejections = new JSONArray();
+        for (JournalEntry entry : rejectionJournal.find(requestId, tradeNumber)) {
+            rejections.put(entry.toJSON());
+        }
+        return rejections.toString();
+    }
+
+    private ValidationSink journaling(ValidationSink sink, HttpServletResponse response) {
+
+        long requestId = rejectionJournal.nextRequestId();
+        //[Touraj] :: Set before any output, the NDJSON endpoint commits the response early
+        response.setHeader(REQUEST_ID_HEADER, Long.toString(requestId));
+        return rejectionJournal.journaling(requestId, sink);
+    }
+
+    /**
+     * Rejections are serialized straight from the buffer into the response, see {@link RejectionJson#writeArray}
+     */
+    private void writeResponse(RejectionBuffer validationMessages, HttpServletResponse response) throws IOException {
+
+        response.setContentType(RESULT_CONTENT_TYPE);
+
+        if (validationMessages.size() == 0) {
+            response.getOutputStream().write(VALIDATION_SUCCESSFUL.getBytes(StandardCharsets.ISO_8859_1));
+        } else {
+            RejectionJson.writeArray(validationMessages, response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.touraj.creditsuisse.kafkaproject.controller;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionJson;
+import com.touraj.creditsuisse.kafkaproject.Validator.ValidationSink;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes every rejection to the response as its own newline-delimited JSON line and flushes it,
+ * so the client sees it while the rest of the batch is still being validated. Nothing is kept
+ * in memory apart from the counters of the summary line.
+ */
+public class NdjsonValidationSink implements ValidationSink {
+
+    private final OutputStream out;
+    private int rejections = 0;
+
+    public NdjsonValidationSink(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void reject(int tradeNumber, ErrorType errorType) {
+
+        try {
+            out.write(RejectionJson.prefix(errorType));
+            out.write(Integer.toString(tradeNumber).getBytes(StandardCharsets.US_ASCII));
+            out.write('}');
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        rejections++;
+    }
+
+    public int getRejections() {
+        return rejections;
+    }
+
+    /**
+     * Last line of the response: {"Summary":{"Trades":n,"Rejections":m}}, plus "Error" when the
+     * batch could not be read to the end.
+     */
+    public void writeSummary(int trades, String error) throws IOException {
+
+        JSONObject summary = new JSONObject();
+        summary.put("Trades", trades);
+        summary.put("Rejections", rejections);
+        if (error != null) {
+            summary.put("Error", error);
+        }
+
+        out.write(new JSONObject().put("Summary", summary).toString().getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+        out.flush();
+    }
+}
@@ -0,0 +1,244 @@
+package com.touraj.creditsuisse.kafkaproject.kafka;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.CrossTradeBookings;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.apache.kafka.clients.consumer.CommitFailedException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Poll loop of one consumer thread. Each record value is one trade object; a polled batch is
+ * validated, valid trades go to the valid topic and rejected ones, with their errors, to the
+ * rejected topic. Offsets are committed only once every result of the batch is acknowledged,
+ * and the next poll only happens after that, so a slow validation slows consumption down
+ * instead of piling up records in memory. A batch whose results can not be published or whose
+ * offsets can not be committed is read again. Any other failure ends the loop with
+ * {@link #getFailure()} set, for {@link KafkaValidationService} to start a new consumer.
+ */
+public class KafkaTradeValidator implements Runnable {
+
+    private final Consumer<String, String> consumer;
+    private final Producer<String, String> producer;
+    private final ChainofValidators chainofValidators;
+    private final KafkaValidationProperties properties;
+
+    private volatile boolean running = true;
+
+    //[Touraj] :: Why the loop ended, null when it was shut down or interrupted
+    private volatile RuntimeException failure;
+
+    public KafkaTradeValidator(Consumer<String, String> consumer, Producer<String, String> producer,
+                               ChainofValidators chainofValidators, KafkaValidationProperties properties) {
+        this.consumer = consumer;
+        this.producer = producer;
+        this.chainofValidators = chainofValidators;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run() {
+
+        try {
+            consumer.subscribe(Collections.singletonList(properties.getInputTopic()));
+
+            while (running) {
+                ConsumerRecords<String, String> records = consumer.poll(properties.getPollTimeoutMs());
+                if (!records.isEmpty()) {
+                    processBatch(records);
+                }
+            }
+        } catch (WakeupException e) {
+            //[Touraj] :: Expected when shutdown() interrupts a poll
+            if (running) {
+                fail(e);
+            }
+        } catch (InterruptException e) {
+            //[Touraj] :: Kafka's own, the thread was interrupted: stop as asked and keep the flag set
+            System.out.printf("Kafka consumer %s interrupted, stopping\n", Thread.currentThread().getName());
+        } catch (RuntimeException e) {
+            fail(e);
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private void fail(RuntimeException e) {
+        failure = e;
+        System.out.printf("Kafka consumer %s failed: %s\n", Thread.currentThread().getName(), e);
+    }
+
+    /**
+     * @return what ended {@link #run()}, null when it was shut down or interrupted
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    public void shutdown() {
+        running = false;
+        consumer.wakeup();
+    }
+
+    void processBatch(ConsumerRecords<String, String> records) {
+
+        long start = System.nanoTime();
+
+        RejectionBuffer buffer = new RejectionBuffer();
+        CrossTradeBookings bookings = chainofValidators.newBookings();
+        try {
+            if (!publishBatch(records, buffer, bookings)) {
+                return;
+            }
+        } catch (CommitFailedException e) {
+            //[Touraj] :: A rebalance took partitions away meanwhile: what is still ours is read again, the rest by its new owner
+            System.out.printf("Committing offsets failed, retrying batch: %s\n", e);
+            rewind(records, bookings);
+            return;
+        } catch (RuntimeException e) {
+            //[Touraj] :: Not committed either, the next consumer reads the batch again
+            if (bookings != null) {
+                bookings.withdraw();
+            }
+            throw e;
+        }
+
+        ValidationMetrics metrics = chainofValidators.getMetrics();
+        if (metrics != null) {
+            metrics.recordBatch(records.count(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return false when the batch was rewound to be read again
+     */
+    private boolean publishBatch(ConsumerRecords<String, String> records, RejectionBuffer buffer, CrossTradeBookings bookings) {
+
+        List<Future<RecordMetadata>> results = new ArrayList<>(records.count());
+
+        int tradeNumber = 0;
+        for (ConsumerRecord<String, String> record : records) {
+
+            buffer.clear();
+            tradeNumber++;
+
+            JSONObject trade = validate(record.value(), tradeNumber, buffer, bookings);
+
+            if (buffer.size() == 0) {
+                results.add(producer.send(new ProducerRecord<>(properties.getValidTopic(), record.key(), record.value())));
+            } else {
+                results.add(producer.send(new ProducerRecord<>(properties.getRejectedTopic(), record.key(),
+                        rejection(record, trade, buffer))));
+            }
+        }
+
+        try {
+            for (Future<RecordMetadata> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rewind(records, bookings);
+            return false;
+        } catch (ExecutionException e) {
+            //[Touraj] :: Nothing is committed, the whole batch is read and validated again
+            System.out.printf("Publishing validation results failed, retrying batch: %s\n", e.getCause());
+            rewind(records, bookings);
+            return false;
+        }
+
+        consumer.commitSync(nextOffsets(records));
+        return true;
+    }
+
+    private JSONObject validate(String value, int tradeNumber, RejectionBuffer buffer, CrossTradeBookings bookings) {
+
+        if (value == null) {
+            //[Touraj] :: A tombstone or an empty message
+            notParsable(tradeNumber, buffer);
+            return null;
+        }
+
+        try {
+            JSONObject trade = new JSONObject(value);
+            chainofValidators.validateTrade(trade, tradeNumber, buffer, bookings);
+            return trade;
+        } catch (JSONException e) {
+            //[Touraj] :: Bad JSON or a missing or mistyped field must not stop the partition, reject the record instead
+            notParsable(tradeNumber, buffer);
+            return null;
+        }
+    }
+
+    private void notParsable(int tradeNumber, RejectionBuffer buffer) {
+        buffer.clear();
+        buffer.reject(tradeNumber, ErrorType.TradeNotParsable);
+        if (chainofValidators.getMetrics() != null) {
+            chainofValidators.getMetrics().recordRejection(ErrorType.TradeNotParsable);
+        }
+    }
+
+    private String rejection(ConsumerRecord<String, String> record, JSONObject trade, RejectionBuffer buffer) {
+
+        JSONArray errors = new JSONArray();
+        for (int i = 0; i < buffer.size(); i++) {
+            errors.put(buffer.getErrorType(i).name());
+        }
+
+        JSONObject rejection = new JSONObject();
+        rejection.put("partition", record.partition());
+        rejection.put("offset", record.offset());
+        rejection.put("trade", trade != null ? trade : record.value());
+        rejection.put("errors", errors);
+
+        return rejection.toString();
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> nextOffsets(ConsumerRecords<String, String> records) {
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<String, String>> partitionRecords = records.records(partition);
+            long lastOffset = partitionRecords.get(partitionRecords.size() - 1).offset();
+            offsets.put(partition, new OffsetAndMetadata(lastOffset + 1));
+        }
+        return offsets;
+    }
+
+    /**
+     * The batch will be validated again: its trades must not be duplicates of themselves
+     */
+    private void rewind(ConsumerRecords<String, String> records, CrossTradeBookings bookings) {
+        if (bookings != null) {
+            bookings.withdraw();
+        }
+        Set<TopicPartition> assigned = consumer.assignment();
+        for (TopicPartition partition : records.partitions()) {
+            if (assigned.contains(partition)) {
+                consumer.seek(partition, records.records(partition).get(0).offset());
+            }
+        }
+    }
+}
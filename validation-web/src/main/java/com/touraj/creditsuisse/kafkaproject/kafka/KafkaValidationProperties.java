@@ -0,0 +1,98 @@
+package com.touraj.creditsuisse.kafkaproject.kafka;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * validation.kafka.* settings of the Kafka ingestion mode.
+ */
+@ConfigurationProperties(prefix = "validation.kafka")
+public class KafkaValidationProperties {
+
+    private boolean enabled = false;
+    private String bootstrapServers = "localhost:9092";
+    private String groupId = "trade-validation";
+    private String inputTopic = "trades";
+    private String validTopic = "trades-valid";
+    private String rejectedTopic = "trades-rejected";
+    /**
+     * One consumer per thread; useful up to the number of partitions of the input topic
+     */
+    private int consumerThreads = 1;
+    /**
+     * Upper bound of one batch, and so of the work in flight per consumer thread
+     */
+    private int maxPollRecords = 500;
+    private long pollTimeoutMs = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getBootstrapServers() {
+        return bootstrapServers;
+    }
+
+    public void setBootstrapServers(String bootstrapServers) {
+        this.bootstrapServers = bootstrapServers;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getInputTopic() {
+        return inputTopic;
+    }
+
+    public void setInputTopic(String inputTopic) {
+        this.inputTopic = inputTopic;
+    }
+
+    public String getValidTopic() {
+        return validTopic;
+    }
+
+    public void setValidTopic(String validTopic) {
+        this.validTopic = validTopic;
+    }
+
+    public String getRejectedTopic() {
+        return rejectedTopic;
+    }
+
+    public void setRejectedTopic(String rejectedTopic) {
+        this.rejectedTopic = rejectedTopic;
+    }
+
+    public int getConsumerThreads() {
+        return consumerThreads;
+    }
+
+    public void setConsumerThreads(int consumerThreads) {
+        this.consumerThreads = consumerThreads;
+    }
+
+    public int getMaxPollRecords() {
+        return maxPollRecords;
+    }
+
+    public void setMaxPollRecords(int maxPollRecords) {
+        this.maxPollRecords = maxPollRecords;
+    }
+
+    public long getPollTimeoutMs() {
+        return pollTimeoutMs;
+    }
+
+    public void setPollTimeoutMs(long pollTimeoutMs) {
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+}
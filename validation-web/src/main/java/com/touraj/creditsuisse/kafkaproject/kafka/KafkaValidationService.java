@@ -0,0 +1,136 @@
+package com.touraj.creditsuisse.kafkaproject.kafka;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs validation.kafka.consumer-threads consumers of the same group, all sharing the validator
+ * chain and one producer. Partitions are spread over the consumers, so throughput scales with
+ * partitions and threads. A consumer whose poll loop fails is replaced by a new one, which
+ * starts again from the committed offsets of its partitions.
+ */
+public class KafkaValidationService {
+
+    private final ChainofValidators chainofValidators;
+    private final KafkaValidationProperties properties;
+
+    private static final long RESTART_BACKOFF_MS = 1000;
+
+    //[Touraj] :: Guarded by itself: the consumer threads replace their worker in it
+    private final List<KafkaTradeValidator> workers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile Producer<String, String> producer;
+    private boolean running;
+
+    public KafkaValidationService(ChainofValidators chainofValidators, KafkaValidationProperties properties) {
+        this.chainofValidators = chainofValidators;
+        this.properties = properties;
+    }
+
+    public synchronized void start() {
+
+        producer = new KafkaProducer<>(producerConfig());
+        synchronized (workers) {
+            running = true;
+        }
+
+        for (int i = 0; i < properties.getConsumerThreads(); i++) {
+            int index = i;
+            synchronized (workers) {
+                workers.add(null);
+            }
+            Thread thread = new Thread(() -> consume(index), "kafka-validation-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+
+        System.out.printf("Kafka validation started: %d consumer(s) on topic %s\n",
+                properties.getConsumerThreads(), properties.getInputTopic());
+    }
+
+    public synchronized void stop() throws InterruptedException {
+
+        synchronized (workers) {
+            running = false;
+            for (KafkaTradeValidator worker : workers) {
+                if (worker != null) {
+                    worker.shutdown();
+                }
+            }
+        }
+        for (Thread thread : threads) {
+            //[Touraj] :: Cuts short a restart backoff
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+        synchronized (workers) {
+            workers.clear();
+        }
+        threads.clear();
+
+        if (producer != null) {
+            producer.close();
+            producer = null;
+        }
+    }
+
+    private void consume(int index) {
+
+        while (true) {
+            KafkaTradeValidator worker;
+            synchronized (workers) {
+                if (!running) {
+                    return;
+                }
+                worker = new KafkaTradeValidator(new KafkaConsumer<String, String>(consumerConfig()),
+                        producer, chainofValidators, properties);
+                workers.set(index, worker);
+            }
+
+            worker.run();
+
+            if (worker.getFailure() == null) {
+                return;
+            }
+            System.out.printf("Restarting Kafka consumer %s in %d ms\n", Thread.currentThread().getName(), RESTART_BACKOFF_MS);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RESTART_BACKOFF_MS));
+        }
+    }
+
+    private Map<String, Object> consumerConfig() {
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers());
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, properties.getGroupId());
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getMaxPollRecords());
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return config;
+    }
+
+    private Map<String, Object> producerConfig() {
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers());
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return config;
+    }
+}
@@ -0,0 +1,40 @@
+package com.touraj.creditsuisse.kafkaproject.metrics;
+
+import com.touraj.creditsuisse.kafkaproject.cache.ValidationResultCache;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import java.util.Map;
+
+/**
+ * Management endpoint (GET /management/validation) with the current {@link ValidationMetrics}
+ * and, when enabled, the hit rate of the {@link ValidationResultCache}.
+ */
+public class ValidationMetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final ValidationMetrics validationMetrics;
+
+    private final ValidationResultCache resultCache;
+
+    public ValidationMetricsEndpoint(ValidationMetrics validationMetrics) {
+        this(validationMetrics, null);
+    }
+
+    /**
+     * @param resultCache null when validation runs without the cache
+     */
+    public ValidationMetricsEndpoint(ValidationMetrics validationMetrics, ValidationResultCache resultCache) {
+        //[Touraj] :: Counts and timings only, no trade data, so it needs no authentication
+        super("validation", false);
+        this.validationMetrics = validationMetrics;
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        Map<String, Object> metrics = validationMetrics.snapshot();
+        if (resultCache != null) {
+            metrics.put("resultCache", resultCache.stats());
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,105 @@
+package com.touraj.creditsuisse.kafkaproject;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.JSONArraySink;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.benchmark.TradeGenerator;
+import com.touraj.creditsuisse.kafkaproject.controller.CreditSuisseRestController;
+import com.touraj.creditsuisse.kafkaproject.journal.RejectionJournal;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"validation.journal.dir=target/journal", "validation.parallel.threads=3"})
+public class KafkaCreditSuisseApplicationTests {
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private RejectionJournal rejectionJournal;
+
+	@Autowired
+	private ForkJoinPool validationPool;
+
+	@Test
+	public void testEngineGetsSpringSettings() {
+		org.junit.Assert.assertEquals(3, validationPool.getParallelism());
+	}
+
+	@Test
+	public void testNdjsonStreamingResponse() throws Exception {
+
+		String trades = "[{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"},\n" +
+				"{\"customer\":\"PLUTO3\",\"ccyPair\":\"EURUSD\",\"type\":\"Forward\",\"direction\":\"SELL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-06\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}]";
+
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CreditSuisseRestController(validator, rejectionJournal)).build();
+
+		MockHttpServletResponse response = mockMvc.perform(post("/validatetrades/ndjson").contentType(MediaType.TEXT_PLAIN).content(trades))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(CreditSuisseRestController.NDJSON_CONTENT_TYPE))
+				.andReturn().getResponse();
+		String body = response.getContentAsString();
+
+		String[] lines = body.split("\n");
+		org.junit.Assert.assertEquals(4, lines.length);
+		org.junit.Assert.assertEquals("{\"ErrorType\":\"valueDateNotbeforeTradeDate\",\"TradeNumber\":2}", lines[0]);
+		org.junit.Assert.assertEquals("{\"ErrorType\":\"valueDateFallinWeekend\",\"TradeNumber\":2}", lines[1]);
+		org.junit.Assert.assertEquals("{\"ErrorType\":\"CustomerNotValid\",\"TradeNumber\":2}", lines[2]);
+		org.junit.Assert.assertEquals(2, new JSONObject(lines[3]).getJSONObject("Summary").getInt("Trades"));
+		org.junit.Assert.assertEquals(3, new JSONObject(lines[3]).getJSONObject("Summary").getInt("Rejections"));
+
+		//[Touraj] :: The same rejections can be read back from the journal
+		String requestId = response.getHeader(CreditSuisseRestController.REQUEST_ID_HEADER);
+		JSONArray journaled = new JSONArray(mockMvc.perform(get("/rejections").param("requestId", requestId))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+
+		org.junit.Assert.assertEquals(3, journaled.length());
+		org.junit.Assert.assertEquals("valueDateFallinWeekend", journaled.getJSONObject(1).getString("ErrorType"));
+		org.junit.Assert.assertEquals(2, journaled.getJSONObject(1).getInt("TradeNumber"));
+
+	}
+
+	@Test
+	public void testJsonResponseWrittenFromRejectionBuffer() throws Exception {
+
+		JSONArray trades = new TradeGenerator(11, "mixed", 0.5).batch(2000);
+		JSONArray expected = new JSONArray();
+		new ChainofValidators().executeChain(trades, new JSONArraySink(expected));
+
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CreditSuisseRestController(validator, rejectionJournal)).build();
+
+		//[Touraj] :: Several write buffers worth of rejections, byte for byte what JSONArray.toString() gives
+		for (String endpoint : new String[] {"/validatetrades", "/validatetrades/stream"}) {
+			MockHttpServletResponse response = mockMvc.perform(post(endpoint).contentType(MediaType.TEXT_PLAIN).content(trades.toString()))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(CreditSuisseRestController.RESULT_CONTENT_TYPE))
+					.andReturn().getResponse();
+			org.junit.Assert.assertEquals(endpoint, expected.toString(), response.getContentAsString());
+		}
+
+		String valid = new JSONArray().put(new TradeGenerator(11, "spot", 0).spotOrForward("Spot", "2016-08-15", null)).toString();
+		mockMvc.perform(post("/validatetrades").contentType(MediaType.TEXT_PLAIN).content(valid))
+				.andExpect(status().isOk())
+				.andExpect(content().string(CreditSuisseRestController.VALIDATION_SUCCESSFUL));
+
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same batch of valid trades validated from its JSON text and from its binary encoding.
+ * Both start from raw bytes, so parsing is part of what is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryTradeBenchmark {
+
+    private static final String SPOT = "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}";
+    private static final String OPTION = "{\"customer\":\"PLUTO2\",\"ccyPair\":\"EURUSD\",\"type\":\"VanillaOption\",\"style\":\"AMERICAN\",\"direction\":\"BUY\",\"strategy\":\"CALL\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"deliveryDate\":\"2016-08-22\",\"expiryDate\":\"2016-08-19\",\"excerciseStartDate\":\"2016-08-12\",\"payCcy\":\"USD\",\"premium\":0.20,\"premiumCcy\":\"USD\",\"premiumType\":\"%USD\",\"premiumDate\":\"2016-08-12\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}";
+
+    @Param({"1000"})
+    int batchSize;
+
+    private Validator validator;
+    private RejectionBuffer sink;
+    private String json;
+    private byte[] jsonBytes;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+
+        validator = new Validator(new ChainofValidators());
+        sink = new RejectionBuffer();
+
+        JSONArray trades = new JSONArray();
+        for (int i = 0; i < batchSize; i++) {
+            trades.put(new JSONObject(i % 2 == 0 ? SPOT : OPTION));
+        }
+
+        json = trades.toString();
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        binary = BinaryTradeFormat.encode(trades);
+    }
+
+    @Benchmark
+    public int validateJsonString() {
+        sink.clear();
+        validator.startValidation(json, sink);
+        return sink.size();
+    }
+
+    @Benchmark
+    public int validateJsonStream() {
+        sink.clear();
+        return validator.startValidation(new ByteArrayInputStream(jsonBytes), sink);
+    }
+
+    @Benchmark
+    public int validateBinary() throws IOException {
+        sink.clear();
+        return validator.startBinaryValidation(new ByteArrayInputStream(binary), sink);
+    }
+}
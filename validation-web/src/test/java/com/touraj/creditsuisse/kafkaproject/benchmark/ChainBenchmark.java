@@ -0,0 +1,86 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ParallelChainExecutor;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.Validator;
+import com.touraj.creditsuisse.kafkaproject.metrics.ValidationMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validator.startValidation end to end, JSON text in, rejections out, wired like the service
+ * (batches of 5000 trades or more go parallel). The 1M batch needs a few GB of heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ChainBenchmark {
+
+    @Param({"1", "100", "10000", "1000000"})
+    int batchSize;
+
+    @Param({"spot", "mixed", "option"})
+    String mix;
+
+    @Param({"0.0", "0.1", "0.5"})
+    double errorRatio;
+
+    //[Touraj] :: Cost of the per-validator timers and counters
+    @Param({"false", "true"})
+    boolean metrics;
+
+    //[Touraj] :: First rejection only, adaptive validator order
+    @Param({"false", "true"})
+    boolean failFast;
+
+    private ForkJoinPool pool;
+    private Validator validator;
+    private RejectionBuffer sink;
+    private String json;
+
+    @Setup
+    public void setUp() {
+
+        List<IValidator> validators = ChainofValidators.initValidators();
+        ChainofValidators chain = new ChainofValidators(validators, metrics ? new ValidationMetrics(validators) : null);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        validator = new Validator(chain, new ParallelChainExecutor(chain, pool, 1024), 5000);
+        if (failFast) {
+            validator = validator.failFast();
+        }
+        sink = new RejectionBuffer();
+
+        json = new TradeGenerator(42, mix, errorRatio).batch(batchSize).toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int startValidation() {
+        sink.clear();
+        validator.startValidation(json, sink);
+        return sink.size();
+    }
+}
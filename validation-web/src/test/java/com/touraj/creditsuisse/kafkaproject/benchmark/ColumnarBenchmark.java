@@ -0,0 +1,89 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.Trade;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeFormat;
+import com.touraj.creditsuisse.kafkaproject.binary.BinaryTradeReader;
+import com.touraj.creditsuisse.kafkaproject.columnar.ColumnarValidator;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row-by-row chain against the columnar engine, on the same parsed JSONArray (the JSON text
+ * parsing both share is left out) or on the same binary records. Single-threaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarBenchmark {
+
+    @Param({"100", "10000"})
+    int batchSize;
+
+    @Param({"spot", "mixed", "option"})
+    String mix;
+
+    @Param({"0.0", "0.1", "0.5"})
+    double errorRatio;
+
+    @Param({"json", "binary"})
+    String input;
+
+    @Param({"row", "columnar"})
+    String engine;
+
+    private ChainofValidators chain;
+    private ColumnarValidator columnar;
+    private RejectionBuffer sink;
+    private JSONArray trades;
+    private byte[] records;
+
+    @Setup
+    public void setUp() {
+        chain = new ChainofValidators();
+        columnar = new ColumnarValidator(chain);
+        sink = new RejectionBuffer();
+        trades = new TradeGenerator(42, mix, errorRatio).batch(batchSize);
+        records = BinaryTradeFormat.encode(trades);
+    }
+
+    @Benchmark
+    public int executeChain() throws IOException {
+        sink.clear();
+        if (input.equals("binary")) {
+            BinaryTradeReader reader = new BinaryTradeReader(new ByteArrayInputStream(records));
+            if (engine.equals("columnar")) {
+                columnar.executeChain(reader, sink);
+            } else {
+                int tradeNumber = 0;
+                Trade trade;
+                while ((trade = reader.nextTrade()) != null) {
+                    chain.validateTrade(trade, ++tradeNumber, sink);
+                }
+            }
+        } else if (engine.equals("columnar")) {
+            columnar.executeChain(trades, sink);
+        } else {
+            chain.executeChain(trades, sink);
+        }
+        return sink.size();
+    }
+}
@@ -0,0 +1,182 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.KafkaCreditSuisseApplication;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.metrics.LatencyHistogram;
+import org.json.JSONArray;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives POST /validatetrades of a running service at a fixed request rate with an
+ * {@link OpenLoopDriver} and prints the throughput and the latency distribution:
+ * <pre>
+ * mvn -Pload verify -DskipTests -Dload.args="--rate=200 --batch-sizes=1,100 --duration-seconds=60"
+ * </pre>
+ * Options, all --name=value:
+ * <ul>
+ * <li>url - default http://localhost:9090/validatetrades</li>
+ * <li>start-local - true to first start the application in this JVM on a free port, sharing its CPUs</li>
+ * <li>rate - requests per second, default 100</li>
+ * <li>duration-seconds - default 30, after warmup-seconds (default 5) at the same rate, not reported</li>
+ * <li>connections - requests in flight at most, default 32</li>
+ * <li>batch-sizes - trades per request, one of the list per request, default 1</li>
+ * <li>mix - percent of Spot/Forward/VanillaOption trades, default 34/33/33</li>
+ * <li>error-ratio - share of trades with one injected error, default 0.1</li>
+ * <li>errors - ErrorType names to inject, default one per validator ({@link TradeGenerator#VALIDATOR_ERRORS})</li>
+ * <li>distinct-requests - request bodies generated up front and sent in turn, default 1000; each trade
+ * carries a unique tradeId, so the result cache only hits once they repeat</li>
+ * <li>seed - default 42</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    private static final double[] PERCENTILES = {
+            0.5, 0.75, 0.875, 0.9, 0.95, 0.99, 0.995, 0.999, 0.9999, 1.0};
+
+    public static void main(String[] args) throws Exception {
+
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "32"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration-seconds", "30"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup-seconds", "5"));
+
+        //[Touraj] :: Otherwise HttpURLConnection keeps only 5 connections alive
+        System.setProperty("http.maxConnections", Integer.toString(connections));
+
+        ConfigurableApplicationContext context = null;
+        URL url;
+        if (Boolean.parseBoolean(options.getOrDefault("start-local", "false"))) {
+            context = SpringApplication.run(KafkaCreditSuisseApplication.class, "--server.port=0");
+            url = new URL("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/validatetrades");
+        } else {
+            url = new URL(options.getOrDefault("url", "http://localhost:9090/validatetrades"));
+        }
+
+        try {
+            List<byte[]> bodies = new ArrayList<>();
+            long trades = generate(options, bodies);
+            double tradesPerRequest = (double) trades / bodies.size();
+            System.out.printf("%d request bodies, %.1f trades per request on average, to %s\n", bodies.size(), tradesPerRequest, url);
+
+            OpenLoopDriver driver = new OpenLoopDriver(rate, connections);
+            OpenLoopDriver.Request request = index -> post(url, bodies.get((int) (index % bodies.size())));
+
+            if (warmupSeconds > 0) {
+                System.out.printf("Warming up for %ds at %.0f requests/s\n", warmupSeconds, rate);
+                driver.run(request, TimeUnit.SECONDS.toNanos(warmupSeconds));
+            }
+            System.out.printf("Running for %ds at %.0f requests/s over at most %d connections\n", durationSeconds, rate, connections);
+            report(driver.run(request, TimeUnit.SECONDS.toNanos(durationSeconds)), rate, tradesPerRequest);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * @return the number of trades in all bodies
+     */
+    private static long generate(Map<String, String> options, List<byte[]> bodies) {
+
+        String[] mix = options.getOrDefault("mix", "34/33/33").split("/");
+        double spot = Double.parseDouble(mix[0]);
+        double forward = Double.parseDouble(mix[1]);
+        double total = spot + forward + Double.parseDouble(mix[2]);
+
+        Set<ErrorType> errors = TradeGenerator.VALIDATOR_ERRORS;
+        if (options.containsKey("errors")) {
+            errors = EnumSet.noneOf(ErrorType.class);
+            for (String error : options.get("errors").split(",")) {
+                errors.add(ErrorType.valueOf(error.trim()));
+            }
+        }
+
+        TradeGenerator generator = new TradeGenerator(Long.parseLong(options.getOrDefault("seed", "42")),
+                spot / total, forward / total, Double.parseDouble(options.getOrDefault("error-ratio", "0.1")), errors);
+
+        String[] batchSizes = options.getOrDefault("batch-sizes", "1").split(",");
+        int distinct = Integer.parseInt(options.getOrDefault("distinct-requests", "1000"));
+
+        long tradeId = 0;
+        for (int i = 0; i < distinct; i++) {
+            JSONArray batch = generator.batch(Integer.parseInt(batchSizes[i % batchSizes.length].trim()));
+            for (int j = 0; j < batch.length(); j++) {
+                batch.getJSONObject(j).put("tradeId", ++tradeId);
+            }
+            bodies.add(batch.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return tradeId;
+    }
+
+    private static void post(URL url, byte[] body) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "text/plain");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException("HTTP " + status);
+        }
+        //[Touraj] :: Read to the end, so the connection goes back to the keep-alive cache
+        byte[] buffer = new byte[8192];
+        try (InputStream in = connection.getInputStream()) {
+            while (in.read(buffer) > 0) {
+                //[Touraj] :: Only the time to the last byte matters
+            }
+        }
+    }
+
+    private static void report(OpenLoopDriver.Result result, double rate, double tradesPerRequest) {
+
+        LatencyHistogram.Snapshot responseTime = result.getResponseTime();
+        LatencyHistogram.Snapshot serviceTime = result.getServiceTime();
+
+        double seconds = result.getElapsedNanos() / 1e9;
+        long completed = responseTime.getCount();
+        System.out.printf("\nRequests: %d sent, %d completed, %d failed\n", result.getSent(), completed, result.getFailed());
+        if (result.getFirstFailure() != null) {
+            System.out.printf("First failure: %s\n", result.getFirstFailure());
+        }
+        System.out.printf("Throughput: %.1f requests/s (target %.1f), %.0f trades/s\n",
+                completed / seconds, rate, completed * tradesPerRequest / seconds);
+
+        System.out.printf("\n%10s %22s %22s\n", "percentile", "response time (ms)", "service time (ms)");
+        for (double percentile : PERCENTILES) {
+            System.out.printf("%10s %22.3f %22.3f\n", percentile == 1.0 ? "max" : String.format("%.2f", percentile * 100),
+                    responseTime.getValueAt(percentile) / 1e6, serviceTime.getValueAt(percentile) / 1e6);
+        }
+        System.out.printf("%10s %22.3f %22.3f\n", "mean", responseTime.getMean() / 1e6, serviceTime.getMean() / 1e6);
+        System.out.println("\nResponse time counts from when each request was due, so it includes any queueing"
+                + " behind slow requests; service time counts from when it was sent.");
+    }
+}
@@ -0,0 +1,131 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.metrics.LatencyHistogram;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate, whatever the service's response times. Request i is due
+ * at start + i / rate; it is queued for the next free connection at that time, and its response
+ * time is counted from then, not from when a connection picked it up. A service that stalls
+ * therefore shows the stall in the latency of every request that was due meanwhile (no
+ * coordinated omission), while the service time, counted from the actual send, shows only what
+ * each request took on the wire.
+ */
+public class OpenLoopDriver {
+
+    public interface Request {
+        /**
+         * @param index 0 for the first request of a run; returns normally when the service accepted it
+         */
+        void send(long index) throws Exception;
+    }
+
+    private final double ratePerSecond;
+    private final int connections;
+
+    /**
+     * @param connections requests in flight at most; the rest wait, and their waiting counts
+     */
+    public OpenLoopDriver(double ratePerSecond, int connections) {
+        if (ratePerSecond <= 0 || connections < 1) {
+            throw new IllegalArgumentException("rate and connections must be positive: " + ratePerSecond + ", " + connections);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.connections = connections;
+    }
+
+    /**
+     * Sends requests for the duration, then waits for the ones in flight
+     */
+    public Result run(Request request, long durationNanos) throws InterruptedException {
+
+        ExecutorService workers = Executors.newFixedThreadPool(connections, runnable -> {
+            Thread thread = new Thread(runnable, "load-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Result result = new Result();
+
+        long start = System.nanoTime();
+        long index = 0;
+        while (true) {
+            long due = start + Math.round(index * 1e9 / ratePerSecond);
+            if (due - start >= durationNanos) {
+                break;
+            }
+            for (long wait; (wait = due - System.nanoTime()) > 0; ) {
+                LockSupport.parkNanos(wait);
+            }
+
+            long requestIndex = index++;
+            result.sent.increment();
+            workers.execute(() -> {
+                long sent = System.nanoTime();
+                try {
+                    request.send(requestIndex);
+                    long end = System.nanoTime();
+                    result.responseTime.record(end - due);
+                    result.serviceTime.record(end - sent);
+                } catch (Exception e) {
+                    result.failed.increment();
+                    if (result.firstFailure == null) {
+                        result.firstFailure = e;
+                    }
+                }
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    public static final class Result {
+
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private volatile Exception firstFailure;
+        private long elapsedNanos;
+
+        /**
+         * From the time each request was due, corrected for coordinated omission
+         */
+        public LatencyHistogram.Snapshot getResponseTime() {
+            return responseTime.snapshot();
+        }
+
+        /**
+         * From the time each request was actually sent
+         */
+        public LatencyHistogram.Snapshot getServiceTime() {
+            return serviceTime.snapshot();
+        }
+
+        public long getSent() {
+            return sent.sum();
+        }
+
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        /**
+         * @return null when every request succeeded
+         */
+        public Exception getFirstFailure() {
+            return firstFailure;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OpenLoopDriverTests {
+
+    @Test
+    public void testQueueingBehindSlowRequestsCountsInResponseTime() throws Exception {
+
+        //[Touraj] :: 50 requests due every 10ms over one connection that takes 20ms each: the last one waits about 500ms
+        OpenLoopDriver.Result result = new OpenLoopDriver(100, 1)
+                .run(index -> Thread.sleep(20), TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertEquals(50, result.getSent());
+        assertEquals(0, result.getFailed());
+        assertNull(result.getFirstFailure());
+        assertEquals(50, result.getResponseTime().getCount());
+        assertTrue(result.getResponseTime().getMax() > TimeUnit.MILLISECONDS.toNanos(300));
+        assertTrue(result.getServiceTime().getMax() < TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(result.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    @Test
+    public void testFailuresAreCountedNotTimed() throws Exception {
+
+        OpenLoopDriver.Result result = new OpenLoopDriver(1000, 4).run(index -> {
+            if (index % 2 == 1) {
+                throw new IllegalStateException("odd " + index);
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(100, result.getSent());
+        assertEquals(50, result.getFailed());
+        assertEquals(50, result.getResponseTime().getCount());
+        assertTrue(result.getFirstFailure() instanceof IllegalStateException);
+    }
+}
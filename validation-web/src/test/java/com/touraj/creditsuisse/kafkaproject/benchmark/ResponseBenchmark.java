@@ -0,0 +1,70 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.JSONArraySink;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionJson;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collecting and serializing the rejections of a batch into a response body: JSONObjects in a
+ * JSONArray turned into a String, against a {@link RejectionBuffer} written straight as bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+
+    @Param({"100", "10000"})
+    int batchSize;
+
+    @Param({"0.1", "0.5"})
+    double errorRatio;
+
+    @Param({"jsonArray", "rejectionBuffer"})
+    String sink;
+
+    private RejectionBuffer rejections;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        rejections = new RejectionBuffer();
+        new ChainofValidators().executeChain(new TradeGenerator(42, "mixed", errorRatio).batch(batchSize), rejections);
+        out = new ByteArrayOutputStream(rejections.size() * RejectionJson.MAX_LENGTH);
+    }
+
+    @Benchmark
+    public int writeResponse() throws IOException {
+        out.reset();
+        if (sink.equals("rejectionBuffer")) {
+            RejectionBuffer buffer = new RejectionBuffer();
+            rejections.replayTo(buffer);
+            RejectionJson.writeArray(buffer, out);
+        } else {
+            JSONArray messages = new JSONArray();
+            rejections.replayTo(new JSONArraySink(messages));
+            out.write(messages.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return out.size();
+    }
+}
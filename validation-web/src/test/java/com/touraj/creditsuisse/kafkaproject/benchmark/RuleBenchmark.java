@@ -0,0 +1,87 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.BeforeDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ExcerciseStartDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.ExpiryAndPrimiumDateValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.Validator.StyleValidator;
+import com.touraj.creditsuisse.kafkaproject.rules.RuleSet;
+import org.json.JSONArray;
+import org.json.JSONTokener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand-written date and style validators against the same checks written as declarative
+ * rules (src/test/resources/rules/date-and-style-rules.json) and compiled, over 1000 trades.
+ * Each trade is a fresh JsonTrade, so both pay the same date parsing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleBenchmark {
+
+    @Param({"spot", "mixed", "option"})
+    String mix;
+
+    @Param({"0.0", "0.5"})
+    double errorRatio;
+
+    @Param({"handWritten", "compiled"})
+    String engine;
+
+    private List<IValidator> validators;
+    private RuleSet ruleSet;
+    private RejectionBuffer sink;
+    private JSONArray trades;
+
+    @Setup
+    public void setUp() throws IOException {
+        validators = new ChainofValidators(Arrays.asList(new BeforeDateValidator(), new StyleValidator(),
+                new ExcerciseStartDateValidator(), new ExpiryAndPrimiumDateValidator())).getValidatorList();
+        try (InputStream in = RuleBenchmark.class.getResourceAsStream("/rules/date-and-style-rules.json")) {
+            ruleSet = RuleSet.compile(new JSONArray(new JSONTokener(in)));
+        }
+        sink = new RejectionBuffer();
+        trades = new TradeGenerator(42, mix, errorRatio).batch(1000);
+    }
+
+    @Benchmark
+    public int validate() {
+        sink.clear();
+        for (int i = 0; i < trades.length(); i++) {
+            JsonTrade trade = new JsonTrade(trades.getJSONObject(i));
+            if (engine.equals("compiled")) {
+                ruleSet.validate(trade, i + 1, sink);
+            } else {
+                for (IValidator validator : validators) {
+                    if (validator.appliesTo(trade.getType())) {
+                        validator.processValidation(trade, i + 1, sink);
+                    }
+                }
+            }
+        }
+        return sink.size();
+    }
+}
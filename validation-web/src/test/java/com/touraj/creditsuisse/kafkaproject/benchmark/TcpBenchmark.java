@@ -0,0 +1,117 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.KafkaCreditSuisseApplication;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import com.touraj.creditsuisse.kafkaproject.tcp.TcpValidationClient;
+import com.touraj.creditsuisse.kafkaproject.tcp.TcpValidationServer;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of a request from a client on the same machine to the running application: POST
+ * /validatetrades over a kept-alive HTTP connection against the same trades pipelined as frames
+ * on the TCP endpoint. Both are answered by the same chain (with the result cache off, so every
+ * trade is validated).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TcpBenchmark {
+
+    @Param({"1", "100"})
+    int tradesPerRequest;
+
+    @Param({"rest", "tcp"})
+    String transport;
+
+    private ConfigurableApplicationContext context;
+    private URL url;
+    private TcpValidationClient client;
+    private JSONArray trades;
+    private byte[] json;
+    private final byte[] response = new byte[1 << 16];
+
+    @Setup
+    public void setUp() throws IOException {
+
+        context = SpringApplication.run(KafkaCreditSuisseApplication.class,
+                "--server.port=0", "--validation.tcp.enabled=true", "--validation.tcp.port=0",
+                "--validation.cache.enabled=false",
+                "--validation.journal.dir=" + Files.createTempDirectory("tcp-benchmark-journal"));
+
+        url = new URL("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/validatetrades");
+        client = new TcpValidationClient("localhost", context.getBean(TcpValidationServer.class).getPort());
+
+        trades = new TradeGenerator(42, "mixed", 0.1).batch(tradesPerRequest);
+        json = trades.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int validate() throws IOException {
+        return transport.equals("tcp") ? viaTcp() : viaRest();
+    }
+
+    private int viaTcp() throws IOException {
+        for (int i = 0; i < trades.length(); i++) {
+            client.send(trades.getJSONObject(i));
+        }
+        client.flush();
+        RejectionBuffer rejections = new RejectionBuffer();
+        for (int i = 0; i < trades.length(); i++) {
+            client.receive(rejections);
+        }
+        return rejections.size();
+    }
+
+    private int viaRest() throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "text/plain");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(json.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(json);
+        }
+
+        //[Touraj] :: Read to the end, so the connection goes back to the keep-alive cache
+        int length = 0;
+        try (InputStream in = connection.getInputStream()) {
+            for (int read; (read = in.read(response)) > 0; ) {
+                length += read;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,78 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.util.EpochDay;
+import com.touraj.creditsuisse.kafkaproject.util.Utility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every Utility method, on input it accepts and on input it rejects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilityBenchmark {
+
+    @Param({"valid", "invalid"})
+    String input;
+
+    private String firstDate;
+    private String secondDate;
+    private int firstEpochDay;
+    private int secondEpochDay;
+    private String weekendDate;
+    private String currency;
+
+    @Setup
+    public void setUp() {
+
+        boolean valid = input.equals("valid");
+
+        firstDate = valid ? "2016-08-11" : "2016-02-30";
+        secondDate = "2016-08-18";
+        weekendDate = valid ? "2017-06-11" : "2017-06-1x";
+        currency = valid ? "USD" : "UDS";
+
+        firstEpochDay = EpochDay.parse(firstDate);
+        secondEpochDay = EpochDay.parse(secondDate);
+    }
+
+    @Benchmark
+    public int epochDayParse() {
+        return EpochDay.parse(firstDate);
+    }
+
+    @Benchmark
+    public boolean checkBeforeDate() {
+        return Utility.checkBeforeDate(firstDate, secondDate);
+    }
+
+    @Benchmark
+    public boolean checkBeforeDateEpochDays() {
+        return Utility.checkBeforeDate(firstEpochDay, secondEpochDay);
+    }
+
+    @Benchmark
+    public boolean isDateFallinWeekend() {
+        return Utility.isDateFallinWeekend(weekendDate);
+    }
+
+    @Benchmark
+    public boolean isValidCurrencyISO4217() {
+        return Utility.isValidCurrencyISO4217(currency);
+    }
+}
@@ -0,0 +1,103 @@
+package com.touraj.creditsuisse.kafkaproject.benchmark;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.ErrorType;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.Validator.JsonTrade;
+import com.touraj.creditsuisse.kafkaproject.Validator.RejectionBuffer;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each IValidator on its own, on a trade it accepts and on one it rejects. A fresh JsonTrade is
+ * used per call so the date parsing a validator triggers is part of its cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    @Param({"BeforeDateValidator", "WeekendValidator", "ISO4217Validator", "CcyPairValidator",
+            "CustomerValidator",
+            "StyleValidator", "ExcerciseStartDateValidator", "ExpiryAndPrimiumDateValidator"})
+    String validatorName;
+
+    @Param({"valid", "invalid"})
+    String input;
+
+    private IValidator validator;
+    private JSONObject trade;
+    private RejectionBuffer sink;
+
+    @Setup
+    public void setUp() {
+
+        for (IValidator candidate : new ChainofValidators().getValidatorList()) {
+            if (candidate.getClass().getSimpleName().equals(validatorName)) {
+                validator = candidate;
+            }
+        }
+        if (validator == null) {
+            throw new IllegalArgumentException("Unknown validator: " + validatorName);
+        }
+
+        ErrorType error = input.equals("valid") ? null : errorOf(validatorName);
+        TradeGenerator generator = new TradeGenerator(42, "mixed", 0);
+
+        switch (validatorName) {
+            case "BeforeDateValidator":
+            case "WeekendValidator":
+            case "CcyPairValidator":
+            case "CustomerValidator":
+                trade = generator.spotOrForward("Spot", "2016-08-15", error);
+                break;
+            default:
+                trade = generator.vanillaOption(error);
+                trade.put("style", error == ErrorType.StyleNotValid ? "BERMUDAN" : "AMERICAN");
+        }
+
+        sink = new RejectionBuffer();
+    }
+
+    @Benchmark
+    public boolean processValidation() {
+        sink.clear();
+        return validator.processValidation(new JsonTrade(trade), 1, sink);
+    }
+
+    private static ErrorType errorOf(String validatorName) {
+        switch (validatorName) {
+            case "BeforeDateValidator":
+                return ErrorType.valueDateNotbeforeTradeDate;
+            case "WeekendValidator":
+                return ErrorType.valueDateFallinWeekend;
+            case "ISO4217Validator":
+                return ErrorType.payCcyNotValidISO4217;
+            case "CcyPairValidator":
+                return ErrorType.ccyPairNotValidISO4217;
+            case "CustomerValidator":
+                return ErrorType.CustomerNotValid;
+            case "StyleValidator":
+                return ErrorType.StyleNotValid;
+            case "ExcerciseStartDateValidator":
+                return ErrorType.InvalidExcerciseStartDate;
+            default:
+                return ErrorType.InvalidExpiryAndPrimiumDate;
+        }
+    }
+}
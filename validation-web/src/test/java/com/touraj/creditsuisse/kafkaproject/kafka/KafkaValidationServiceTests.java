@@ -0,0 +1,171 @@
+package com.touraj.creditsuisse.kafkaproject.kafka;
+
+import com.touraj.creditsuisse.kafkaproject.Validator.ChainofValidators;
+import com.touraj.creditsuisse.kafkaproject.Validator.IValidator;
+import com.touraj.creditsuisse.kafkaproject.crosstrade.DuplicateIndex;
+import com.touraj.creditsuisse.kafkaproject.crosstrade.DuplicateTradeValidator;
+import org.apache.kafka.clients.consumer.CommitFailedException;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.json.JSONObject;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.kafka.test.rule.KafkaEmbedded;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class KafkaValidationServiceTests {
+
+    @ClassRule
+    public static KafkaEmbedded embeddedKafka = new KafkaEmbedded(1, true, 2, "trades", "trades-valid", "trades-rejected");
+
+    private static final String VALID_TRADE = "{\"customer\":\"PLUTO1\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-15\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}";
+    private static final String INVALID_TRADE = "{\"customer\":\"PLUTO3\",\"ccyPair\":\"EURUSD\",\"type\":\"Spot\",\"direction\":\"BUY\",\"tradeDate\":\"2016-08-11\",\"amount1\":1000000.00,\"amount2\":1120000.00,\"rate\":1.12,\"valueDate\":\"2016-08-13\",\"legalEntity\":\"CS Zurich\",\"trader\":\"Johann Baumfiddler\"}";
+
+    @Test
+    public void testTradesAreRoutedAndOffsetsCommitted() throws Exception {
+
+        KafkaValidationProperties properties = new KafkaValidationProperties();
+        properties.setBootstrapServers(embeddedKafka.getBrokersAsString());
+        properties.setConsumerThreads(2);
+        properties.setPollTimeoutMs(100);
+
+        KafkaValidationService service = new KafkaValidationService(new ChainofValidators(), properties);
+        service.start();
+
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(producerConfig())) {
+            producer.send(new ProducerRecord<>("trades", "1", VALID_TRADE));
+            producer.send(new ProducerRecord<>("trades", "2", INVALID_TRADE));
+            producer.send(new ProducerRecord<>("trades", "3", "not a trade"));
+        }
+
+        List<ConsumerRecord<String, String>> valid = consume("trades-valid", 1);
+        List<ConsumerRecord<String, String>> rejected = consume("trades-rejected", 2);
+
+        service.stop();
+
+        assertEquals(VALID_TRADE, valid.get(0).value());
+
+        Map<String, String> errorsByKey = new HashMap<>();
+        for (ConsumerRecord<String, String> record : rejected) {
+            errorsByKey.put(record.key(), new JSONObject(record.value()).getJSONArray("errors").toString());
+        }
+        assertEquals("[\"valueDateFallinWeekend\",\"CustomerNotValid\"]", errorsByKey.get("2"));
+        assertEquals("[\"TradeNotParsable\"]", errorsByKey.get("3"));
+
+        assertEquals(3, committedOffsets("trade-validation", "trades"));
+    }
+
+    @Test
+    public void testFailedCommitRereadsBatch() {
+
+        TopicPartition partition = new TopicPartition("trades", 0);
+        AtomicInteger commits = new AtomicInteger();
+        MockConsumer<String, String> consumer = new MockConsumer<String, String>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                //[Touraj] :: As when the group rebalanced while the batch was being validated
+                if (commits.getAndIncrement() == 0) {
+                    throw new CommitFailedException();
+                }
+                super.commitSync(offsets);
+            }
+        };
+        consumer.assign(Collections.singletonList(partition));
+        consumer.updateBeginningOffsets(Collections.singletonMap(partition, 0L));
+        consumer.seek(partition, 7);
+        MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+
+        List<IValidator> validators = new ArrayList<>(ChainofValidators.initValidators());
+        validators.add(new DuplicateTradeValidator(new DuplicateIndex(1000, 60, 1)));
+        KafkaTradeValidator worker = new KafkaTradeValidator(consumer, producer, new ChainofValidators(validators),
+                new KafkaValidationProperties());
+
+        ConsumerRecords<String, String> records = new ConsumerRecords<>(Collections.singletonMap(partition, Arrays.asList(
+                new ConsumerRecord<>("trades", 0, 5, "1", VALID_TRADE),
+                new ConsumerRecord<String, String>("trades", 0, 6, "2", null))));
+
+        worker.processBatch(records);
+        assertEquals(5, consumer.position(partition));
+
+        worker.processBatch(records);
+        assertEquals(7, consumer.committed(partition).offset());
+
+        //[Touraj] :: The second read is no duplicate of the first, and the empty record is rejected both times
+        List<ProducerRecord<String, String>> sent = producer.history();
+        assertEquals(4, sent.size());
+        for (int i = 0; i < sent.size(); i += 2) {
+            assertEquals(VALID_TRADE, sent.get(i).value());
+            assertEquals("trades-rejected", sent.get(i + 1).topic());
+            assertEquals("[\"TradeNotParsable\"]", new JSONObject(sent.get(i + 1).value()).getJSONArray("errors").toString());
+        }
+    }
+
+    private List<ConsumerRecord<String, String>> consume(String topic, int expected) {
+
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerConfig("test-" + topic))) {
+            consumer.subscribe(Arrays.asList(topic));
+            long deadline = System.currentTimeMillis() + 30000;
+            while (records.size() < expected && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(100)) {
+                    records.add(record);
+                }
+            }
+        }
+
+        assertEquals(expected, records.size());
+        return records;
+    }
+
+    private long committedOffsets(String groupId, String topic) {
+
+        long total = 0;
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerConfig(groupId))) {
+            for (int partition = 0; partition < 2; partition++) {
+                OffsetAndMetadata committed = consumer.committed(new TopicPartition(topic, partition));
+                total += committed == null ? 0 : committed.offset();
+            }
+        }
+        return total;
+    }
+
+    private Map<String, Object> producerConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString());
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return config;
+    }
+
+    private Map<String, Object> consumerConfig(String groupId) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString());
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return config;
+    }
+}